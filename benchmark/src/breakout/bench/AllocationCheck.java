@@ -0,0 +1,132 @@
+package breakout.bench;
+
+import breakout.sim.AimingPolicy;
+import breakout.sim.PaddlePolicy;
+import breakout.sim.PhaseProfiler;
+import breakout.sim.Settings;
+import breakout.sim.World;
+import breakout.sim.WorldListener;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Purpose: Check that a tick of the game doesn't allocate once the game is running, by playing games on Worlds of a
+ * few different shapes and counting the bytes the thread allocated, and exit with an error if any tick allocated or
+ * if the measured games didn't actually hit any bricks (so a paddle stuck in a loop can't pass the check).
+ * Assumptions: running on a JVM whose ThreadMXBean supports allocation counting (HotSpot does)
+ * Dependencies: This class depends on the World, Settings, WorldListener, AimingPolicy, PaddlePolicy, and
+ * PhaseProfiler classes and the com.sun.management.ThreadMXBean class.
+ * Example: java -cp benchmark/target/benchmarks.jar breakout.bench.AllocationCheck
+ * Other details: each shape is warmed up for WARMUP_TICKS first, on games of its own that are replaced by a new one as
+ * each ends, so that the JIT has compiled the step (and class loading is done). Then MEASURED_TICKS ticks are counted
+ * over a few fresh games (MEASURED_GAMES, or more for short ones) that were all made before counting started, moving on
+ * to the next one when a game ends, since making a World allocates. With much shorter warmups a few hundred bytes are
+ * sometimes counted once while the JIT is still replacing code, which isn't the game allocating. The paddle is moved by
+ * an AimingPolicy, which keeps sending the ball somewhere new. The JMH benchmarks report the same thing per operation
+ * (gc.alloc.rate.norm), this is a quicker yes or no.
+ *
+ * @author Evan Kenyon
+ */
+public class AllocationCheck {
+
+    public static final int WARMUP_TICKS = 1_000_000;
+    public static final int MEASURED_TICKS = 100_000;
+    public static final int MEASURED_GAMES = 16;
+    // A 100 ball game is won in a few hundred ticks, so it takes a lot more of them to fill MEASURED_TICKS
+    public static final int MEASURED_MANY_BALL_GAMES = 256;
+    public static final double SECOND_DELAY = 1.0 / 60;
+    public static final long SEED = 307;
+
+    public static void main(String[] args) {
+        boolean failed = false;
+        failed |= check("default field", Settings.DEFAULT, MEASURED_GAMES, false);
+        failed |= check("~125k bricks", Settings.DEFAULT.withSceneSize(25000), MEASURED_GAMES, false);
+        failed |= check("100 balls", Settings.DEFAULT.withBallCount(100), MEASURED_MANY_BALL_GAMES, false);
+        failed |= check("phase profiler on", Settings.DEFAULT, MEASURED_GAMES, true);
+        if(failed) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean check(String name, Settings settings, int gameCount, boolean profiled) {
+        long seed = SEED;
+        int warmupTicks = 0;
+        while(warmupTicks < WARMUP_TICKS) {
+            World world = createWorld(settings, seed, profiled);
+            warmupTicks += play(world, new AimingPolicy(seed), WARMUP_TICKS - warmupTicks);
+            seed++;
+        }
+        World[] games = new World[gameCount];
+        PaddlePolicy[] policies = new PaddlePolicy[gameCount];
+        HitCounter hits = new HitCounter();
+        for(int game = 0; game < gameCount; game++) {
+            games[game] = createWorld(settings, seed + game, profiled);
+            games[game].setListener(hits);
+            policies[game] = new AimingPolicy(seed + game);
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        // Reading the counter can allocate the first few times it's called, so how much it allocates is taken off
+        long before = threads.getThreadAllocatedBytes(threadId);
+        long overhead = threads.getThreadAllocatedBytes(threadId) - before;
+        before = threads.getThreadAllocatedBytes(threadId);
+        int measuredTicks = 0;
+        int game = 0;
+        while(measuredTicks < MEASURED_TICKS && game < gameCount) {
+            measuredTicks += play(games[game], policies[game], MEASURED_TICKS - measuredTicks);
+            game++;
+        }
+        long bytes = threads.getThreadAllocatedBytes(threadId) - before - overhead;
+        long score = 0;
+        for(int i = 0; i < game; i++) {
+            score += games[i].getScore();
+        }
+        System.out.printf("%-20s %.3f bytes per tick over %d ticks of %d games (%d bricks hit, %d points scored)%n",
+                name, (double) bytes / measuredTicks, measuredTicks, game, hits.count, score);
+        if(hits.count == 0 || score == 0) {
+            System.out.println("    no bricks were hit while measuring, so the check didn't measure a real game");
+        }
+        return bytes > 0 || hits.count == 0 || score == 0;
+    }
+
+    private static World createWorld(Settings settings, long seed, boolean profiled) {
+        World world = World.create(settings, seed);
+        if(profiled) {
+            PhaseProfiler profiler = new PhaseProfiler();
+            profiler.setEnabled(true);
+            world.setProfiler(profiler);
+        }
+        return world;
+    }
+
+    // Plays until the game ends or ticks have gone by, returning how many ticks were played
+    private static int play(World world, PaddlePolicy policy, int ticks) {
+        for(int tick = 0; tick < ticks; tick++) {
+            if(world.getStatus() != World.Status.PLAYING) {
+                return tick;
+            }
+            world.launchBall();
+            double move = policy.getPaddleMove(world);
+            world.movePaddle(Math.max(-World.PADDLE_SPEED, Math.min(World.PADDLE_SPEED, move)));
+            world.step(SECOND_DELAY);
+        }
+        return ticks;
+    }
+
+    // Counts every time a ball hits a brick, destroyed or not
+    private static class HitCounter implements WorldListener {
+
+        private long count;
+
+        @Override
+        public void brickDestroyed(int cell) {
+            count++;
+        }
+
+        @Override
+        public void brickHit(int cell) {
+            count++;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package breakout.bench;
+
+import breakout.Ball;
+import breakout.sim.BallState;
+import breakout.sim.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purpose: Measure the ball's velocity and angle updates, which happen on every bounce.
+ * Assumptions: none
+ * Dependencies: This class depends on the Ball and BallState classes and JMH.
+ * Other details: the bounce benchmarks reverse one velocity and nudge the angle the way a paddle hit does.
+ *
+ * @author Evan Kenyon
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BallBenchmark {
+
+    private BallState state;
+    private Ball ball;
+
+    @Setup
+    public void setup() {
+        state = new BallState(World.SCENE_SIZE / 2, World.SCENE_SIZE / 2, World.BALL_RADIUS, new Random(307));
+        ball = new Ball(new BallState(World.SCENE_SIZE / 2, World.SCENE_SIZE / 2, World.BALL_RADIUS, new Random(307)));
+    }
+
+    @Benchmark
+    public double ballStateReverseVelocities() {
+        state.reverseXVelocity();
+        state.reverseYVelocity();
+        return state.getAngle();
+    }
+
+    @Benchmark
+    public double ballStatePaddleBounce() {
+        state.reverseYVelocity();
+        state.setAngle(state.getAngle() + Math.toRadians(0.5));
+        return state.getXVelocity();
+    }
+
+    @Benchmark
+    public double ballReverseVelocities() {
+        ball.reverseXVelocity();
+        ball.reverseYVelocity();
+        return ball.getAngle();
+    }
+
+    @Benchmark
+    public double ballPaddleBounce() {
+        ball.reverseYVelocity();
+        ball.setAngle(ball.getAngle() + Math.toRadians(0.5));
+        return ball.getXVelocity();
+    }
+}
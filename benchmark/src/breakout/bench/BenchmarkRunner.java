@@ -0,0 +1,28 @@
+package breakout.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Purpose: Run the game's JMH benchmarks with the gc profiler always attached, so every result reports the
+ * allocation rate next to the throughput.
+ * Assumptions: none
+ * Dependencies: This class depends on JMH.
+ * Example: java -jar benchmark/target/benchmarks.jar WorldStep -p sceneSize=800
+ * Other details: takes the same command line arguments as the regular JMH main class.
+ *
+ * @author Evan Kenyon
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,49 @@
+package breakout.bench;
+
+import breakout.Bricks;
+import breakout.sim.BrickField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purpose: Measure generating a level, i.e. picking the blocked rows and columns and filling in the bricks, both for
+ * the BrickField alone and for Bricks (which also builds a Rectangle for every brick).
+ * Assumptions: none
+ * Dependencies: This class depends on the Bricks and BrickField classes and JMH.
+ *
+ * @author Evan Kenyon
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BrickGenerationBenchmark {
+
+    @Param({"800", "5000", "25000"})
+    private int sceneSize;
+
+    private Random rand = new Random(307);
+
+    @Benchmark
+    public BrickField brickField() {
+        return Fields.createBrickField(sceneSize, rand);
+    }
+
+    @Benchmark
+    public Bricks bricks() {
+        return new Bricks(Fields.createBrickField(sceneSize, rand));
+    }
+}
@@ -0,0 +1,81 @@
+package breakout.bench;
+
+import breakout.sim.BrickField;
+import breakout.sim.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purpose: Measure looking up the brick a ball is intersecting with through BrickField, both for ball positions that
+ * don't hit anything (most frames of a real game) and for positions all over the field.
+ * Assumptions: none
+ * Dependencies: This class depends on the BrickField class and JMH.
+ *
+ * @author Evan Kenyon
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BrickLookupBenchmark {
+
+    private static final int POSITION_COUNT = 1024;
+
+    @Param({"800", "5000", "25000"})
+    private int sceneSize;
+
+    private BrickField field;
+    private double[] missX;
+    private double[] missY;
+    private double[] anyX;
+    private double[] anyY;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random rand = new Random(307);
+        field = Fields.createBrickField(sceneSize, rand);
+        missX = new double[POSITION_COUNT];
+        missY = new double[POSITION_COUNT];
+        anyX = new double[POSITION_COUNT];
+        anyY = new double[POSITION_COUNT];
+        double r = World.BALL_RADIUS;
+        for(int i = 0; i < POSITION_COUNT; i++) {
+            anyX[i] = rand.nextDouble() * sceneSize;
+            anyY[i] = rand.nextDouble() * sceneSize / 2;
+            do {
+                missX[i] = rand.nextDouble() * sceneSize;
+                missY[i] = rand.nextDouble() * sceneSize;
+            } while(field.getCellIntersecting(missX[i] - r, missY[i] - r, missX[i] + r, missY[i] + r) != -1);
+        }
+    }
+
+    @Benchmark
+    public int brickFieldGetCellIntersectingMiss() {
+        next = (next + 1) & (POSITION_COUNT - 1);
+        double r = World.BALL_RADIUS;
+        return field.getCellIntersecting(missX[next] - r, missY[next] - r, missX[next] + r, missY[next] + r);
+    }
+
+    @Benchmark
+    public int brickFieldGetCellIntersecting() {
+        next = (next + 1) & (POSITION_COUNT - 1);
+        double r = World.BALL_RADIUS;
+        return field.getCellIntersecting(anyX[next] - r, anyY[next] - r, anyX[next] + r, anyY[next] + r);
+    }
+}
@@ -0,0 +1,99 @@
+package breakout.bench;
+
+import breakout.sim.Entities;
+import breakout.sim.PowerUp;
+import breakout.sim.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purpose: Measure one tick of the game with thousands of falling power-ups and lasers in play, which should stay
+ * under 2 ms with 50k of them.
+ * Assumptions: none
+ * Dependencies: This class depends on the World, Entities, and PowerUp classes and JMH.
+ * Other details: half of the entities are power-ups and half are lasers, and whatever left the world or hit a brick
+ * is put back after every tick so the count stays the same. The power-ups are all extra lives, since catching
+ * multi-ball ones over and over would make the tick about the balls instead. Lasers clear the field within a few
+ * ticks, so whenever the game ends a new World is made and the entities are copied into it.
+ *
+ * @author Evan Kenyon
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityBenchmark {
+
+    @Param({"5000", "50000"})
+    private int entityCount;
+
+    private Random rand;
+    private World world;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        rand = new Random(307);
+        createWorld();
+    }
+
+    private void createWorld() {
+        world = Fields.createWorld(World.SCENE_SIZE, rand);
+        world.launchBall();
+        // Spread out over the whole of their paths, as they would be in a game that has been going for a while
+        while(world.getDrops().getCount() < entityCount / 2) {
+            addDrop(rand.nextDouble() * world.getHeight());
+        }
+        while(world.getLasers().getCount() < entityCount / 2) {
+            addLaser(rand.nextDouble() * world.getPaddleY());
+        }
+    }
+
+    private void addDrop(double y) {
+        Entities drops = world.getDrops();
+        drops.add(rand.nextDouble() * (world.getWidth() - World.POWER_UP_SIZE), y, 0, World.POWER_UP_FALL_SPEED,
+                World.POWER_UP_SIZE, World.POWER_UP_SIZE, (world.getHeight() - y) / World.POWER_UP_FALL_SPEED,
+                PowerUp.EXTRA_LIFE.ordinal());
+    }
+
+    private void addLaser(double y) {
+        world.getLasers().add(rand.nextDouble() * (world.getWidth() - World.LASER_WIDTH), y, 0, -World.LASER_SPEED,
+                World.LASER_WIDTH, World.LASER_HEIGHT, (y + World.LASER_HEIGHT) / World.LASER_SPEED, 0);
+    }
+
+    @Benchmark
+    public World step() {
+        if(world.getStatus() != World.Status.PLAYING) {
+            World ended = world;
+            world = Fields.createWorld(World.SCENE_SIZE, rand);
+            world.launchBall();
+            world.getDrops().copyFrom(ended.getDrops());
+            world.getLasers().copyFrom(ended.getLasers());
+        }
+        double distance = world.getBall().getCenterX() - (world.getPaddleX() + world.getPaddleWidth() / 2);
+        world.movePaddle(Math.max(-World.PADDLE_SPEED, Math.min(World.PADDLE_SPEED, distance)));
+        world.step(1.0 / 60);
+        // Put back what left so the count stays the same, new ones start where the game would make them
+        while(world.getDrops().getCount() < entityCount / 2) {
+            addDrop(0);
+        }
+        while(world.getLasers().getCount() < entityCount / 2) {
+            addLaser(world.getPaddleY() - World.LASER_HEIGHT);
+        }
+        return world;
+    }
+}
@@ -0,0 +1,35 @@
+package breakout.bench;
+
+import breakout.sim.BrickField;
+import breakout.sim.Settings;
+import breakout.sim.World;
+
+import java.util.Random;
+
+/**
+ * Purpose: Build Worlds with the default game's layout scaled up to a larger scene, for benchmarking big brick fields.
+ * Assumptions: sceneSize is at least the default World.SCENE_SIZE
+ * Dependencies: This class depends on the World, Settings, and BrickField classes and the Random class.
+ * Other details: a sceneSize of 800 is the default field (128 bricks), 5000 is roughly 5k bricks, and 25000 is
+ * roughly 125k bricks, and 70000 is roughly a million bricks.
+ *
+ * @author Evan Kenyon
+ */
+final class Fields {
+
+    private Fields() {
+    }
+
+    static World createWorld(int sceneSize, Random rand) {
+        return createWorld(sceneSize, 1, rand);
+    }
+
+    static World createWorld(int sceneSize, int ballCount, Random rand) {
+        return World.create(Settings.DEFAULT.withSceneSize(sceneSize).withBallCount(ballCount), rand.nextLong());
+    }
+
+    static BrickField createBrickField(int sceneSize, Random rand) {
+        return new BrickField(sceneSize, sceneSize, World.BRICK_SIZE, World.BRICK_SIZE,
+                World.BLOCKED_ROW_OR_COL_FREQ, rand);
+    }
+}
@@ -0,0 +1,56 @@
+package breakout.bench;
+
+import breakout.sim.BrickField;
+import breakout.sim.BrickPattern;
+import breakout.sim.LevelGenerator;
+import breakout.sim.Palette;
+import breakout.sim.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purpose: Measure generating a roughly million brick field (the same 1401 x 701 cells as MillionBrickBenchmark) in
+ * each BrickPattern with a LevelGenerator, which fills tiles on every core.
+ * Assumptions: none
+ * Dependencies: This class depends on the LevelGenerator, BrickPattern, BrickField, Palette, and World classes and
+ * JMH.
+ * Other details: compare against MillionBrickBenchmark.brickField for the standard game's single threaded generation.
+ * The seed changes every call so that no two fields are the same.
+ *
+ * @author Evan Kenyon
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LevelGeneratorBenchmark {
+
+    @Param({"lines", "caves", "maze", "mirrored-caves"})
+    private String pattern;
+
+    private LevelGenerator generator;
+    private long seed;
+
+    @Setup
+    public void setup() {
+        generator = new LevelGenerator(BrickPattern.forName(pattern), Palette.DEFAULT);
+    }
+
+    @Benchmark
+    public BrickField generate() {
+        return generator.generateForScene(MillionBrickBenchmark.SCENE_SIZE, World.BRICK_SIZE, seed++);
+    }
+}
@@ -0,0 +1,175 @@
+package breakout.bench;
+
+import breakout.net.SnapshotClient;
+import breakout.net.SnapshotServer;
+import breakout.sim.Balls;
+import breakout.sim.BrickField;
+import breakout.sim.Input;
+import breakout.sim.Settings;
+import breakout.sim.World;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.SplittableRandom;
+
+/**
+ * Purpose: Check that every client of a SnapshotServer ends up with the same game as the server, by connecting
+ * hundreds of SnapshotClients to one over loopback, sending random Inputs from all of them, and comparing each
+ * client's copy of the game with the server's after every tick, then check that a client that disconnects while
+ * holding the paddle doesn't leave it held. Exits with an error if anything didn't match.
+ * Assumptions: loopback connections can be opened
+ * Dependencies: This class depends on the SnapshotServer, SnapshotClient, World, Settings, Balls, BrickField, and
+ * Input classes.
+ * Example: java -cp benchmark/target/benchmarks.jar breakout.bench.LoopbackCheck
+ * Other details: the server is driven from this thread (processIo and tick) instead of by its own run loop, so that
+ * every client can read its snapshot before the server steps again. The server sends nothing on a tick where nothing
+ * changed, so the last client launches the ball after every tick to keep it moving, and the game has LIVES lives so
+ * that it doesn't end while it's being checked. Positions are compared as the floats the server sends, so they match
+ * exactly.
+ *
+ * @author Evan Kenyon
+ */
+public class LoopbackCheck {
+
+    public static final int CLIENTS = 300;
+    public static final int TICKS = 2000;
+    public static final int BALLS = 4;
+    public static final int LIVES = 1000;
+    public static final double INPUT_CHANCE = 0.01;
+    public static final int HOLD_TICKS = 30;
+    public static final int MAX_DISCONNECT_TICKS = 100;
+    public static final long SEED = 307;
+
+    private static final Input[] INPUTS = Input.values();
+
+    public static void main(String[] args) throws IOException {
+        Settings defaults = Settings.DEFAULT;
+        Settings settings = new Settings(defaults.sceneSize(), defaults.brickSize(), defaults.blockedRowOrColFreq(),
+                defaults.paddleSpeed(), defaults.ballSpeed(), BALLS, LIVES);
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        boolean failed;
+        try(SnapshotServer server = new SnapshotServer(settings, SEED, SnapshotServer.SECOND_DELAY, address)) {
+            SnapshotClient[] clients = connect(server);
+            try {
+                failed = checkSnapshots(server, clients) | checkDisconnectReleases(server, clients);
+            } finally {
+                for(SnapshotClient client : clients) {
+                    client.close();
+                }
+            }
+        }
+        if(failed) {
+            System.exit(1);
+        }
+    }
+
+    // Accepts each client as it connects, so none of them are left waiting on a full accept backlog
+    private static SnapshotClient[] connect(SnapshotServer server) throws IOException {
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+        SnapshotClient[] clients = new SnapshotClient[CLIENTS];
+        for(int i = 0; i < CLIENTS; i++) {
+            clients[i] = new SnapshotClient(address);
+            server.processIo(-1);
+        }
+        while(server.getConnectionCount() < CLIENTS) {
+            server.processIo(1);
+        }
+        return clients;
+    }
+
+    private static boolean checkSnapshots(SnapshotServer server, SnapshotClient[] clients) throws IOException {
+        SplittableRandom rand = new SplittableRandom(SEED);
+        long mismatches = 0;
+        long start = System.nanoTime();
+        for(int tick = 0; tick < TICKS; tick++) {
+            step(server, clients, 0);
+            for(SnapshotClient client : clients) {
+                if(!matches(client, server.getWorld())) {
+                    mismatches++;
+                }
+                if(rand.nextDouble() < INPUT_CHANCE) {
+                    client.sendInput(INPUTS[rand.nextInt(INPUTS.length)]);
+                }
+            }
+        }
+        long bytes = 0;
+        for(SnapshotClient client : clients) {
+            bytes += client.getBytesReceived();
+        }
+        System.out.printf("%d clients, %d ticks in %.1f s: %d client ticks didn't match the server, %.1f bytes per "
+                        + "tick per client (%d points scored)%n", CLIENTS, TICKS, (System.nanoTime() - start) / 1e9,
+                mismatches, (double) bytes / CLIENTS / TICKS, server.getWorld().getScore());
+        return mismatches > 0;
+    }
+
+    // Client 0 holds the paddle right then left and disconnects without letting go, and the paddle has to stop
+    private static boolean checkDisconnectReleases(SnapshotServer server, SnapshotClient[] clients)
+            throws IOException {
+        for(SnapshotClient client : clients) {
+            client.sendInput(Input.LEFT_RELEASED);
+            client.sendInput(Input.RIGHT_RELEASED);
+        }
+        step(server, clients, 0);
+        clients[0].sendInput(Input.RIGHT_PRESSED);
+        for(int tick = 0; tick < HOLD_TICKS; tick++) {
+            step(server, clients, 0);
+        }
+        clients[0].sendInput(Input.RIGHT_RELEASED);
+        clients[0].sendInput(Input.LEFT_PRESSED);
+        step(server, clients, 0);
+        double heldX = server.getWorld().getPaddleX();
+        step(server, clients, 0);
+        boolean moved = server.getWorld().getPaddleX() < heldX;
+        clients[0].close();
+        int ticks = 0;
+        while(server.getConnectionCount() == CLIENTS && ticks < MAX_DISCONNECT_TICKS) {
+            step(server, clients, 1);
+            ticks++;
+        }
+        double releasedX = server.getWorld().getPaddleX();
+        for(int tick = 0; tick < HOLD_TICKS; tick++) {
+            step(server, clients, 1);
+        }
+        boolean stopped = server.getWorld().getPaddleX() == releasedX;
+        System.out.printf("Held paddle %s, then %s after the client holding it disconnected (%d ticks to notice)%n",
+                moved ? "moved" : "DIDN'T MOVE", stopped ? "stopped" : "KEPT MOVING", ticks);
+        return !moved || !stopped || server.getConnectionCount() != CLIENTS - 1;
+    }
+
+    // Runs one tick on the server and has every client from the first one still connected read its snapshot
+    private static void step(SnapshotServer server, SnapshotClient[] clients, int firstClient) throws IOException {
+        server.processIo(-1);
+        server.tick();
+        if(server.getWorld().getStatus() != World.Status.PLAYING) {
+            throw new IllegalStateException("The game ended while it was being checked");
+        }
+        for(int i = firstClient; i < clients.length; i++) {
+            clients[i].receive();
+        }
+        clients[clients.length - 1].sendInput(Input.LAUNCH);
+    }
+
+    private static boolean matches(SnapshotClient client, World world) {
+        Balls balls = world.getBalls();
+        if(client.getPaddleX() != (float) world.getPaddleX()
+                || client.getScore() != world.getScore() || client.getLives() != world.getLives()
+                || client.getStatus() != world.getStatus() || client.getBallCount() != balls.getCount()) {
+            return false;
+        }
+        for(int i = 0; i < balls.getCount(); i++) {
+            if(client.getBallX(i) != (float) balls.getX(i) || client.getBallY(i) != (float) balls.getY(i)
+                    || client.getBallXVelocity(i) != (float) balls.getXVelocity(i)
+                    || client.getBallYVelocity(i) != (float) balls.getYVelocity(i)) {
+                return false;
+            }
+        }
+        BrickField bricks = world.getBricks();
+        for(int cell = 0; cell < bricks.getCellCount(); cell++) {
+            if(client.getBricks().getHitPoints(cell) != bricks.getHitPoints(cell)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
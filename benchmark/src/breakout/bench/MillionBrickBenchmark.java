@@ -0,0 +1,59 @@
+package breakout.bench;
+
+import breakout.sim.BrickField;
+import breakout.sim.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purpose: Stress level with roughly a million bricks, measuring generating the BrickField and stepping a World
+ * that uses it (which should cost about the same as a default sized one, since lookups only visit nearby cells).
+ * Assumptions: none
+ * Dependencies: This class depends on the BrickField and World classes and JMH.
+ * Other details: a scene size of 70000 gives 1401 x 701 cells. Only the headless BrickField is built, a Rectangle
+ * per brick at this size would not fit in a reasonable heap.
+ *
+ * @author Evan Kenyon
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MillionBrickBenchmark {
+
+    public static final int SCENE_SIZE = 70000;
+    public static final double SECOND_DELAY = 1.0 / 60;
+
+    private Random rand = new Random(307);
+    private World world;
+
+    @Setup
+    public void setup() {
+        world = Fields.createWorld(SCENE_SIZE, rand);
+        world.launchBall();
+    }
+
+    @Benchmark
+    public BrickField brickField() {
+        return Fields.createBrickField(SCENE_SIZE, rand);
+    }
+
+    @Benchmark
+    public World step() {
+        world.step(SECOND_DELAY);
+        return world;
+    }
+}
@@ -0,0 +1,59 @@
+package breakout.bench;
+
+import breakout.sim.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purpose: Measure one tick of a multi-ball game on the default field, which has to stay well under the 16.7 ms
+ * frame budget with thousands of balls.
+ * Assumptions: none
+ * Dependencies: This class depends on the World class and JMH.
+ * Other details: the default field is cleared quickly with this many balls, so a new World is generated whenever the
+ * game ends, like in WorldStepBenchmark.
+ *
+ * @author Evan Kenyon
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiBallBenchmark {
+
+    @Param({"1", "100", "5000"})
+    private int ballCount;
+
+    private Random rand;
+    private World world;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        rand = new Random(307);
+        world = Fields.createWorld(World.SCENE_SIZE, ballCount, rand);
+    }
+
+    @Benchmark
+    public World step() {
+        if(world.getStatus() != World.Status.PLAYING) {
+            world = Fields.createWorld(World.SCENE_SIZE, ballCount, rand);
+        }
+        world.launchBall();
+        world.step(1.0 / 60);
+        return world;
+    }
+}
@@ -0,0 +1,88 @@
+package breakout.bench;
+
+import breakout.sim.RewindBuffer;
+import breakout.sim.Snapshot;
+import breakout.sim.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purpose: Measure saving a World into a Snapshot and restoring it, which Breakout does every tick for rewinding and
+ * on quick-save/quick-load.
+ * Assumptions: none
+ * Dependencies: This class depends on the World, Snapshot, and RewindBuffer classes and JMH.
+ * Other details: each benchmark also steps the game once (with the paddle following the ball), since that's when
+ * bricks get hit and the World has to copy the brick pages a snapshot shares. Compare against WorldStepBenchmark
+ * for the cost of the step on its own.
+ *
+ * @author Evan Kenyon
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    // 10 seconds of ticks, the same as Breakout keeps
+    private static final int REWIND_TICKS = 600;
+
+    @Param({"800", "25000"})
+    private int sceneSize;
+
+    private Random rand;
+    private World world;
+    private RewindBuffer rewindBuffer;
+    private Snapshot snapshot;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        rand = new Random(307);
+        createWorld();
+    }
+
+    private void createWorld() {
+        world = Fields.createWorld(sceneSize, rand);
+        rewindBuffer = new RewindBuffer(world, REWIND_TICKS);
+        snapshot = new Snapshot();
+        world.save(snapshot);
+    }
+
+    private void step() {
+        if(world.getStatus() != World.Status.PLAYING) {
+            createWorld();
+        }
+        world.launchBall();
+        double distance = world.getBall().getCenterX() - (world.getPaddleX() + world.getPaddleWidth() / 2);
+        world.movePaddle(Math.max(-World.PADDLE_SPEED, Math.min(World.PADDLE_SPEED, distance)));
+        world.step(1.0 / 60);
+    }
+
+    @Benchmark
+    public World stepAndCapture() {
+        step();
+        rewindBuffer.capture();
+        return world;
+    }
+
+    @Benchmark
+    public World stepAndRestore() {
+        step();
+        world.restore(snapshot);
+        return world;
+    }
+}
@@ -0,0 +1,110 @@
+package breakout.bench;
+
+import breakout.sim.AimingPolicy;
+import breakout.sim.Balls;
+import breakout.sim.BatchSimulator;
+import breakout.sim.BrickField;
+import breakout.sim.PaddlePolicy;
+import breakout.sim.Settings;
+import breakout.sim.World;
+
+/**
+ * Purpose: Check that no step of the game ends with a ball overlapping a brick or the paddle, however long the step
+ * and however fast the ball, by playing seeded games at several tick rates and ball speeds and exiting with an error
+ * if any ball ends up inside of something (which is what balls tunneling through bricks looks like).
+ * Assumptions: none
+ * Dependencies: This class depends on the World, Settings, Balls, BrickField, BatchSimulator, PaddlePolicy, and
+ * AimingPolicy classes.
+ * Example: java -cp benchmark/target/benchmarks.jar breakout.bench.SweepCheck
+ * Other details: a ball counts as overlapping when its center is more than TOLERANCE inside of its radius from a
+ * brick or the paddle, since a ball that was stopped at a contact is left exactly touching it.
+ *
+ * @author Evan Kenyon
+ */
+public class SweepCheck {
+
+    public static final int[] TICKS_PER_SECOND = { 60, 30, 10, 2 };
+    public static final double[] BALL_SPEEDS = { 300, 1000, 3000 };
+    public static final int GAMES = 20;
+    public static final int MAX_TICKS = 20_000;
+    public static final double TOLERANCE = 1e-6;
+    public static final long SEED = 307;
+
+    public static void main(String[] args) {
+        long overlaps = 0;
+        for(int ticksPerSecond : TICKS_PER_SECOND) {
+            for(double ballSpeed : BALL_SPEEDS) {
+                Settings defaults = Settings.DEFAULT;
+                Settings settings = new Settings(defaults.sceneSize(), defaults.brickSize(),
+                        defaults.blockedRowOrColFreq(), defaults.paddleSpeed(), ballSpeed, defaults.ballCount(),
+                        defaults.lives());
+                overlaps += check(settings, ticksPerSecond);
+            }
+        }
+        if(overlaps > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static long check(Settings settings, int ticksPerSecond) {
+        long overlaps = 0;
+        long ticks = 0;
+        for(int game = 0; game < GAMES; game++) {
+            long seed = BatchSimulator.getGameSeed(SEED, game);
+            World world = World.create(settings, seed);
+            PaddlePolicy policy = new AimingPolicy(seed);
+            for(int tick = 0; tick < MAX_TICKS && world.getStatus() == World.Status.PLAYING; tick++) {
+                world.launchBall();
+                double move = policy.getPaddleMove(world);
+                world.movePaddle(Math.max(-settings.paddleSpeed(), Math.min(settings.paddleSpeed(), move)));
+                world.step(1.0 / ticksPerSecond);
+                overlaps += countOverlaps(world);
+                ticks++;
+            }
+        }
+        System.out.printf("%2d ticks/s, ball speed %5.0f: %d overlaps in %d ticks%n", ticksPerSecond,
+                settings.ballSpeed(), overlaps, ticks);
+        return overlaps;
+    }
+
+    private static int countOverlaps(World world) {
+        Balls balls = world.getBalls();
+        BrickField bricks = world.getBricks();
+        int overlaps = 0;
+        for(int i = 0; i < balls.getCount(); i++) {
+            double x = balls.getX(i);
+            double y = balls.getY(i);
+            double radius = balls.getRadius(i);
+            if(overlaps(x, y, radius, world.getPaddleX(), world.getPaddleY(), world.getPaddleWidth(),
+                    world.getPaddleHeight())) {
+                overlaps++;
+            }
+            // Only the cells around the ball can overlap it
+            int pitchX = bricks.getBrickWidth() + 1;
+            int pitchY = bricks.getBrickHeight() + 1;
+            int firstColumn = Math.max(0, (int) Math.floor((x - radius) / pitchX));
+            int lastColumn = Math.min(bricks.getColumns() - 1, (int) Math.floor((x + radius) / pitchX));
+            int firstRow = Math.max(0, (int) Math.floor((y - radius) / pitchY));
+            int lastRow = Math.min(bricks.getRows() - 1, (int) Math.floor((y + radius) / pitchY));
+            for(int column = firstColumn; column <= lastColumn; column++) {
+                for(int row = firstRow; row <= lastRow; row++) {
+                    int cell = column * bricks.getRows() + row;
+                    if(bricks.isOccupied(cell) && overlaps(x, y, radius, bricks.getCellX(cell), bricks.getCellY(cell),
+                            bricks.getBrickWidth(), bricks.getBrickHeight())) {
+                        overlaps++;
+                    }
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    // Whether the circle reaches more than TOLERANCE inside of the box
+    private static boolean overlaps(double x, double y, double radius, double boxX, double boxY, double width,
+                                    double height) {
+        double nearestX = Math.max(boxX, Math.min(x, boxX + width));
+        double nearestY = Math.max(boxY, Math.min(y, boxY + height));
+        double distance = Math.hypot(x - nearestX, y - nearestY);
+        return distance < radius - TOLERANCE;
+    }
+}
@@ -0,0 +1,77 @@
+package breakout.bench;
+
+import breakout.sim.Settings;
+import breakout.sim.VectorEnv;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purpose: Measure environment steps per second of a VectorEnv on one thread, with an agent that reads each game's
+ * observation and moves the paddle towards the ball (so the games last like they would in training).
+ * Assumptions: none
+ * Dependencies: This class depends on the VectorEnv and Settings classes and JMH.
+ * Other details: results are per game step (the op count is scaled by GAMES), so throughput is env steps per
+ * microsecond.
+ *
+ * @author Evan Kenyon
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorEnvBenchmark {
+
+    public static final int GAMES = 256;
+
+    @Param({"800", "5000"})
+    private int sceneSize;
+
+    private VectorEnv env;
+    private int[] actions;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        env = new VectorEnv(Settings.DEFAULT.withSceneSize(sceneSize), GAMES, 1.0 / 60);
+        env.reset(307);
+        actions = new int[GAMES];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public ByteBuffer step() {
+        ByteBuffer observations = env.getObservations();
+        for(int game = 0; game < GAMES; game++) {
+            int base = game * env.getStride();
+            float ballX = observations.getFloat(base + VectorEnv.BALLS_OFFSET);
+            float paddleX = observations.getFloat(base + VectorEnv.PADDLE_X_OFFSET);
+            float ballVelocityX = observations.getFloat(base + VectorEnv.BALLS_OFFSET + 8);
+            if(ballVelocityX == 0) {
+                actions[game] = VectorEnv.LAUNCH;
+            } else if(ballX > paddleX + Settings.DEFAULT.paddleWidth() * 0.75) {
+                actions[game] = VectorEnv.RIGHT;
+            } else if(ballX < paddleX + Settings.DEFAULT.paddleWidth() * 0.25) {
+                actions[game] = VectorEnv.LEFT;
+            } else {
+                actions[game] = VectorEnv.NOOP;
+            }
+        }
+        env.step(actions);
+        return observations;
+    }
+}
@@ -0,0 +1,66 @@
+package breakout.bench;
+
+import breakout.sim.Snapshot;
+import breakout.sim.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purpose: Measure one tick of the game (World.step), which is what Breakout runs every frame.
+ * Assumptions: none
+ * Dependencies: This class depends on the World and Snapshot classes and JMH.
+ * Other details: the paddle follows the ball at PADDLE_SPEED like a player holding the arrow keys would. The World is
+ * generated and saved before each iteration, outside of the measurement, and whenever the game ends it is restored
+ * to that save (which only swaps page pointers back and doesn't allocate) so that every measured tick is one where
+ * the game is still being played, without generating bricks inside of the benchmark.
+ *
+ * @author Evan Kenyon
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldStepBenchmark {
+
+    @Param({"800", "5000", "25000"})
+    private int sceneSize;
+
+    private Random rand;
+    private World world;
+    private Snapshot start;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        rand = new Random(307);
+        world = Fields.createWorld(sceneSize, rand);
+        start = new Snapshot();
+        world.save(start);
+    }
+
+    @Benchmark
+    public World step() {
+        if(world.getStatus() != World.Status.PLAYING) {
+            world.restore(start);
+        }
+        world.launchBall();
+        double distance = world.getBall().getCenterX() - (world.getPaddleX() + world.getPaddleWidth() / 2);
+        world.movePaddle(Math.max(-World.PADDLE_SPEED, Math.min(World.PADDLE_SPEED, distance)));
+        world.step(1.0 / 60);
+        return world;
+    }
+}
@@ -1,5 +1,6 @@
 package breakout;
 
+import breakout.sim.BallState;
 import javafx.scene.shape.Circle;
 import java.util.Random;
 
@@ -9,39 +10,63 @@ import java.util.Random;
  * Purpose: Create a ball in the Breakout class that is used to break bricks by bouncing it off of a paddle.
  * Assumptions: JavaFX installed on device, values of vars do not push past practical limits
  * (e.g. centerX and centerY values that would cause the ball to spawn off-screen)
- * Dependencies: This class depends on several classes from the JavaFX platform and the Random class.
+ * Dependencies: This class depends on several classes from the JavaFX platform, the BallState class, and the Random class.
  * Example: Construct a ball object with a reasonable radius and center point to be used in the Breakout class, which
  * takes care of intersections with the borders of the scene (bounce off all except the bottom), bricks (destroys them),
  * and the paddle (bounces off of it).
- * Other details: note that the positive y direction is actually towards the bottom of the scene when manipulating the angle.
+ * Other details: The ball's position and movement are kept in a BallState, which is what the game's World moves, and
+ * this Circle is only moved to match it when update is called.
+ * Note that the positive y direction is actually towards the bottom of the scene when manipulating the angle.
  *
  * @author Evan Kenyon
  */
 public class Ball extends Circle {
 
-    private double xVelocity;
-    private double yVelocity;
-    private double angle;
-    private Random rand;
-    private double originalCenterX;
-    private double originalCenterY;
-    private boolean isMoving;
+    private BallState state;
 
     /**
      * Purpose: Construct a ball object which has the given dimensions desired
-     *  and call a helper method to give the ball an initial, random speed
+     *  and give the ball an initial, random speed
      * Assumptions: centerX, centerY, and radius are set such that the ball spawns within the scene
      * @param centerX the x value for the center of the ball
      * @param centerY the y value for the center of the ball
      * @param radius the radius of the ball
+     * @param seed seed for the ball's random starting angles
      */
-    public Ball(double centerX, double centerY, double radius) {
-        super(centerX, centerY, radius);
-        originalCenterX = centerX;
-        originalCenterY = centerY;
-        isMoving = false;
-        rand = new Random();
-        randomizeVelocities();
+    public Ball(double centerX, double centerY, double radius, long seed) {
+        this(new BallState(centerX, centerY, radius, new Random(seed)));
+    }
+
+    /**
+     * Purpose: Construct a ball object which shows the given ball state
+     * Assumptions: none
+     * @param state the position and movement of the ball
+     */
+    public Ball(BallState state) {
+        super(state.getCenterX(), state.getCenterY(), state.getRadius());
+        this.state = state;
+    }
+
+    /**
+     * Purpose: Move this Circle to where the ball state currently is
+     * Assumptions: none
+     */
+    public void update() {
+        update(1);
+    }
+
+    /**
+     * Purpose: Move this Circle to where the ball state was alpha of the way through the last step
+     * Assumptions: none
+     * @param alpha how far through the step, from 0 (where it started) to 1 (where it is now)
+     */
+    public void update(double alpha) {
+        setCenterX(state.getInterpolatedCenterX(alpha));
+        setCenterY(state.getInterpolatedCenterY(alpha));
+    }
+
+    public BallState getState() {
+        return state;
     }
 
     /**
@@ -50,7 +75,7 @@ public class Ball extends Circle {
      * @return the current x velocity
      */
     public double getXVelocity() {
-        return isMoving ? xVelocity : 0;
+        return state.getXVelocity();
     }
 
     /**
@@ -60,8 +85,7 @@ public class Ball extends Circle {
      * @param xVelocity the value that this object's xVelocity is set to
      */
     public void setXVelocity(double xVelocity) {
-        this.xVelocity = xVelocity;
-        angle = Math.atan2(-yVelocity, this.xVelocity);
+        state.setXVelocity(xVelocity);
     }
 
     /**
@@ -70,7 +94,7 @@ public class Ball extends Circle {
      * @return the current y velocity
      */
     public double getYVelocity() {
-        return isMoving ? yVelocity : 0;
+        return state.getYVelocity();
     }
 
     /**
@@ -80,8 +104,7 @@ public class Ball extends Circle {
      * @param yVelocity the value that this object's yVelocity is set to
      */
     public void setYVelocity(double yVelocity) {
-        this.yVelocity = yVelocity;
-        angle = Math.atan2(-this.yVelocity, xVelocity);
+        state.setYVelocity(yVelocity);
     }
 
     /**
@@ -89,7 +112,7 @@ public class Ball extends Circle {
      * Assumptions: none
      */
     public void reverseYVelocity() {
-        setYVelocity(-yVelocity);
+        state.reverseYVelocity();
     }
 
     /**
@@ -97,7 +120,7 @@ public class Ball extends Circle {
      * Assumptions: none
      */
     public void reverseXVelocity() {
-        setXVelocity(-xVelocity);
+        state.reverseXVelocity();
     }
 
     /**
@@ -106,7 +129,7 @@ public class Ball extends Circle {
      * @return this object's angle
      */
     public double getAngle() {
-        return angle;
+        return state.getAngle();
     }
 
     /**
@@ -115,8 +138,7 @@ public class Ball extends Circle {
      * @param angle the value to set this object's angle to
      */
     public void setAngle(double angle) {
-        this.angle = angle;
-        setVelocitiesFromAngle();
+        state.setAngle(angle);
     }
 
     /**
@@ -124,23 +146,8 @@ public class Ball extends Circle {
      * Assumptions: none
      */
     public void resetPosition() {
-        setCenterY(originalCenterY);
-        setCenterX(originalCenterX);
-        randomizeVelocities();
-    }
-
-    private void randomizeAngle() {
-        angle = (rand.nextDouble() * (5*Math.PI)/6) + Math.PI/6;
-    }
-
-    private void setVelocitiesFromAngle() {
-        xVelocity = 300*Math.cos(angle);
-        yVelocity = -300*Math.sin(angle);
-    }
-
-    private void randomizeVelocities() {
-        randomizeAngle();
-        setVelocitiesFromAngle();
+        state.resetPosition();
+        update();
     }
 
     /**
@@ -150,6 +157,6 @@ public class Ball extends Circle {
      *                 (which determines if the ball is currently moving or not)
      */
     public void setIsMoving(boolean isMoving) {
-        this.isMoving = isMoving;
+        state.setIsMoving(isMoving);
     }
 }
@@ -0,0 +1,49 @@
+package breakout;
+
+import breakout.sim.Balls;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ * Purpose: Draw every ball in a multi-ball game onto one Canvas, since a Ball node per ball would make the scene graph
+ * too slow with thousands of balls.
+ * Assumptions: JavaFX installed on device, the layer is the same size as the scene
+ * Dependencies: This class depends on several classes from the JavaFX platform and the Balls class.
+ * Example: Construct a BallLayer for the World's Balls, add it to the scene, and call update once per frame.
+ *
+ * @author Evan Kenyon
+ */
+public class BallLayer extends Canvas {
+
+    private Balls balls;
+
+    /**
+     * Purpose: Construct a layer the size of the scene that draws the given balls
+     * Assumptions: none
+     * @param width scene width
+     * @param height scene height
+     * @param balls the balls to draw
+     */
+    public BallLayer(double width, double height, Balls balls) {
+        super(width, height);
+        this.balls = balls;
+        // The paddle and bricks under the layer still get mouse events
+        setMouseTransparent(true);
+        update(1);
+    }
+
+    /**
+     * Purpose: Redraw every ball where it was alpha of the way through the last step
+     * Assumptions: none
+     * @param alpha how far through the step, from 0 (where it started) to 1 (where it is now)
+     */
+    public void update(double alpha) {
+        GraphicsContext graphics = getGraphicsContext2D();
+        graphics.clearRect(0, 0, getWidth(), getHeight());
+        for(int i = 0; i < balls.getCount(); i++) {
+            double radius = balls.getRadius(i);
+            graphics.fillOval(balls.getInterpolatedX(i, alpha) - radius, balls.getInterpolatedY(i, alpha) - radius,
+                    radius * 2, radius * 2);
+        }
+    }
+}
@@ -1,8 +1,32 @@
 package breakout;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import breakout.capture.CapturedFrame;
+import breakout.capture.FrameCapture;
+import breakout.capture.FrameEncoder;
+import breakout.capture.PngSequenceEncoder;
+import breakout.capture.RawVideoEncoder;
+import breakout.sim.BrickPattern;
+import breakout.sim.GameEventConsumer;
+import breakout.sim.GameEventCounts;
+import breakout.sim.GameEventHandler;
+import breakout.sim.GameEventPublisher;
+import breakout.sim.GameEventRing;
+import breakout.sim.Input;
+import breakout.sim.LevelGenerator;
+import breakout.sim.LevelLoader;
+import breakout.sim.Palette;
+import breakout.sim.PhaseProfiler;
+import breakout.sim.Replay;
+import breakout.sim.ReplayRecorder;
+import breakout.sim.RewindBuffer;
+import breakout.sim.Settings;
+import breakout.sim.Snapshot;
+import breakout.sim.TripleBuffer;
+import breakout.sim.World;
+import breakout.sim.WorldListener;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.beans.binding.StringBinding;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
@@ -11,22 +35,34 @@ import javafx.scene.Group;
 import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.Label;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
 import javafx.scene.input.KeyCode;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
-import javafx.scene.shape.Shape;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
-import javafx.util.Duration;
+
+import javax.management.JMException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
 
 /**
  * Purpose: The purpose of this class is to setup a breakout game, and to update the different
  * member objects and variables as necessary throughout the game (i.e. at each frame and at each
- * key input)
+ * key input). The game's rules live in the World class, this class steps it and draws it.
  * Assumptions: JavaFX installed on device, values of vars do not push past practical limits
  * (e.g. SCENE_SIZE isn't set to a value larger than the device screen itself).
- * Dependencies: This class depends on several classes from the JavaFX platform, the Ball claass, and the Bricks class.
+ * Dependencies: This class depends on several classes from the JavaFX platform, the sim core (World, Settings,
+ * Input, Snapshot and RewindBuffer, the game event ring and its publisher and consumers, and the level, replay, and
+ * profiling classes), the rendering layers (Ball, BallLayer, Bricks, BrickLayer, EntityLayer, and PhaseOverlay), the
+ * loops that drive them (GameLoop, RenderLoop, and PhysicsThread with its TripleBuffer of PhysicsFrames), and the
+ * tooling around the game (StartupTimer, InputLatency, and the capture package).
  * Example: Use this class to set up and manage objects involved in a breakout style video game.
  * Specifically, running this class will do just that.
  * Other details: Due to JavaFX syntax, a main method is not needed for running this class. The start
@@ -40,73 +76,256 @@ public class Breakout extends Application {
     // Can put reasoning behind magic values in README or in comments, only do it for important values too
     // size, frames per second, second delay, background, highlight, offset amount, mover, paddle color, and paddle color
     // borrowed from example_animation in course gitlab
-    public static final int SCENE_SIZE = 800;
+    // Sizes and speeds of the ball, paddle, and bricks are with the rest of the game's rules in World
+    public static final int SCENE_SIZE = World.SCENE_SIZE;
     public static final int FONT_SIZE = 30;
     public static final String FONT_TYPE = "Verdana";
-    // Can put these comments in README, generally do when it looks crowded
-    public static final int OFFSET_PADDLE_AMOUNT = 50;
-    public static final int OFFSET_BALL_AMOUNT = OFFSET_PADDLE_AMOUNT + 100;
-    // I found that this was the "goldilocks" size, since not too many bricks were on the screen
-    // so that the game would quickly become boring, but there were enough that winning the game
-    // wasn't trivial
-    public static final int BRICK_SIZE = 49;
-    // This made the ball small enough to fit in empty spaces in between bricks and not too small
-    // to look odd visually
-    public static final double BALL_RADIUS = BRICK_SIZE /3.0;
-    // This made the paddle wide enough to easily fit the ball, but not too wide as to make the game
-    // completely trivial to win
-    public static final int PADDLE_WIDTH = (int) BALL_RADIUS * 8;
     public static final double SECOND_DELAY = 1.0 / 60;
+    // Catching up more than this many ticks in one frame would only make the next frame later still
+    public static final int MAX_STEPS_PER_FRAME = 5;
     public static final String TITLE = "Breakout Game";
-    // This paddle speed was the minimum value, based on the max X speed being 300 in the
-    // Ball class, that I found where the player would almost always only miss the ball
-    // due to their own fault
-    public static final int PADDLE_SPEED = 25;
     public static final int TEXT_POSITION_X = 50;
     public static final int TEXT_POSITION_Y = 50;
-    public static final int PADDLE_HEIGHT = 20;
-    public static final double BLOCKED_ROW_OR_COL_FREQ = 0.1;
     public static final double SCORE_DISPLAY_Y_POS = 600;
+    // Launch with --balls=N for a multi-ball game
+    public static final String BALL_COUNT_PARAMETER = "balls";
+    // Launch with --seed=N to replay the exact same game
+    public static final String SEED_PARAMETER = "seed";
+    // Launch with --brick-size=N for smaller bricks (and so many more of them)
+    public static final String BRICK_SIZE_PARAMETER = "brick-size";
+    // Launch with --bricks=canvas to draw bricks on one canvas instead of as a node each (for very large fields)
+    public static final String BRICK_RENDERER_PARAMETER = "bricks";
+    public static final String CANVAS_BRICK_RENDERER = "canvas";
+    // Launch with --record=FILE to save the game for playing back later, and --replay=FILE to play one back
+    public static final String RECORD_PARAMETER = "record";
+    public static final String REPLAY_PARAMETER = "replay";
+    // Launch with --level=FILE to play on a level written by breakout.sim.LevelFile instead of a random one
+    public static final String LEVEL_PARAMETER = "level";
+    // Launch with --pattern=NAME (lines, caves, or maze, optionally starting with mirrored-) for a generated level
+    public static final String PATTERN_PARAMETER = "pattern";
+    // Launch with --power-ups=0.2 for destroyed bricks to drop power-ups 20% of the time (off by default)
+    public static final String POWER_UPS_PARAMETER = "power-ups";
+    // Launch with --startup=fast to show the window before the game is built, which is then built on another thread
+    public static final String STARTUP_PARAMETER = "startup";
+    public static final String FAST_STARTUP = "fast";
+    // Launch with --exit-after-start=true to close as soon as the game's first frame is ready, for timing startup
+    // and for the run that records which classes go in the class data sharing archive (see the fast-start profile)
+    public static final String EXIT_AFTER_START_PARAMETER = "exit-after-start";
+    // Launch with --physics=thread to step the World on its own thread, with the JavaFX thread only drawing the latest
+    // tick it handed over. Level files add bricks as they load, which a copy of the World can't follow, so they always
+    // step on the JavaFX thread
+    public static final String PHYSICS_PARAMETER = "physics";
+    public static final String THREADED_PHYSICS = "thread";
+    // Launch with --capture=DIR to save the main scene into DIR --capture-rate times a second of game time (60 by
+    // default), as numbered PNGs or with --capture-format=raw as one raw BGRA video file. --capture-speed=max steps
+    // the game a capture's worth of ticks per frame as fast as the frames can be encoded instead of in real time (for
+    // rendering a replay) and closes the game once it ends. Captures always step on the JavaFX thread
+    public static final String CAPTURE_PARAMETER = "capture";
+    public static final String CAPTURE_RATE_PARAMETER = "capture-rate";
+    public static final String CAPTURE_FORMAT_PARAMETER = "capture-format";
+    public static final String RAW_CAPTURE = "raw";
+    public static final String RAW_CAPTURE_FILE = "frames.bgra";
+    public static final String CAPTURE_SPEED_PARAMETER = "capture-speed";
+    public static final String MAX_CAPTURE_SPEED = "max";
+    public static final int DEFAULT_CAPTURE_RATE = 60;
+    // Enough buffers for every worker to be encoding one while as many more wait, and one encoder per spare core
+    public static final int CAPTURE_BUFFERS_PER_WORKER = 2;
+    public static final int CAPTURE_WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    // Capturing as fast as possible still leaves half of each frame to JavaFX, so the window keeps responding
+    public static final long MAX_SPEED_CAPTURE_NANOS = Math.round(SECOND_DELAY / 2 * 1e9);
+    // Shows how long each phase of a tick takes, the same numbers are always available over JMX
+    public static final KeyCode PHASE_OVERLAY_KEY = KeyCode.F3;
+    // Hold Backspace to rewind up to REWIND_SECONDS, F5 quick-saves and F9 quick-loads. None of them work while
+    // recording or playing back a replay, since the replay would no longer match the game
+    public static final KeyCode REWIND_KEY = KeyCode.BACK_SPACE;
+    public static final KeyCode QUICK_SAVE_KEY = KeyCode.F5;
+    public static final KeyCode QUICK_LOAD_KEY = KeyCode.F9;
+    public static final int REWIND_SECONDS = 10;
+    // How far each key press (or key repeat while the key is held) rewinds, 1/10 of a second
+    public static final int REWIND_TICKS_PER_PRESS = 6;
 
     private Scene mainScene;
     private Scene gameOverScene;
     private Scene winScene;
     private Rectangle paddle;
     private Ball ball;
+    private BallLayer ballLayer;
     private Bricks bricks;
-    private int delayIntersectionFrames;
+    private BrickLayer brickLayer;
+    private EntityLayer entityLayer;
+    private World world;
+    // The World the nodes draw, which is world unless the physics runs on its own thread, when it's a copy of world
+    // that the latest tick is restored into every frame
+    private World shownWorld;
+    private Settings settings;
+    private ReplayRecorder recorder;
+    private Replay replay;
+    private LevelLoader levelLoader;
+    private RewindBuffer rewindBuffer;
+    private Snapshot quickSave;
+    private IntegerProperty score;
     private IntegerProperty lives;
+    // Game events go through the ring so that the HUD takes them once a frame and the event counts take them on their
+    // own thread, instead of either running inside of the tick
+    private GameEventRing gameEvents;
+    private GameEventPublisher eventPublisher;
+    private GameEventRing.Reader hudEvents;
+    private GameEventHandler hudHandler;
+    private int hudScore;
+    private int hudLives;
+    private GameEventCounts eventCounts;
+    private GameEventConsumer eventConsumer;
     private Stage primaryStage;
     private Group primaryRoot;
+    private AnimationTimer frameLoop;
+    private LoopStats loopStats;
+    // Only used when the physics runs on its own thread, which hands the JavaFX thread each tick through frames
+    private PhysicsThread physicsThread;
+    private TripleBuffer<PhysicsFrame> frames;
+    // How many inputs the JavaFX thread has sent to the physics thread, and how many the physics thread has applied
+    private long inputsSent;
+    private long inputsApplied;
+    // Only used while capturing, the main scene is snapshotted into captureImage and copied into the capture's buffers
+    private FrameCapture frameCapture;
+    private WritableImage captureImage;
+    private boolean maxSpeedCapture;
+    private int ticksPerCapture;
+    private int ticksUntilCapture;
+    private PhaseProfiler profiler;
+    private PhaseOverlay phaseOverlay;
+    private StartupTimer startupTimer;
+    // Only set once the game loop is running, which with --startup=fast is a while after the window is showing
+    private boolean started;
+    private boolean stopped;
+    // Builds the game with --startup=fast, stop waits for it so that it sees everything it made
+    private Thread setupThread;
+    private InputLatency inputLatency;
+    // Which arrow keys are down, so that key repeat (more presses while a key is held) can be ignored
+    private boolean leftKeyDown;
+    private boolean rightKeyDown;
 
 
     /**
      * Purpose: Start the game by calling helper methods which set up all the scenes,
-     * the primary stage, and the timeline
+     * the primary stage, and the game loop
      * Assumptions: JavaFX is installed on the device, set up scene methods are not changed in a way that
      * would remove any key objects (ex. the bricks) from the game or in a way that would return an invalid/null
-     * Scene object, timeline method is not changed in such a way that would return an invalid/null timeline
+     * Scene object, game loop method is not changed in such a way that would leave the game loop stopped
      * Attributions: The setup for this method was borrowed from example_animation in course gitlab
      * @param stage the stage in which different scenes reside throughout the game
      */
     @Override
     public void start (Stage stage) {
-        setupAllScenes();
-        setupPrimaryStage(stage);
-        setupTimeline();
+        startupTimer = new StartupTimer();
+        if(FAST_STARTUP.equals(getParameters().getNamed().get(STARTUP_PARAMETER))) {
+            // An empty window is the quickest first frame, generating the bricks, making their nodes, and setting up
+            // JMX all happen on another thread while it's showing
+            setupPrimaryStage(stage, setupLoadingScene());
+            setupThread = new Thread(this::setupInBackground, "Game setup");
+            setupThread.setDaemon(true);
+            setupThread.start();
+        } else {
+            setupMainSceneNodes();
+            setupPrimaryStage(stage, setupGame());
+            startGame();
+        }
+    }
+
+    // Nodes can be made on any thread as long as they aren't in a showing scene yet
+    private void setupInBackground() {
+        try {
+            setupMainSceneNodes();
+            Platform.runLater(() -> {
+                // The window may have been closed while the game was being built
+                if(!stopped) {
+                    primaryStage.setScene(setupGame());
+                    startGame();
+                }
+            });
+        } catch (RuntimeException e) {
+            Platform.runLater(() -> {
+                throw e;
+            });
+        }
+    }
+
+    private void startGame() {
+        boolean exitAfterStart = Boolean.parseBoolean(getParameters().getNamed().get(EXIT_AFTER_START_PARAMETER));
+        startupTimer.reportFirstFrame(mainScene, "game's first frame", () -> {
+            if(exitAfterStart) {
+                Platform.exit();
+            }
+        });
+        setupGameLoop();
+        eventConsumer.start();
+        started = true;
+    }
+
+    /**
+     * Purpose: Print how long frames and ticks took over the game when it is closed, and finish its recording
+     * Assumptions: none
+     * @throws IOException if the recording couldn't be written
+     */
+    @Override
+    public void stop() throws IOException {
+        stopped = true;
+        // With --startup=fast the window can be closed while the game is still being set up, so the setup is let
+        // finish (joining it also makes the recorder and capture it made visible here) before they're closed
+        if(setupThread != null) {
+            try {
+                setupThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Before the game has started there is nothing to stop or report
+        if(started) {
+            stopGame();
+        }
+        if(recorder != null) {
+            recorder.close();
+        }
+        if(frameCapture != null) {
+            frameCapture.close();
+            System.out.println(frameCapture);
+        }
+    }
+
+    private void stopGame() {
+        frameLoop.stop();
+        try {
+            if(physicsThread != null) {
+                physicsThread.stop();
+            }
+            eventConsumer.stop();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println(eventCounts + " (missed " + eventConsumer.getReader().getMissed() + ")");
+        System.out.println(loopStats);
+        System.out.println(inputLatency);
+        if(profiler.getTicks() > 0) {
+            System.out.println(profiler.getReport());
+        }
     }
 
     private Scene setupGame() {
-        setupMainSceneNodes();
         // Fine to make numbers and strings as constants ("magic values")
-        Label scoreDisplay = setupDynamicDataDisplay("Score: ", bricks.getScore().asString(), SCORE_DISPLAY_Y_POS);
+        Label scoreDisplay = setupDynamicDataDisplay("Score: ", score.asString(), SCORE_DISPLAY_Y_POS);
         Label livesDisplay = setupDynamicDataDisplay("Lives: ", lives.asString(), SCORE_DISPLAY_Y_POS + 50);
-        delayIntersectionFrames = 2;
         // All of the below was borrowed from example_animation in course gitlab
-        Group root = new Group(paddle, ball, scoreDisplay, livesDisplay);
-        root.getChildren().addAll(bricks.getBricks());
+        Group root = new Group(paddle, getBallNode(), scoreDisplay, livesDisplay);
+        if(entityLayer != null) {
+            root.getChildren().add(entityLayer);
+        }
+        if(brickLayer != null) {
+            root.getChildren().add(0, brickLayer);
+        } else {
+            root.getChildren().addAll(bricks.getBricks());
+        }
         primaryRoot = root;
-        return setupScene(root);
+        mainScene = setupScene(root);
+        return mainScene;
     }
 
     private Scene setupTextScene(String message) {
@@ -121,6 +340,7 @@ public class Breakout extends Application {
     private Scene setupScene(Group root) {
         Scene scene = new Scene(root, SCENE_SIZE, SCENE_SIZE, Color.AZURE);
         scene.setOnKeyPressed(e -> handleKeyInput(e.getCode()));
+        scene.setOnKeyReleased(e -> handleKeyRelease(e.getCode()));
         return scene;
     }
 
@@ -138,146 +358,534 @@ public class Breakout extends Application {
     }
 
     private void step (double elapsedTime) {
-//        Check to see if need this or not
-//        handleDelayingIntersectionFrames();
-        handleIntersections();
-        updateBallPosition(elapsedTime);
-        handleNoBricksRemaining();
+        if(levelLoader != null && !levelLoader.isLoaded()) {
+            loadLevelChunk();
+        }
+        stepWorld(elapsedTime);
+        inputLatency.inputApplied(System.nanoTime());
+        ticksUntilCapture--;
+    }
+
+    // Draws the frame, and captures it if a capture's worth of ticks have gone by since the last one. A frame that
+    // comes up while the encoders have no free buffer is skipped, since playing in real time can't wait for them
+    private void renderAndCapture(double alpha) {
+        updateNodes(alpha);
+        if(ticksUntilCapture <= 0) {
+            captureFrame();
+            ticksUntilCapture = Math.max(ticksUntilCapture + ticksPerCapture, 1);
+        }
+    }
+
+    // Steps exactly a capture's worth of ticks per captured frame instead of following the clock, for as long as the
+    // encoders have a free buffer and the frame's share of time allows, so the same game always gives the same frames
+    // and a game is captured as fast as its frames can be encoded
+    private void captureAtMaxSpeed(double stepSeconds) {
+        long deadline = System.nanoTime() + MAX_SPEED_CAPTURE_NANOS;
+        while(shownWorld.getStatus() == World.Status.PLAYING && frameCapture.hasFreeBuffer()
+                && System.nanoTime() < deadline) {
+            for(int i = 0; i < ticksPerCapture; i++) {
+                long tickStart = System.nanoTime();
+                step(stepSeconds);
+                loopStats.recordTick(System.nanoTime() - tickStart);
+            }
+            updateNodes(1);
+            captureFrame();
+        }
+        if(shownWorld.getStatus() != World.Status.PLAYING) {
+            Platform.exit();
+        }
+    }
+
+    // Snapshots the main scene (even while an end scene is showing) into a free buffer for the encoders
+    private void captureFrame() {
+        CapturedFrame frame = frameCapture.acquire();
+        if(frame != null) {
+            captureImage = mainScene.snapshot(captureImage);
+            captureImage.getPixelReader().getPixels(0, 0, frame.getWidth(), frame.getHeight(),
+                    PixelFormat.getByteBgraInstance(), frame.getPixels(), 0, frame.getScanlineStride());
+            frameCapture.submit(frame);
+        }
+    }
+
+    // Runs on the physics thread, saving each tick's World into the back frame for the JavaFX thread to draw
+    private void physicsStep(double elapsedTime) {
+        stepWorld(elapsedTime);
+        PhysicsFrame frame = frames.getBack();
+        world.save(frame.getSnapshot());
+        frame.setTickNanos(System.nanoTime());
+        frame.setInputsApplied(inputsApplied);
+        frames.publish();
+    }
+
+    // Everything in a tick that changes the World, which is all that runs on the physics thread
+    private void stepWorld(double elapsedTime) {
+        if(replay != null) {
+            replay.step();
+        } else {
+            world.step(elapsedTime);
+            if(recorder != null) {
+                try {
+                    recorder.tick();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            // Ticks after the game ended would fill the buffer with the same ended game
+            if(canRewind() && world.getStatus() == World.Status.PLAYING) {
+                rewindBuffer.capture();
+            }
+        }
+    }
+
+    // Runs on the JavaFX thread when the physics has its own thread, drawing the latest tick it handed over
+    private void renderLatestFrame(long now) {
+        if(frames.update()) {
+            PhysicsFrame frame = frames.getFront();
+            shownWorld.restore(frame.getSnapshot());
+            // Inputs sent after the one being timed don't matter once every input sent has been applied
+            if(frame.getInputsApplied() == inputsSent) {
+                inputLatency.inputApplied(frame.getTickNanos());
+            }
+        }
+        // Like with a GameLoop, drawing is up to one tick behind: the latest tick is drawn all the way once the next
+        // one is due
+        double alpha = (double) (now - frames.getFront().getTickNanos()) / physicsThread.getStepNanos();
+        updateNodes(Math.max(0, Math.min(1, alpha)));
+    }
+
+    // The World is only touched on the thread stepping it, so with threaded physics changes are sent there
+    private void runOnWorld(Runnable command) {
+        if(physicsThread != null) {
+            physicsThread.submit(command);
+        } else {
+            command.run();
+        }
     }
 
     // Borrowed from example_animation in course gitlab
     private void handleKeyInput (KeyCode code) {
+        // The keys that are constants can't be switch cases, so they are checked first
+        if(code == PHASE_OVERLAY_KEY) {
+            phaseOverlay.toggle();
+        } else if(code == REWIND_KEY) {
+            handleRewind();
+        } else if(code == QUICK_SAVE_KEY) {
+            handleQuickSave();
+        } else if(code == QUICK_LOAD_KEY) {
+            handleQuickLoad();
+        } else {
+            switch (code) {
+                case RIGHT -> handleRightKey(true);
+                case LEFT -> handleLeftKey(true);
+                case SPACE -> handleInput(Input.LAUNCH);
+            }
+        }
+    }
+
+    private void handleKeyRelease(KeyCode code) {
         switch (code) {
-            case RIGHT -> paddle.setX(paddle.getX() + PADDLE_SPEED);
-            case LEFT -> paddle.setX(paddle.getX() - PADDLE_SPEED);
-            case SPACE -> ball.setIsMoving(true);
+            case RIGHT -> handleRightKey(false);
+            case LEFT -> handleLeftKey(false);
         }
     }
 
-    // Borrowed from example_animation in course gitlab
-    private boolean isIntersecting (Shape a, Shape b) {
-        return b.getBoundsInParent().intersects(a.getBoundsInParent());
+    // The paddle moves every tick while an arrow key is held, so only the key going down and coming up are Inputs
+    private void handleLeftKey(boolean down) {
+        if(down != leftKeyDown) {
+            leftKeyDown = down;
+            handleInput(down ? Input.LEFT_PRESSED : Input.LEFT_RELEASED);
+        }
     }
 
-    // Borrowed idea for checking if side collision from
-    // https://stackoverflow.com/questions/8866389/java-gaming-collision-detection-side-collision-with-rectangles
-    private boolean isSideCollision(Node stationaryNode, Ball ball) {
-        return stationaryNode.getBoundsInParent().getMinY() < ball.getCenterY() && stationaryNode.getBoundsInParent().getMaxY() > ball.getCenterY();
+    private void handleRightKey(boolean down) {
+        if(down != rightKeyDown) {
+            rightKeyDown = down;
+            handleInput(down ? Input.RIGHT_PRESSED : Input.RIGHT_RELEASED);
+        }
     }
 
-    private boolean isBottomCollision(Node stationaryNode, Ball ball) {
-        return stationaryNode.getBoundsInParent().getMaxY() < ball.getCenterY();
+    // Snapshots restore every brick, so they can't be taken until a level has finished loading its bricks
+    private boolean canRewind() {
+        return rewindBuffer != null && (levelLoader == null || levelLoader.isLoaded());
     }
 
-    private void handleBallIntersectingBounds() {
-        if(ball.getCenterX() - ball.getRadius() <= 0) {
-            ball.setCenterX(ball.getRadius());
-            ball.reverseXVelocity();
-        } else if (ball.getCenterX() + ball.getRadius() >= mainScene.getWidth()) {
-            ball.setCenterX(mainScene.getWidth() - ball.getRadius());
-            ball.reverseXVelocity();
-        } else if (ball.getCenterY() - ball.getRadius() <= 0) {
-            ball.setCenterY(ball.getRadius());
-            ball.reverseYVelocity();
-        } else if (ball.getCenterY() >= mainScene.getHeight()) {
-            ball.resetPosition();
-            handleLifeDecrement();
+    private void handleRewind() {
+        boolean left = leftKeyDown;
+        boolean right = rightKeyDown;
+        runOnWorld(() -> {
+            if(canRewind() && rewindBuffer.rewind(REWIND_TICKS_PER_PRESS)) {
+                handleRestored(left, right);
+            }
+        });
+    }
+
+    private void handleQuickSave() {
+        runOnWorld(() -> {
+            if(canRewind() && world.getStatus() == World.Status.PLAYING) {
+                world.save(quickSave);
+            }
+        });
+    }
+
+    private void handleQuickLoad() {
+        boolean left = leftKeyDown;
+        boolean right = rightKeyDown;
+        runOnWorld(() -> {
+            if(canRewind() && !quickSave.isEmpty()) {
+                world.restore(quickSave);
+                // The buffer is of the game after the quick-save, which rewinding shouldn't jump back into
+                rewindBuffer.clear();
+                handleRestored(left, right);
+            }
+        });
+    }
+
+    // The bricks were already redrawn by handleBrickChanged, and the HUD finds out through the event ring. The
+    // snapshot's held keys are from when it was taken, not the keys that were down when it was restored
+    private void handleRestored(boolean left, boolean right) {
+        eventPublisher.restored();
+        world.holdLeft(left);
+        world.holdRight(right);
+    }
+
+    // Keys do nothing while a replay is playing, it already has all of the inputs
+    private void handleInput(Input input) {
+        if(replay != null) {
+            return;
         }
+        inputsSent++;
+        runOnWorld(() -> applyInput(input));
+        inputLatency.inputReceived(System.nanoTime());
     }
 
-    private void handleLifeDecrement() {
-        lives.set(lives.get() -1);
-        ball.setIsMoving(false);
-        if(lives.get() == 0) {
-            primaryStage.setScene(gameOverScene);
+    private void applyInput(Input input) {
+        if(recorder != null) {
+            try {
+                recorder.record(input);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
+        input.apply(world, settings.paddleSpeed());
+        inputsApplied++;
     }
 
-    private void updateBallPosition(double elapsedTime) {
-        ball.setCenterX(ball.getCenterX() + ball.getXVelocity() * elapsedTime);
-        ball.setCenterY(ball.getCenterY() + ball.getYVelocity() * elapsedTime);
+    // alpha is how far between the last two ticks to draw things
+    private void updateNodes(double alpha) {
+        if(ballLayer != null) {
+            ballLayer.update(alpha);
+        } else {
+            ball.update(alpha);
+        }
+        if(entityLayer != null) {
+            entityLayer.update(alpha);
+        }
+        paddle.setX(shownWorld.getInterpolatedPaddleX(alpha));
+        paddle.setWidth(shownWorld.getPaddleWidth());
+        updateHud();
+        phaseOverlay.update();
+        handleGameEnded();
     }
 
-    private void handlePaddleIntersectingBounds() {
-        if(paddle.getX() <= 0) {
-            paddle.setX(0);
-        } else if (paddle.getX() + paddle.getWidth() >= mainScene.getWidth()) {
-            paddle.setX(mainScene.getWidth() - paddle.getWidth());
+    // Every event carries the score and lives after it, so only the last one since the last frame matters and the
+    // labels change at most once a frame however many bricks were hit
+    private void updateHud() {
+        if(hudEvents.poll(hudHandler, gameEvents.getCapacity()) > 0) {
+            score.set(hudScore);
+            lives.set(hudLives);
         }
     }
 
-    private void handleBallIntersectingPaddle() {
-        if (isIntersecting(paddle, ball) && !isBottomCollision(paddle, ball)) {
-            ball.reverseYVelocity();
-            if (isSideCollision(paddle, ball)) {
-                ball.reverseXVelocity();
-            } else if (delayIntersectionFrames == 2){
-                ball.setAngle(ball.getAngle() + Math.toRadians(0.5 * ((paddle.getBoundsInParent().getMinX() + paddle.getWidth() / 2) - ball.getCenterX())));
-            } else {
-                handleDelayingIntersectionFrames();
-            }
+    // Large levels are loaded a chunk per tick while the game is already running, adding each chunk's bricks as it comes in
+    private void loadLevelChunk() {
+        int fromCell = levelLoader.getLoadedCells();
+        try {
+            levelLoader.loadChunk();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int toCell = levelLoader.getLoadedCells();
+        if(brickLayer != null) {
+            brickLayer.drawBricks(fromCell, toCell);
+        } else {
+            primaryRoot.getChildren().addAll(0, bricks.addBricks(fromCell, toCell));
+        }
+        if(levelLoader.isLoaded()) {
+            System.out.println(levelLoader.getReport());
         }
     }
 
-    private void handleBallIntersectingBrick() {
-        Node intersectedBrick = bricks.getBrickIntersecting(ball);
-        if(intersectedBrick != null) {
-            primaryRoot.getChildren().remove(intersectedBrick);
-            mainScene.setRoot(primaryRoot);
-            if(isSideCollision(intersectedBrick, ball)) {
-                ball.reverseXVelocity();
-            } else {
-                ball.reverseYVelocity();
+    private void handleBrickDestroyed(int cell) {
+        if(brickLayer != null) {
+            brickLayer.clearBrick(cell);
+        } else {
+            primaryRoot.getChildren().remove(bricks.removeBrick(cell));
+        }
+    }
+
+    private void handleBrickHit(int cell) {
+        if(brickLayer != null) {
+            brickLayer.updateBrick(cell);
+        } else {
+            bricks.updateBrick(cell);
+        }
+    }
+
+    private void handleBrickChanged(int cell) {
+        if(brickLayer != null) {
+            brickLayer.updateBrick(cell);
+        } else {
+            Rectangle brick = bricks.refreshBrick(cell);
+            if(brick != null && shownWorld.getBricks().isOccupied(cell)) {
+                primaryRoot.getChildren().add(0, brick);
+            } else if(brick != null) {
+                primaryRoot.getChildren().remove(brick);
             }
         }
     }
 
-    private void handleNoBricksRemaining() {
-        if(!bricks.isBrickRemaining()) {
-            primaryStage.setScene(winScene);
+    // A restored game can be one that had ended, which goes back to the main scene
+    private void handleGameEnded() {
+        switch (shownWorld.getStatus()) {
+            case WON -> primaryStage.setScene(getWinScene());
+            case LOST -> primaryStage.setScene(getGameOverScene());
+            case PLAYING -> {
+                if(primaryStage.getScene() != mainScene) {
+                    primaryStage.setScene(mainScene);
+                }
+            }
         }
     }
 
-    private void setupPrimaryStage(Stage stage) {
+    private void setupPrimaryStage(Stage stage, Scene firstScene) {
         primaryStage = stage;
-        primaryStage.setScene(mainScene);
+        primaryStage.setScene(firstScene);
         primaryStage.setTitle(TITLE);
+        // Key releases don't arrive while the window isn't focused, so keys are let go of when it loses focus
+        primaryStage.focusedProperty().addListener((property, wasFocused, focused) -> {
+            if(!focused) {
+                handleLeftKey(false);
+                handleRightKey(false);
+            }
+        });
+        startupTimer.reportFirstFrame(firstScene, "first frame", () -> { });
         primaryStage.show();
     }
 
-    private void setupAllScenes() {
-        mainScene = setupGame();
-        gameOverScene = setupTextScene("Game Over");
-        winScene = setupTextScene("You win!");
+    private Scene setupLoadingScene() {
+        return new Scene(new Group(), SCENE_SIZE, SCENE_SIZE, Color.AZURE);
+    }
+
+    // The end scenes are only made once the game ends, so that they don't slow down starting the game
+    private Scene getGameOverScene() {
+        if(gameOverScene == null) {
+            gameOverScene = setupTextScene("Game Over");
+        }
+        return gameOverScene;
+    }
+
+    private Scene getWinScene() {
+        if(winScene == null) {
+            winScene = setupTextScene("You win!");
+        }
+        return winScene;
+    }
+
+    private void setupGameLoop() {
+        double stepSeconds = replay != null ? replay.getStepSeconds() : SECOND_DELAY;
+        if(frames != null) {
+            loopStats = new LoopStats(stepSeconds);
+            physicsThread = new PhysicsThread(stepSeconds, MAX_STEPS_PER_FRAME, () -> physicsStep(stepSeconds),
+                    loopStats);
+            frameLoop = new RenderLoop(loopStats, this::renderLatestFrame);
+        } else if(frameCapture != null && maxSpeedCapture) {
+            loopStats = new LoopStats(stepSeconds);
+            frameLoop = new RenderLoop(loopStats, now -> captureAtMaxSpeed(stepSeconds));
+        } else {
+            GameLoop gameLoop = new GameLoop(stepSeconds, MAX_STEPS_PER_FRAME, () -> step(stepSeconds),
+                    frameCapture != null ? this::renderAndCapture : this::updateNodes);
+            loopStats = gameLoop.getStats();
+            frameLoop = gameLoop;
+        }
+        if(frameCapture != null) {
+            int captureRate = Integer.parseInt(getParameters().getNamed().getOrDefault(CAPTURE_RATE_PARAMETER,
+                    "" + DEFAULT_CAPTURE_RATE));
+            ticksPerCapture = Math.max(1, (int) Math.round(1 / (captureRate * stepSeconds)));
+        }
+        // The overlay shows the loop's stats too, so it's only made once there is a loop
+        phaseOverlay = new PhaseOverlay(profiler, loopStats, inputLatency);
+        primaryRoot.getChildren().add(phaseOverlay);
+        // Runs after the loop has ticked and drawn the frame, just before JavaFX renders it
+        mainScene.addPostLayoutPulseListener(() -> inputLatency.frameRendered(System.nanoTime()));
+        frameLoop.start();
+        if(physicsThread != null) {
+            physicsThread.start();
+        }
     }
 
-    private void setupTimeline() {
-        Timeline animation = new Timeline();
-        animation.setCycleCount(Timeline.INDEFINITE);
-        animation.getKeyFrames().add(new KeyFrame(Duration.seconds(SECOND_DELAY), e -> step(SECOND_DELAY)));
-        animation.play();
+    // Shows the phase timings in JConsole/VisualVM as breakout:type=PhaseProfiler
+    private void setupProfiler() {
+        profiler = new PhaseProfiler();
+        world.setProfiler(profiler);
+        try {
+            profiler.register();
+        } catch (JMException e) {
+            System.err.println("Couldn't register the phase profiler over JMX: " + e.getMessage());
+        }
+    }
+
+    // Multi-ball games draw every ball on one canvas instead of using a Ball node for each
+    private Node getBallNode() {
+        return ballLayer != null ? ballLayer : ball;
     }
 
     private void setupMainSceneNodes() {
+        Map<String, String> parameters = getParameters().getNamed();
+        int ballCount = Integer.parseInt(parameters.getOrDefault(BALL_COUNT_PARAMETER, "1"));
+        long seed = parameters.containsKey(SEED_PARAMETER) ? Long.parseLong(parameters.get(SEED_PARAMETER))
+                : new Random().nextLong();
+        int brickSize = Integer.parseInt(parameters.getOrDefault(BRICK_SIZE_PARAMETER, "" + World.BRICK_SIZE));
+        settings = Settings.DEFAULT.withBrickSize(brickSize).withBallCount(ballCount);
+        double powerUpChance = Double.parseDouble(parameters.getOrDefault(POWER_UPS_PARAMETER, "0"));
+        boolean threadedPhysics = THREADED_PHYSICS.equals(parameters.get(PHYSICS_PARAMETER));
+        if(threadedPhysics && parameters.containsKey(LEVEL_PARAMETER)) {
+            System.err.println("Level files can't be played with threaded physics yet, stepping on the JavaFX thread");
+            threadedPhysics = false;
+        }
+        if(threadedPhysics && parameters.containsKey(CAPTURE_PARAMETER)) {
+            System.err.println("Captures can't be taken with threaded physics, stepping on the JavaFX thread");
+            threadedPhysics = false;
+        }
+        try {
+            if(parameters.containsKey(REPLAY_PARAMETER)) {
+                replay = new Replay(Path.of(parameters.get(REPLAY_PARAMETER)));
+                settings = replay.getSettings();
+                ballCount = settings.ballCount();
+                world = replay.getWorld();
+            } else if(parameters.containsKey(PATTERN_PARAMETER)) {
+                // Replays would need the pattern too, so like level files these games can't be recorded yet
+                LevelGenerator generator = new LevelGenerator(BrickPattern.forName(parameters.get(PATTERN_PARAMETER)),
+                        Palette.DEFAULT);
+                world = World.create(settings, generator.generateForScene(SCENE_SIZE, brickSize, seed), seed);
+            } else if(parameters.containsKey(LEVEL_PARAMETER)) {
+                // Replays only have the seed and settings, so a game on a level file can't be recorded yet
+                levelLoader = new LevelLoader(Path.of(parameters.get(LEVEL_PARAMETER)), LevelLoader.DEFAULT_CHUNK_CELLS);
+                if(!levelLoader.getField().fitsScene(SCENE_SIZE, SCENE_SIZE)) {
+                    throw new IOException(String.format("The %d x %d cell level %s doesn't fit in the top half of "
+                                    + "the %d pixel scene", levelLoader.getField().getColumns(),
+                            levelLoader.getField().getRows(), parameters.get(LEVEL_PARAMETER), SCENE_SIZE));
+                }
+                // Loads until there is a brick, so that the game isn't won before the rest of the level is loaded
+                while(!levelLoader.getField().isBrickRemaining() && levelLoader.loadChunk()) {
+                    // loadChunk does all of the work
+                }
+                settings = settings.withBrickSize(levelLoader.getField().getBrickWidth());
+                world = World.create(settings, levelLoader.getField(), seed);
+            } else {
+                world = World.create(settings, seed);
+                // Replays would need the power-up chance too, so games with power-ups can't be recorded yet
+                if(parameters.containsKey(RECORD_PARAMETER) && powerUpChance == 0) {
+                    recorder = new ReplayRecorder(Path.of(parameters.get(RECORD_PARAMETER)), settings, seed,
+                            SECOND_DELAY);
+                }
+            }
+            if(replay == null) {
+                world.setPowerUps(powerUpChance, seed);
+            }
+            if(replay == null && recorder == null) {
+                rewindBuffer = new RewindBuffer(world, (int) Math.round(REWIND_SECONDS / SECOND_DELAY));
+                quickSave = new Snapshot();
+            }
+            if(parameters.containsKey(CAPTURE_PARAMETER)) {
+                setupCapture(parameters);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        gameEvents = new GameEventRing(GameEventRing.DEFAULT_CAPACITY);
+        hudEvents = gameEvents.newReader();
+        hudHandler = (event, value, eventScore, eventLives) -> {
+            hudScore = eventScore;
+            hudLives = eventLives;
+        };
+        eventCounts = new GameEventCounts();
+        eventConsumer = new GameEventConsumer(gameEvents.newReader(), eventCounts, "Game event counts");
+        if(threadedPhysics) {
+            setupThreadedPhysics();
+        } else {
+            setupEventPublisher();
+        }
         // Rectangle constructor parameters from example_animation in course gitlab
-        paddle = new Rectangle(SCENE_SIZE / 2 - PADDLE_WIDTH / 2, SCENE_SIZE - OFFSET_PADDLE_AMOUNT, PADDLE_WIDTH, PADDLE_HEIGHT);
-        ball = new Ball(SCENE_SIZE /2, SCENE_SIZE - OFFSET_BALL_AMOUNT, BALL_RADIUS);
-        bricks = new Bricks(SCENE_SIZE, SCENE_SIZE, BRICK_SIZE, BRICK_SIZE, BLOCKED_ROW_OR_COL_FREQ);
-        lives = new SimpleIntegerProperty(3);
+        paddle = new Rectangle(shownWorld.getPaddleX(), shownWorld.getPaddleY(), shownWorld.getPaddleWidth(),
+                shownWorld.getPaddleHeight());
+        // The multi-ball power-up can put more balls in play than the game started with
+        if(ballCount == 1 && powerUpChance == 0) {
+            ball = new Ball(shownWorld.getBall());
+        } else {
+            ballLayer = new BallLayer(shownWorld.getWidth(), shownWorld.getHeight(), shownWorld.getBalls());
+        }
+        if(powerUpChance > 0) {
+            entityLayer = new EntityLayer(shownWorld.getWidth(), shownWorld.getHeight(), shownWorld.getDrops(),
+                    shownWorld.getLasers());
+        }
+        if(CANVAS_BRICK_RENDERER.equals(parameters.get(BRICK_RENDERER_PARAMETER))) {
+            brickLayer = new BrickLayer(shownWorld.getWidth(), shownWorld.getHeight(), shownWorld.getBricks());
+        } else {
+            bricks = new Bricks(shownWorld.getBricks());
+        }
+        score = new SimpleIntegerProperty(shownWorld.getScore());
+        lives = new SimpleIntegerProperty(shownWorld.getLives());
+        inputLatency = new InputLatency();
+        setupProfiler();
     }
 
-    private void handleDelayingIntersectionFrames() {
-        delayIntersectionFrames--;
-        if(delayIntersectionFrames == 0) {
-            delayIntersectionFrames = 2;
-        }
+    private void setupCapture(Map<String, String> parameters) throws IOException {
+        Path directory = Files.createDirectories(Path.of(parameters.get(CAPTURE_PARAMETER)));
+        FrameEncoder encoder = RAW_CAPTURE.equals(parameters.get(CAPTURE_FORMAT_PARAMETER))
+                ? new RawVideoEncoder(directory.resolve(RAW_CAPTURE_FILE)) : new PngSequenceEncoder(directory);
+        frameCapture = new FrameCapture(SCENE_SIZE, SCENE_SIZE, CAPTURE_BUFFERS_PER_WORKER * CAPTURE_WORKERS,
+                CAPTURE_WORKERS, encoder);
+        captureImage = new WritableImage(SCENE_SIZE, SCENE_SIZE);
+        maxSpeedCapture = MAX_CAPTURE_SPEED.equals(parameters.get(CAPTURE_SPEED_PARAMETER));
     }
 
-    private void handleIntersections() {
-        handlePaddleIntersectingBounds();
-        handleBallIntersectingBounds();
-        handleBallIntersectingPaddle();
-        handleBallIntersectingBrick();
+    // The brick nodes still change inside the tick, since the frame drawn right after it has to match the World
+    private void setupEventPublisher() {
+        shownWorld = world;
+        eventPublisher = new GameEventPublisher(gameEvents, world) {
+            @Override
+            public void brickDestroyed(int cell) {
+                super.brickDestroyed(cell);
+                handleBrickDestroyed(cell);
+            }
+
+            @Override
+            public void brickHit(int cell) {
+                super.brickHit(cell);
+                handleBrickHit(cell);
+            }
+
+            @Override
+            public void brickChanged(int cell) {
+                handleBrickChanged(cell);
+            }
+        };
+        world.setListener(eventPublisher);
+    }
+
+    // The physics thread's World only publishes events, the nodes draw a copy of it that each tick is restored into
+    // on the JavaFX thread, which redraws the bricks that changed since the last tick it drew
+    private void setupThreadedPhysics() {
+        eventPublisher = new GameEventPublisher(gameEvents, world);
+        world.setListener(eventPublisher);
+        shownWorld = world.copy();
+        shownWorld.setListener(new WorldListener() {
+            @Override
+            public void brickChanged(int cell) {
+                handleBrickChanged(cell);
+            }
+        });
+        frames = new TripleBuffer<>(new PhysicsFrame(), new PhysicsFrame(), new PhysicsFrame());
     }
 
 }
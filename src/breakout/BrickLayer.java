@@ -0,0 +1,83 @@
+package breakout;
+
+import breakout.sim.BrickField;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * Purpose: Draw every brick onto one Canvas instead of having a Rectangle node per brick, so that the cost of
+ * drawing the bricks doesn't grow with the number of nodes in the scene graph.
+ * Assumptions: JavaFX installed on device, the layer is the same size as the scene
+ * Dependencies: This class depends on several classes from the JavaFX platform, the Bricks class (for brick colors),
+ * and the BrickField class.
+ * Example: Construct a BrickLayer for the World's BrickField, add it to the back of the scene, and call clearBrick
+ * whenever the World destroys a brick (or updateBrick when it hits one that survives).
+ * Other details: the whole field is drawn once, after that only the rectangle of each destroyed brick is redrawn.
+ * Bricks never overlap (there is a 1 pixel gap between them), so clearing that rectangle is the whole redraw.
+ *
+ * @author Evan Kenyon
+ */
+public class BrickLayer extends Canvas {
+
+    private BrickField field;
+    private Color[] paletteColors;
+
+    /**
+     * Purpose: Construct a layer the size of the scene and draw every brick in field onto it
+     * Assumptions: field is the same BrickField that the game's World is using
+     * @param width scene width
+     * @param height scene height
+     * @param field the bricks to draw
+     */
+    public BrickLayer(double width, double height, BrickField field) {
+        super(width, height);
+        this.field = field;
+        paletteColors = Bricks.getPaletteColors(field.getPalette());
+        drawBricks(0, field.getCellCount());
+    }
+
+    /**
+     * Purpose: Draw every brick in a range of cells, for bricks put in the field after this was constructed (e.g. by
+     * a LevelLoader that's still loading)
+     * Assumptions: none
+     * @param fromCell the first cell to draw bricks from
+     * @param toCell the cell after the last one to draw bricks from
+     */
+    public void drawBricks(int fromCell, int toCell) {
+        for(int cell = fromCell; cell < toCell; cell++) {
+            if(field.isOccupied(cell)) {
+                drawBrick(cell);
+            }
+        }
+    }
+
+    private void drawBrick(int cell) {
+        GraphicsContext graphics = getGraphicsContext2D();
+        graphics.setFill(Bricks.getBrickColor(paletteColors, field, cell));
+        graphics.fillRect(field.getCellX(cell), field.getCellY(cell), field.getBrickWidth(), field.getBrickHeight());
+    }
+
+    /**
+     * Purpose: Redraw a brick that was hit but not destroyed to show its hit points left, or that was changed by
+     * World.restore (only erasing it if there's no brick there anymore)
+     * Assumptions: none
+     * @param cell the cell the brick is in
+     */
+    public void updateBrick(int cell) {
+        clearBrick(cell);
+        if(field.isOccupied(cell)) {
+            drawBrick(cell);
+        }
+    }
+
+    /**
+     * Purpose: Erase a brick that has been destroyed
+     * Assumptions: none
+     * @param cell the cell the destroyed brick was in
+     */
+    public void clearBrick(int cell) {
+        getGraphicsContext2D().clearRect(field.getCellX(cell), field.getCellY(cell),
+                field.getBrickWidth(), field.getBrickHeight());
+    }
+}
@@ -1,122 +1,121 @@
 package breakout;
 
-import javafx.beans.property.IntegerProperty;
-import javafx.beans.property.SimpleIntegerProperty;
-import javafx.scene.Node;
+import breakout.sim.BrickField;
+import breakout.sim.Palette;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
-import javafx.scene.shape.Shape;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 /**
- * Purpose: Construct the bricks that the ball will be breaking in the breakout game.
- * Assumptions: JavaFX installed on device, values of vars do not push past practical limits (details provided in
- * JavaDoc of constrctor)
- * Dependencies: This class depends on several classes from the JavaFX platform and the Random class, the Iterator class,
- * the ArrayList class, and the List class.
- * Example: Construct a Bricks object with reasonable arguments to be used in the Breakout class, and have that class
- * call the necessary methods in this class for dealing with the ball intersecting with bricks
- * Other details: Explanation for the algorithm for brick generation can be found in the README.
+ * Purpose: Show the bricks that the ball will be breaking in the breakout game as a Rectangle each.
+ * Assumptions: JavaFX installed on device
+ * Dependencies: This class depends on several classes from the JavaFX platform, the BrickField and Palette classes,
+ * and the ArrayList class, and the List class.
+ * Example: Construct a Bricks object from the World's BrickField in the Breakout class, and have that class call
+ * removeBrick, updateBrick, and refreshBrick when the World says a brick changed
+ * Other details: Which bricks exist, and hitting them, is all up to the World and its BrickField, this class only
+ * holds the Rectangles that show them. Explanation for the algorithm for brick generation can be found in the
+ * README.
  *
  * @author Evan Kenyon
  */
 public class Bricks {
 
-    // Integer Property code for score in this class was borrowed from
-    // https://stackoverflow.com/questions/56016866/how-do-i-output-updating-values-for-my-scoreboard
-    private Random rand;
-    private List<Integer> blockedX;
-    private List<Integer> blockedY;
-    private int brickWidth;
-    private int brickHeight;
-    private int sceneWidth;
-    private int sceneHeight;
-    private IntegerProperty score;
-    private double blockedRowOrColFreq;
+    private BrickField field;
+    private Color[] paletteColors;
     private List<Rectangle> bricks;
+    // Rectangles are also indexed by the BrickField's lattice cell so that a brick can be found and removed in O(1)
+    private Rectangle[] brickGrid;
+    private int[] brickListIndex;
 
     /**
-     * Purpose: Construct a Bricks object which has the number of bricks (Rectangles) of size brickWidth x brickHeight
-     * that fit into a sceneWidth x sceneHeight/2 area, with roughly blockRowOrColFreq of the rows/columns empty
-     * Assumptions: sceneWidth and sceneHeight are the actual scene dimensions, brickWidth is 1 less
-     * than a factor of the sceneWidth, blockRowOrColFreq is less than 1 (and preferably less than 0.9), and
-     * brickWidth and brickHeight are reasonable values (i.e. 1 brick will not be bigger than the whole scene)
-     * @param sceneWidth scene width, used so that bricks aren't generated outside of scene
-     * @param sceneHeight scene height, used so that bricks aren't generated outside of scene
-     * @param brickWidth width of each brick
-     * @param brickHeight height of each brick
-     * @param blockedRowOrColFreq frequency of a row or column being empty
+     * Purpose: Construct a Bricks object which has a Rectangle for every brick in field
+     * Assumptions: field is the same BrickField that the game's World is using
+     * @param field the bricks to show
      */
-    public Bricks(int sceneWidth, int sceneHeight, int brickWidth, int brickHeight, double blockedRowOrColFreq) {
-        rand = new Random();
-        blockedX = new ArrayList<>();
-        blockedY = new ArrayList<>();
+    public Bricks(BrickField field) {
+        this.field = field;
+        paletteColors = getPaletteColors(field.getPalette());
         bricks = new ArrayList<>();
-        score = new SimpleIntegerProperty(0);
-        this.brickWidth = brickWidth;
-        this.brickHeight = brickHeight;
-        this.sceneWidth = sceneWidth;
-        this.sceneHeight = sceneHeight;
-        this.blockedRowOrColFreq = blockedRowOrColFreq;
-        addBlockedCoordinates();
-        generateBricks();
+        brickGrid = new Rectangle[field.getCellCount()];
+        brickListIndex = new int[field.getCellCount()];
+        addBricks(0, field.getCellCount());
     }
 
     public List<Rectangle> getBricks() {
         return bricks;
     }
 
-    private void addBlockedCoordinates() {
-        addBlockedXCoordinates();
-        addBlockedYCoordinates();
-    }
-
-    private void addBlockedXCoordinates() {
-        for(int x = 0; x <= sceneWidth; x += brickWidth + 1) {
-            if(rand.nextDouble() <= blockedRowOrColFreq) {
-                blockedX.add(x);
+    /**
+     * Purpose: Add a Rectangle for every brick in a range of cells, for bricks put in the field after this was
+     * constructed (e.g. by a LevelLoader that's still loading)
+     * Assumptions: none of the bricks in the range have a Rectangle yet
+     * @param fromCell the first cell to add bricks from
+     * @param toCell the cell after the last one to add bricks from
+     * @return the Rectangles that were added
+     */
+    public List<Rectangle> addBricks(int fromCell, int toCell) {
+        int firstAdded = bricks.size();
+        for(int cell = fromCell; cell < toCell; cell++) {
+            if(field.isOccupied(cell)) {
+                Rectangle newBrick = new Rectangle(field.getCellX(cell), field.getCellY(cell),
+                        field.getBrickWidth(), field.getBrickHeight());
+                newBrick.setFill(getBrickColor(paletteColors, field, cell));
+                brickGrid[cell] = newBrick;
+                brickListIndex[cell] = bricks.size();
+                bricks.add(newBrick);
             }
         }
+        return bricks.subList(firstAdded, bricks.size());
     }
 
-    private void addBlockedYCoordinates() {
-        for(int y = 0; y <= sceneHeight/2; y += brickHeight + 1) {
-            if(rand.nextDouble() <= blockedRowOrColFreq) {
-                blockedY.add(y);
-            }
-        }
+    /**
+     * Purpose: Recolor a brick that was hit but not destroyed to show its hit points left
+     * Assumptions: the brick in cell hasn't been removed
+     * @param cell the cell the hit brick is in
+     */
+    public void updateBrick(int cell) {
+        brickGrid[cell].setFill(getBrickColor(paletteColors, field, cell));
     }
 
-    private void generateBricks() {
-        for(int x = 0; x <= sceneWidth; x += brickWidth + 1) {
-            for(int y = 0; y <= sceneHeight/2; y += brickHeight + 1) {
-                if(! (blockedX.contains(x) || blockedY.contains(y))) {
-                    Rectangle newBrick = new Rectangle(x, y, brickWidth, brickHeight);
-                    newBrick.setFill(Color.color(generateRandomColorPercent(), generateRandomColorPercent(), generateRandomColorPercent()));
-                    bricks.add(newBrick);
-                }
-            }
+    /**
+     * Purpose: Remove the Rectangle for a brick that has already been destroyed in the BrickField
+     * Assumptions: the brick in cell hasn't already been removed
+     * @param cell the cell the destroyed brick was in
+     * @return the Rectangle that was showing the brick
+     */
+    public Rectangle removeBrick(int cell) {
+        // Swaps the last brick into the removed brick's spot so that removal doesn't shift the whole list
+        Rectangle removedBrick = brickGrid[cell];
+        int listIndex = brickListIndex[cell];
+        Rectangle lastBrick = bricks.remove(bricks.size() - 1);
+        if(listIndex < bricks.size()) {
+            bricks.set(listIndex, lastBrick);
+            brickListIndex[field.getCell((int) lastBrick.getX(), (int) lastBrick.getY())] = listIndex;
         }
+        brickGrid[cell] = null;
+        return removedBrick;
     }
 
     /**
-     * Purpose: See if a shape is intersecting with a brick
-     * Assumptions: shape is in the same scene as a brick, shape could conceivably intersect with a brick
-     * @param shape the shape which is checked to see if its intersecting with a brick
-     * @return the brick that shape is intersecting with, or null
+     * Purpose: Make a brick's Rectangle match its cell again after the cell was set back by World.restore, which
+     * can bring a destroyed brick back or take one away as well as change its hit points
+     * Assumptions: none
+     * @param cell the cell that changed
+     * @return the Rectangle that was added or removed (which the caller adds to or removes from the scene), or null
+     * if the brick was only recolored
      */
-    public Node getBrickIntersecting(Shape shape) {
-        for(Node brick : bricks) {
-            if(shape.getBoundsInParent().intersects(brick.getBoundsInParent())) {
-                Node oldBrick = brick;
-                bricks.remove(brick);
-                score.set(score.get() + 1);
-                return oldBrick;
-            }
+    public Rectangle refreshBrick(int cell) {
+        if(!field.isOccupied(cell)) {
+            return brickGrid[cell] != null ? removeBrick(cell) : null;
         }
+        if(brickGrid[cell] == null) {
+            addBricks(cell, cell + 1);
+            return brickGrid[cell];
+        }
+        updateBrick(cell);
         return null;
     }
 
@@ -127,22 +126,36 @@ public class Bricks {
      * @return true if all bricks have been hit by the ball, false otherwise
      */
     public boolean isBrickRemaining() {
-        return bricks.size() != 0;
+        return field.isBrickRemaining();
     }
 
     /**
-     * Purpose: Return the number of bricks already hit by the ball
+     * Purpose: Turn a palette into JavaFX Colors, so that bricks can share them instead of each having their own
      * Assumptions: none
-     * @return the number of bricks already hit by the ball
+     * @param palette the palette
+     * @return the palette's colors, in the same order
      */
-    public IntegerProperty getScore() {
-        return score;
+    static Color[] getPaletteColors(Palette palette) {
+        Color[] colors = new Color[palette.size()];
+        for(int i = 0; i < colors.length; i++) {
+            int color = palette.getColor(i);
+            colors[i] = Color.rgb((color >> 16) & 0xFF, (color >> 8) & 0xFF, color & 0xFF);
+        }
+        return colors;
     }
 
-    // Made range for colors 0.1 to 1.0 instead of generic 0.0 to 1.0 so that bricks wouldn't be hard to see
-    // Based off of random color generator found at
-    // https://stackoverflow.com/questions/35715283/set-text-to-random-color-opacity-javafx/35715848
-    private double generateRandomColorPercent() {
-        return (Math.random() * 0.9) + 0.1;
+    /**
+     * Purpose: Return the color to draw a brick with, which is its palette color made darker the more hit points
+     * it has left (so 1 hit bricks are drawn in their palette color)
+     * Assumptions: the cell has a brick in it
+     * @param paletteColors the colors from getPaletteColors
+     * @param field the bricks
+     * @param cell the cell the brick is in
+     * @return the color
+     */
+    static Color getBrickColor(Color[] paletteColors, BrickField field, int cell) {
+        Color color = paletteColors[field.getColor(cell)];
+        int hitPoints = field.getHitPoints(cell);
+        return hitPoints <= 1 ? color : color.deriveColor(0, 1, 1.0 / hitPoints, 1);
     }
 }
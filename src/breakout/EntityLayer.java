@@ -0,0 +1,66 @@
+package breakout;
+
+import breakout.sim.Entities;
+import breakout.sim.PowerUp;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * Purpose: Draw the World's falling power-ups and lasers onto one Canvas, since there can be far too many of them for
+ * a node each.
+ * Assumptions: JavaFX installed on device, the layer is the same size as the scene
+ * Dependencies: This class depends on several classes from the JavaFX platform and the Entities and PowerUp classes.
+ * Example: Construct an EntityLayer for the World's drops and lasers, add it to the scene, and call update once per
+ * frame.
+ * Other details: each power-up is a square in its own color, so players can tell what they are about to catch.
+ *
+ * @author Evan Kenyon
+ */
+public class EntityLayer extends Canvas {
+
+    // In the same order as PowerUp: wide paddle, multi-ball, laser, extra life
+    private static final Color[] POWER_UP_COLORS = { Color.ROYALBLUE, Color.DARKORANGE, Color.CRIMSON,
+            Color.FORESTGREEN };
+    private static final Color LASER_COLOR = Color.RED;
+
+    private Entities drops;
+    private Entities lasers;
+
+    /**
+     * Purpose: Construct a layer the size of the scene that draws the given entities
+     * Assumptions: there is a color for every PowerUp
+     * @param width scene width
+     * @param height scene height
+     * @param drops the falling power-ups, whose kinds are PowerUp ordinals
+     * @param lasers the lasers
+     */
+    public EntityLayer(double width, double height, Entities drops, Entities lasers) {
+        super(width, height);
+        this.drops = drops;
+        this.lasers = lasers;
+        // The paddle and bricks under the layer still get mouse events
+        setMouseTransparent(true);
+        update(1);
+    }
+
+    /**
+     * Purpose: Redraw every power-up and laser where it was alpha of the way through the last step
+     * Assumptions: none
+     * @param alpha how far through the step, from 0 (where it started) to 1 (where it is now)
+     */
+    public void update(double alpha) {
+        GraphicsContext graphics = getGraphicsContext2D();
+        graphics.clearRect(0, 0, getWidth(), getHeight());
+        for(int i = 0; i < drops.getCount(); i++) {
+            graphics.setFill(POWER_UP_COLORS[PowerUp.get(drops.getKind(i)).ordinal()]);
+            graphics.fillRect(drops.getInterpolatedX(i, alpha), drops.getInterpolatedY(i, alpha), drops.getWidth(i),
+                    drops.getHeight(i));
+        }
+        graphics.setFill(LASER_COLOR);
+        for(int i = 0; i < lasers.getCount(); i++) {
+            graphics.fillRect(lasers.getInterpolatedX(i, alpha), lasers.getInterpolatedY(i, alpha),
+                    lasers.getWidth(i), lasers.getHeight(i));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package breakout;
+
+import javafx.animation.AnimationTimer;
+
+import java.util.function.DoubleConsumer;
+
+/**
+ * Purpose: Run the game's physics at a fixed step no matter how long frames actually take, and draw each frame in
+ * between the last two physics steps so that movement looks smooth even when the frame rate and tick rate differ.
+ * Assumptions: JavaFX installed on device
+ * Dependencies: This class depends on the JavaFX AnimationTimer class, the LoopStats class, and the DoubleConsumer
+ * class.
+ * Example: new GameLoop(1.0 / 60, 5, () -> world.step(1.0 / 60), alpha -> drawWorld(alpha)).start()
+ * Other details: the time each frame actually took is added to an accumulator, and as many fixed steps are run as
+ * fit in it. If a hitch would need more than maxStepsPerFrame steps to catch up, the rest of the time is thrown
+ * away (so a slow machine plays in slow motion instead of falling further and further behind).
+ * The time rendered at is alpha of the way from the step before last to the last step, so drawing is always up to
+ * one step behind the physics.
+ *
+ * @author Evan Kenyon
+ */
+public class GameLoop extends AnimationTimer {
+
+    private double stepSeconds;
+    private int maxStepsPerFrame;
+    private Runnable tick;
+    private DoubleConsumer render;
+    private LoopStats stats;
+    private long lastFrameNanos;
+    private double accumulator;
+
+    /**
+     * Purpose: Construct a game loop, which doesn't run until start is called
+     * Assumptions: stepSeconds and maxStepsPerFrame are positive
+     * @param stepSeconds how much game time each physics step covers
+     * @param maxStepsPerFrame the most steps that are run in one frame to catch up after a hitch
+     * @param tick runs one physics step
+     * @param render draws a frame, given how far (0 to 1) between the last two steps to draw it
+     */
+    public GameLoop(double stepSeconds, int maxStepsPerFrame, Runnable tick, DoubleConsumer render) {
+        this.stepSeconds = stepSeconds;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+        this.tick = tick;
+        this.render = render;
+        stats = new LoopStats(stepSeconds);
+        lastFrameNanos = -1;
+    }
+
+    /**
+     * Purpose: Run however many physics steps the time since the last frame needs, then draw the frame
+     * Assumptions: called by JavaFX once per frame
+     * @param now the time of this frame in nanoseconds
+     */
+    @Override
+    public void handle(long now) {
+        if(lastFrameNanos >= 0) {
+            long frameNanos = now - lastFrameNanos;
+            stats.recordFrame(frameNanos);
+            accumulator += frameNanos / 1e9;
+        }
+        lastFrameNanos = now;
+        int steps = 0;
+        while(accumulator >= stepSeconds && steps < maxStepsPerFrame) {
+            long tickStart = System.nanoTime();
+            tick.run();
+            stats.recordTick(System.nanoTime() - tickStart);
+            accumulator -= stepSeconds;
+            steps++;
+        }
+        if(accumulator >= stepSeconds) {
+            stats.recordBudgetExhausted();
+            accumulator %= stepSeconds;
+        }
+        render.accept(accumulator / stepSeconds);
+    }
+
+    /**
+     * Purpose: Stop the loop, the next start carries on without counting the time it was stopped for
+     * Assumptions: none
+     */
+    @Override
+    public void stop() {
+        super.stop();
+        lastFrameNanos = -1;
+    }
+
+    public LoopStats getStats() {
+        return stats;
+    }
+}
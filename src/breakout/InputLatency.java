@@ -0,0 +1,91 @@
+package breakout;
+
+import breakout.sim.LatencyHistogram;
+
+/**
+ * Purpose: Measure how long it takes from the player pressing or releasing a key to the World being stepped with it
+ * and to the first frame that shows it, so that the game's responsiveness can be tuned with numbers.
+ * Assumptions: only used from the JavaFX application thread
+ * Dependencies: This class depends on the LatencyHistogram class.
+ * Example: Breakout calls inputReceived from its key handlers, inputApplied after each tick, and frameRendered from
+ * a post-layout pulse listener on the scene, which runs right before JavaFX renders the frame. Breakout prints it
+ * when the game is closed and the PhaseOverlay shows it.
+ * Other details: only the oldest input that hasn't shown up on screen yet is timed, since any inputs after it show up
+ * in the same frame with less latency. KeyEvents don't have a timestamp, so the time is when JavaFX handed over the
+ * event (the OS's and the display's latency aren't included), and a frame's time is when its scene is about to be
+ * rendered. Recording doesn't allocate.
+ *
+ * @author Evan Kenyon
+ */
+public class InputLatency {
+
+    private LatencyHistogram toTick;
+    private LatencyHistogram toFrame;
+    // When the oldest input that hasn't been shown yet came in, or -1 if there isn't one
+    private long pendingNanos;
+    private boolean applied;
+
+    /**
+     * Purpose: Construct an InputLatency with nothing measured yet
+     * Assumptions: none
+     */
+    public InputLatency() {
+        toTick = new LatencyHistogram();
+        toFrame = new LatencyHistogram();
+        pendingNanos = -1;
+    }
+
+    /**
+     * Purpose: Start timing an input, unless an earlier one is still waiting to be shown
+     * Assumptions: called as the input is applied to the World
+     * @param nanos the time now, from System.nanoTime
+     */
+    public void inputReceived(long nanos) {
+        if(pendingNanos < 0) {
+            pendingNanos = nanos;
+            applied = false;
+        }
+    }
+
+    /**
+     * Purpose: Record that the World was stepped, so the input being timed has had its effect
+     * Assumptions: called after each tick
+     * @param nanos the time now, from System.nanoTime
+     */
+    public void inputApplied(long nanos) {
+        if(pendingNanos >= 0 && !applied) {
+            toTick.record(nanos - pendingNanos);
+            applied = true;
+        }
+    }
+
+    /**
+     * Purpose: Record that a frame is about to be rendered, which shows the input being timed if it was applied
+     * Assumptions: called once per frame, after the frame's ticks
+     * @param nanos the time now, from System.nanoTime
+     */
+    public void frameRendered(long nanos) {
+        if(applied) {
+            toFrame.record(nanos - pendingNanos);
+            pendingNanos = -1;
+            applied = false;
+        }
+    }
+
+    public LatencyHistogram getToTick() {
+        return toTick;
+    }
+
+    public LatencyHistogram getToFrame() {
+        return toFrame;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Inputs: %d, input to tick p50/p99/max: %.2f/%.2f/%.2f ms, "
+                        + "input to frame p50/p99/max: %.2f/%.2f/%.2f ms",
+                toFrame.getTotal(), toTick.getPercentile(50) / 1e6, toTick.getPercentile(99) / 1e6,
+                toTick.getMax() / 1e6, toFrame.getPercentile(50) / 1e6, toFrame.getPercentile(99) / 1e6,
+                toFrame.getMax() / 1e6);
+    }
+}
@@ -0,0 +1,140 @@
+package breakout;
+
+import java.util.Arrays;
+
+/**
+ * Purpose: Record how long frames and physics ticks actually take, so that dropped frames and the game loop falling
+ * behind (the "spiral of death", where ticks take longer than the time they simulate) can be seen with numbers.
+ * Assumptions: each kind of recording only comes from one thread (everything from the GameLoop's, or frames from the
+ * JavaFX thread and ticks from the PhysicsThread's), and a reader on another thread (e.g. the PhaseOverlay) is fine
+ * with numbers that can be a tick out of date
+ * Dependencies: This class depends on the Arrays class.
+ * Example: GameLoop records into one of these every frame, and Breakout prints it when the game is closed.
+ * Other details: the most recent WINDOW durations are kept in ring buffers for percentiles, while counts and maxes
+ * cover the whole run. Recording doesn't allocate.
+ *
+ * @author Evan Kenyon
+ */
+public class LoopStats {
+
+    // 10 seconds worth of frames at 60 frames per second
+    public static final int WINDOW = 600;
+    // A frame that took this many times longer than one tick means at least one vsync was missed
+    public static final double DROPPED_FRAME_FACTOR = 1.5;
+
+    private double expectedFrameNanos;
+    private long[] frameNanos;
+    private long[] tickNanos;
+    private long frames;
+    private long ticks;
+    private long droppedFrames;
+    private long budgetExhaustedFrames;
+    private long maxFrameNanos;
+    private long maxTickNanos;
+
+    /**
+     * Purpose: Construct empty stats for a loop that is meant to run at one tick per frame of the given length
+     * Assumptions: expectedFrameSeconds is positive
+     * @param expectedFrameSeconds how long a frame is meant to take
+     */
+    public LoopStats(double expectedFrameSeconds) {
+        expectedFrameNanos = expectedFrameSeconds * 1e9;
+        frameNanos = new long[WINDOW];
+        tickNanos = new long[WINDOW];
+    }
+
+    /**
+     * Purpose: Record the time between the start of the last frame and this one
+     * Assumptions: none
+     * @param nanos the frame's length in nanoseconds
+     */
+    public void recordFrame(long nanos) {
+        frameNanos[(int) (frames++ % WINDOW)] = nanos;
+        maxFrameNanos = Math.max(maxFrameNanos, nanos);
+        if(nanos > expectedFrameNanos * DROPPED_FRAME_FACTOR) {
+            droppedFrames++;
+        }
+    }
+
+    /**
+     * Purpose: Record how long one physics tick took to run
+     * Assumptions: none
+     * @param nanos the tick's running time in nanoseconds
+     */
+    public void recordTick(long nanos) {
+        tickNanos[(int) (ticks++ % WINDOW)] = nanos;
+        maxTickNanos = Math.max(maxTickNanos, nanos);
+    }
+
+    /**
+     * Purpose: Record that a frame hit the most ticks it is allowed to catch up with, and the rest of the time that
+     * built up was thrown away (the game ran slower than real time for that frame)
+     * Assumptions: none
+     */
+    public void recordBudgetExhausted() {
+        budgetExhaustedFrames++;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    public long getBudgetExhaustedFrames() {
+        return budgetExhaustedFrames;
+    }
+
+    public long getMaxFrameNanos() {
+        return maxFrameNanos;
+    }
+
+    public long getMaxTickNanos() {
+        return maxTickNanos;
+    }
+
+    /**
+     * Purpose: Return a percentile of the most recent frame lengths
+     * Assumptions: percentile is between 0 and 100
+     * @param percentile which percentile, e.g. 99
+     * @return the frame length in nanoseconds, or 0 if there haven't been any frames
+     */
+    public long getFramePercentile(double percentile) {
+        return getPercentile(frameNanos, frames, percentile);
+    }
+
+    /**
+     * Purpose: Return a percentile of the most recent tick running times
+     * Assumptions: percentile is between 0 and 100
+     * @param percentile which percentile, e.g. 99
+     * @return the tick running time in nanoseconds, or 0 if there haven't been any ticks
+     */
+    public long getTickPercentile(double percentile) {
+        return getPercentile(tickNanos, ticks, percentile);
+    }
+
+    private long getPercentile(long[] window, long recorded, double percentile) {
+        int size = (int) Math.min(recorded, WINDOW);
+        if(size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(window, size);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.min(size - 1, Math.floor(percentile / 100 * size))];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Frames: %d (%d dropped, %d fell behind), frame p50/p99/max: %.2f/%.2f/%.2f ms%n"
+                        + "Ticks: %d, tick p50/p99/max: %.3f/%.3f/%.3f ms",
+                frames, droppedFrames, budgetExhaustedFrames,
+                getFramePercentile(50) / 1e6, getFramePercentile(99) / 1e6, maxFrameNanos / 1e6,
+                ticks, getTickPercentile(50) / 1e6, getTickPercentile(99) / 1e6, maxTickNanos / 1e6);
+    }
+}
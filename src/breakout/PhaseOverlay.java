@@ -0,0 +1,72 @@
+package breakout;
+
+import breakout.sim.PhaseProfiler;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * Purpose: Show how long each phase of the game's ticks is taking (and how long frames and ticks take overall, and
+ * how long inputs take to show up) on top of the game, for seeing what's slow while playing.
+ * Assumptions: JavaFX installed on device
+ * Dependencies: This class depends on several classes from the JavaFX platform, the PhaseProfiler class, the
+ * LoopStats class, and the InputLatency class.
+ * Example: Add a PhaseOverlay to the scene, call toggle when the debug key is pressed, and update once per frame.
+ * Other details: the profiler is only enabled while the overlay is showing (or while it's enabled over JMX), and the
+ * text is only rebuilt every UPDATE_FRAMES frames so that it can be read and doesn't allocate every frame.
+ *
+ * @author Evan Kenyon
+ */
+public class PhaseOverlay extends Text {
+
+    // Twice a second at 60 frames per second
+    public static final int UPDATE_FRAMES = 30;
+    public static final int FONT_SIZE = 12;
+    public static final String FONT_TYPE = "Monospaced";
+    public static final double POSITION = 10;
+
+    private PhaseProfiler profiler;
+    private LoopStats loopStats;
+    private InputLatency inputLatency;
+    private int framesUntilUpdate;
+
+    /**
+     * Purpose: Construct a hidden overlay showing profiler's, loopStats', and inputLatency's numbers
+     * Assumptions: profiler is the one the World being shown was given
+     * @param profiler the phase timings
+     * @param loopStats the game loop's frame and tick timings
+     * @param inputLatency the input latencies
+     */
+    public PhaseOverlay(PhaseProfiler profiler, LoopStats loopStats, InputLatency inputLatency) {
+        super(POSITION, POSITION + FONT_SIZE, "");
+        this.profiler = profiler;
+        this.loopStats = loopStats;
+        this.inputLatency = inputLatency;
+        setFont(Font.font(FONT_TYPE, FONT_SIZE));
+        setFill(Color.DARKSLATEGRAY);
+        setMouseTransparent(true);
+        setVisible(false);
+    }
+
+    /**
+     * Purpose: Show the overlay (and start profiling) if it's hidden, otherwise hide it (and stop profiling)
+     * Assumptions: none
+     */
+    public void toggle() {
+        setVisible(!isVisible());
+        profiler.setEnabled(isVisible());
+        framesUntilUpdate = 0;
+    }
+
+    /**
+     * Purpose: Rebuild the text if it's showing and it's been UPDATE_FRAMES frames since it last was
+     * Assumptions: called once per frame
+     */
+    public void update() {
+        if(!isVisible() || framesUntilUpdate-- > 0) {
+            return;
+        }
+        framesUntilUpdate = UPDATE_FRAMES;
+        setText(profiler.getReport() + System.lineSeparator() + loopStats + System.lineSeparator() + inputLatency);
+    }
+}
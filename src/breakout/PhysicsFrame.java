@@ -0,0 +1,50 @@
+package breakout;
+
+import breakout.sim.Snapshot;
+
+/**
+ * Purpose: Hold what the physics thread hands the JavaFX thread after each tick: the World as it was after the
+ * tick, when the tick finished, and how many inputs had been applied to the World by then.
+ * Assumptions: only one thread touches a frame at a time, which a TripleBuffer of frames makes sure of
+ * Dependencies: This class depends on the Snapshot class.
+ * Example: the physics thread saves the World into the TripleBuffer's back frame and publishes it, and the JavaFX
+ * thread restores the front frame's snapshot into the World it draws.
+ * Other details: the snapshot shares the World's brick pages instead of copying them, so filling in a frame
+ * doesn't depend on how many bricks there are.
+ *
+ * @author Evan Kenyon
+ */
+public class PhysicsFrame {
+
+    private Snapshot snapshot;
+    private long tickNanos;
+    private long inputsApplied;
+
+    /**
+     * Purpose: Construct an empty frame
+     * Assumptions: none
+     */
+    public PhysicsFrame() {
+        snapshot = new Snapshot();
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    public void setTickNanos(long tickNanos) {
+        this.tickNanos = tickNanos;
+    }
+
+    public long getInputsApplied() {
+        return inputsApplied;
+    }
+
+    public void setInputsApplied(long inputsApplied) {
+        this.inputsApplied = inputsApplied;
+    }
+}
@@ -0,0 +1,110 @@
+package breakout;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Purpose: Run the game's physics on its own thread at a fixed rate, so that ticks aren't held up by the JavaFX
+ * thread's layout and rendering and a slow frame doesn't delay the game.
+ * Assumptions: after start, whatever the ticks change (e.g. the World) is only touched on this thread, and other
+ * threads change it by submitting commands
+ * Dependencies: This class depends on the LoopStats class, the ConcurrentLinkedQueue class, and the LockSupport class.
+ * Example: physics = new PhysicsThread(1.0 / 60, 5, () -> world.step(1.0 / 60), stats), physics.start(),
+ * physics.submit(() -> Input.LAUNCH.apply(world, speed)) from a key handler, and physics.stop() when the game closes.
+ * Other details: ticks are scheduled against deadlines that are each stepSeconds after the last, so the rate doesn't
+ * drift however long each tick takes. If the thread falls more than maxCatchUpSteps ticks behind (e.g. the machine
+ * was suspended) the missed time is thrown away like in GameLoop. Commands are run in the order they were submitted,
+ * all of them before the next tick, and the thread parks instead of spinning while it waits for a deadline.
+ *
+ * @author Evan Kenyon
+ */
+public class PhysicsThread {
+
+    private long stepNanos;
+    private int maxCatchUpSteps;
+    private Runnable tick;
+    private LoopStats stats;
+    private Queue<Runnable> commands;
+    private Thread thread;
+    private volatile boolean running;
+
+    /**
+     * Purpose: Construct a physics thread that doesn't tick until start is called
+     * Assumptions: stepSeconds and maxCatchUpSteps are positive
+     * @param stepSeconds how much game time each tick covers, and how often ticks run
+     * @param maxCatchUpSteps the most ticks that are run back to back to catch up after falling behind
+     * @param tick runs one physics step, on the physics thread
+     * @param stats where each tick's running time is recorded
+     */
+    public PhysicsThread(double stepSeconds, int maxCatchUpSteps, Runnable tick, LoopStats stats) {
+        stepNanos = Math.round(stepSeconds * 1e9);
+        this.maxCatchUpSteps = maxCatchUpSteps;
+        this.tick = tick;
+        this.stats = stats;
+        commands = new ConcurrentLinkedQueue<>();
+        thread = new Thread(this::run, "Physics");
+        // Shouldn't keep the game open after its window is closed
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Purpose: Start ticking on the physics thread
+     * Assumptions: only called once
+     */
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Purpose: Stop ticking, and wait for the tick in progress to finish
+     * Assumptions: start was called
+     * @throws InterruptedException if interrupted while waiting for the thread to finish
+     */
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join();
+    }
+
+    /**
+     * Purpose: Run command on the physics thread before its next tick
+     * Assumptions: command is quick, since the tick waits for it
+     * @param command what to run
+     */
+    public void submit(Runnable command) {
+        commands.add(command);
+    }
+
+    private void run() {
+        long deadline = System.nanoTime() + stepNanos;
+        while(running) {
+            long wait = deadline - System.nanoTime();
+            if(wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+            runCommands();
+            long tickStart = System.nanoTime();
+            tick.run();
+            stats.recordTick(System.nanoTime() - tickStart);
+            deadline += stepNanos;
+            if(System.nanoTime() - deadline > maxCatchUpSteps * stepNanos) {
+                stats.recordBudgetExhausted();
+                deadline = System.nanoTime() + stepNanos;
+            }
+        }
+    }
+
+    private void runCommands() {
+        Runnable command;
+        while((command = commands.poll()) != null) {
+            command.run();
+        }
+    }
+
+    public long getStepNanos() {
+        return stepNanos;
+    }
+}
@@ -0,0 +1,60 @@
+package breakout;
+
+import javafx.animation.AnimationTimer;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Purpose: Draw a frame every time JavaFX is about to render one, for when the physics runs on its own thread
+ * (see PhysicsThread) and so the JavaFX thread only has to draw.
+ * Assumptions: JavaFX installed on device
+ * Dependencies: This class depends on the JavaFX AnimationTimer class, the LoopStats class, and the LongConsumer
+ * class.
+ * Example: new RenderLoop(stats, now -> drawLatestTick(now)).start()
+ * Other details: frame lengths are recorded into the same LoopStats the physics thread records its ticks into, so
+ * that both show up together like they do for a GameLoop.
+ *
+ * @author Evan Kenyon
+ */
+public class RenderLoop extends AnimationTimer {
+
+    private LoopStats stats;
+    private LongConsumer render;
+    private long lastFrameNanos;
+
+    /**
+     * Purpose: Construct a render loop, which doesn't run until start is called
+     * Assumptions: none
+     * @param stats where each frame's length is recorded
+     * @param render draws a frame, given the time of the frame in nanoseconds
+     */
+    public RenderLoop(LoopStats stats, LongConsumer render) {
+        this.stats = stats;
+        this.render = render;
+        lastFrameNanos = -1;
+    }
+
+    /**
+     * Purpose: Record how long the last frame took, then draw this one
+     * Assumptions: called by JavaFX once per frame
+     * @param now the time of this frame in nanoseconds
+     */
+    @Override
+    public void handle(long now) {
+        if(lastFrameNanos >= 0) {
+            stats.recordFrame(now - lastFrameNanos);
+        }
+        lastFrameNanos = now;
+        render.accept(now);
+    }
+
+    /**
+     * Purpose: Stop the loop, the next start doesn't count the time it was stopped for as a frame
+     * Assumptions: none
+     */
+    @Override
+    public void stop() {
+        super.stop();
+        lastFrameNanos = -1;
+    }
+}
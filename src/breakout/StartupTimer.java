@@ -0,0 +1,56 @@
+package breakout;
+
+import javafx.scene.Scene;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Purpose: Report how long after the JVM started the game's first frames were ready to be rendered, so that changes
+ * to startup time (e.g. from fast start or a class data sharing archive) can be tracked with numbers.
+ * Assumptions: only used from the JavaFX application thread
+ * Dependencies: This class depends on the JavaFX Scene class and the ProcessHandle and ManagementFactory classes.
+ * Example: Breakout calls reportFirstFrame on the first scene it shows and again on the game's scene, which prints
+ * e.g. "Time to first frame: 412 ms".
+ * Other details: a frame counts as ready once the scene's post-layout pulse runs, which is just before JavaFX renders
+ * it. The JVM's start time only has millisecond precision.
+ *
+ * @author Evan Kenyon
+ */
+public class StartupTimer {
+
+    private long jvmStartMillis;
+
+    /**
+     * Purpose: Construct a timer that counts from when the JVM started
+     * Assumptions: none
+     */
+    public StartupTimer() {
+        // ProcessHandle doesn't load JMX, which is only used if the OS doesn't say when the process started
+        jvmStartMillis = ProcessHandle.current().info().startInstant()
+                .map(instant -> instant.toEpochMilli())
+                .orElseGet(() -> ManagementFactory.getRuntimeMXBean().getStartTime());
+    }
+
+    /**
+     * Purpose: Print how long after the JVM started the scene's first frame was ready, then run whenReady
+     * Assumptions: the scene is or is about to be shown
+     * @param scene the scene to time
+     * @param name what the frame is, e.g. "first frame"
+     * @param whenReady runs once the frame is ready
+     */
+    public void reportFirstFrame(Scene scene, String name, Runnable whenReady) {
+        // Listeners can't be removed while the pulse is running them, so this one just stops doing anything
+        boolean[] reported = new boolean[1];
+        scene.addPostLayoutPulseListener(() -> {
+            if(!reported[0]) {
+                reported[0] = true;
+                System.out.printf("Time to %s: %d ms%n", name, getMillisSinceStart());
+                whenReady.run();
+            }
+        });
+    }
+
+    public long getMillisSinceStart() {
+        return System.currentTimeMillis() - jvmStartMillis;
+    }
+}
@@ -0,0 +1,64 @@
+package breakout.capture;
+
+/**
+ * Purpose: Hold the pixels of one captured frame on its way from the game to a FrameEncoder, in a buffer that is
+ * reused for frame after frame.
+ * Assumptions: only one thread touches a frame at a time, which FrameCapture makes sure of
+ * Dependencies: This class depends on nothing outside of the JDK.
+ * Example: capture.acquire() gives an unused frame to copy a snapshot's pixels into, and capture.submit(frame) hands
+ * it to the encoders, which give it back once it's encoded.
+ * Other details: pixels are 4 bytes each, blue, green, red, then alpha, row by row from the top left, which is
+ * what JavaFX's PixelFormat.getByteBgraInstance() reads out and what ffmpeg calls bgra.
+ *
+ * @author Evan Kenyon
+ */
+public class CapturedFrame {
+
+    public static final int BYTES_PER_PIXEL = 4;
+
+    private int width;
+    private int height;
+    private byte[] pixels;
+    private long index;
+
+    /**
+     * Purpose: Construct a frame with room for width x height pixels
+     * Assumptions: width and height are positive
+     * @param width width of the frame in pixels
+     * @param height height of the frame in pixels
+     */
+    public CapturedFrame(int width, int height) {
+        this.width = width;
+        this.height = height;
+        pixels = new byte[width * height * BYTES_PER_PIXEL];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public byte[] getPixels() {
+        return pixels;
+    }
+
+    public int getScanlineStride() {
+        return width * BYTES_PER_PIXEL;
+    }
+
+    /**
+     * Purpose: Return where in the capture this frame is, starting from 0
+     * Assumptions: the frame was submitted
+     * @return the frame's index
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    void setIndex(long index) {
+        this.index = index;
+    }
+}
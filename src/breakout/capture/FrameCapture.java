@@ -0,0 +1,174 @@
+package breakout.capture;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purpose: Hand captured frames from the game's thread to a pool of worker threads that encode them, through a
+ * bounded queue of reusable pixel buffers, so that capturing a frame costs the game a copy of its pixels and nothing
+ * else however slow encoding is.
+ * Assumptions: acquire and submit are only called from one thread (the game's), and every frame that is acquired is
+ * submitted
+ * Dependencies: This class depends on the CapturedFrame and FrameEncoder classes and the ArrayBlockingQueue class.
+ * Example: capture = new FrameCapture(800, 800, 8, 2, new PngSequenceEncoder(directory)), then each frame
+ * frame = capture.acquire(), and if it isn't null copy the pixels into it and capture.submit(frame). capture.close()
+ * when done waits for every submitted frame to be encoded.
+ * Other details: all of the buffers are made up front and go around between a free queue and the queue to the
+ * workers, so capturing doesn't allocate. The game never waits: when the workers fall behind, every buffer ends up
+ * waiting to be encoded and acquire returns null, which is the back-pressure, and the game either skips the frame
+ * (while playing in real time) or holds off stepping until a buffer is free (when stepping just for the capture).
+ *
+ * @author Evan Kenyon
+ */
+public class FrameCapture implements Closeable {
+
+    // How long an idle worker waits for a frame before checking whether the capture was closed
+    public static final long WORKER_POLL_MILLIS = 10;
+
+    private BlockingQueue<CapturedFrame> free;
+    private BlockingQueue<CapturedFrame> pending;
+    private FrameEncoder encoder;
+    private Thread[] workers;
+    private volatile boolean running;
+    private volatile IOException failure;
+    // Only touched by the game's thread
+    private long submitted;
+    private long heldBack;
+    // Only touched by the workers while running, and read after they have finished
+    private long encoded;
+    private long encodeNanos;
+    private long maxEncodeNanos;
+
+    /**
+     * Purpose: Make the buffers and start the workers
+     * Assumptions: width, height, buffers, and workers are positive
+     * @param width width of each frame in pixels
+     * @param height height of each frame in pixels
+     * @param buffers how many frames can be captured ahead of the workers
+     * @param workers how many threads encode frames
+     * @param encoder what the workers encode frames with
+     */
+    public FrameCapture(int width, int height, int buffers, int workers, FrameEncoder encoder) {
+        free = new ArrayBlockingQueue<>(buffers);
+        pending = new ArrayBlockingQueue<>(buffers);
+        for(int i = 0; i < buffers; i++) {
+            free.add(new CapturedFrame(width, height));
+        }
+        this.encoder = encoder;
+        running = true;
+        this.workers = new Thread[workers];
+        for(int i = 0; i < workers; i++) {
+            this.workers[i] = new Thread(this::work, "Frame encoder " + i);
+            // Shouldn't keep the game open after its window is closed
+            this.workers[i].setDaemon(true);
+            this.workers[i].start();
+        }
+    }
+
+    /**
+     * Purpose: Take a free buffer to capture a frame into, without waiting for one
+     * Assumptions: the previous frame acquired was submitted
+     * @return the buffer, or null if every buffer is still waiting to be encoded
+     */
+    public CapturedFrame acquire() {
+        CapturedFrame frame = free.poll();
+        if(frame == null) {
+            heldBack++;
+        }
+        return frame;
+    }
+
+    /**
+     * Purpose: Check whether a frame could be captured now, without counting it as held back if not
+     * Assumptions: none
+     * @return true if acquire would return a buffer
+     */
+    public boolean hasFreeBuffer() {
+        return !free.isEmpty();
+    }
+
+    /**
+     * Purpose: Hand a captured frame to the workers, as the next frame of the capture
+     * Assumptions: frame came from acquire and its pixels are filled in
+     * @param frame the frame
+     */
+    public void submit(CapturedFrame frame) {
+        frame.setIndex(submitted++);
+        // Can't be full, there are only as many frames as it has room for
+        pending.add(frame);
+    }
+
+    private void work() {
+        long localEncoded = 0;
+        long localNanos = 0;
+        long localMax = 0;
+        try {
+            while(running || !pending.isEmpty()) {
+                CapturedFrame frame = pending.poll(WORKER_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if(frame == null) {
+                    continue;
+                }
+                long start = System.nanoTime();
+                try {
+                    if(failure == null) {
+                        encoder.encode(frame);
+                    }
+                } catch (IOException e) {
+                    failure = e;
+                }
+                long nanos = System.nanoTime() - start;
+                localEncoded++;
+                localNanos += nanos;
+                localMax = Math.max(localMax, nanos);
+                free.add(frame);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            encoded += localEncoded;
+            encodeNanos += localNanos;
+            maxEncodeNanos = Math.max(maxEncodeNanos, localMax);
+        }
+    }
+
+    /**
+     * Purpose: Wait for every submitted frame to be encoded, stop the workers, and finish the encoder's output
+     * Assumptions: nothing is acquired or submitted afterwards
+     * @throws IOException if a frame or the encoder's output couldn't be written
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            for(Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        encoder.close();
+        if(failure != null) {
+            throw failure;
+        }
+    }
+
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    public long getHeldBack() {
+        return heldBack;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Captured %d frames (held back %d times by encoding) on %d workers, "
+                        + "encode avg/max: %.2f/%.2f ms",
+                submitted, heldBack, workers.length, encoded == 0 ? 0 : encodeNanos / 1e6 / encoded,
+                maxEncodeNanos / 1e6);
+    }
+}
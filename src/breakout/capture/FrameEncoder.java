@@ -0,0 +1,34 @@
+package breakout.capture;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Purpose: Write captured frames somewhere (e.g. a PNG per frame, or one raw video file), so that new output formats
+ * can be added without changing how frames are captured.
+ * Assumptions: encode is called from several worker threads at once, with frames in any order, so an encoder has to
+ * be safe to call concurrently and place each frame by its index
+ * Dependencies: This class depends on the CapturedFrame class.
+ * Example: PngSequenceEncoder and RawVideoEncoder
+ *
+ * @author Evan Kenyon
+ */
+public interface FrameEncoder extends Closeable {
+
+    /**
+     * Purpose: Write one frame
+     * Assumptions: the frame isn't changed until this returns, and isn't touched by the encoder afterwards
+     * @param frame the frame to write
+     * @throws IOException if the frame couldn't be written
+     */
+    void encode(CapturedFrame frame) throws IOException;
+
+    /**
+     * Purpose: Finish writing, after every frame has been encoded
+     * Assumptions: no more frames are encoded afterwards
+     * @throws IOException if the output couldn't be finished
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,151 @@
+package breakout.capture;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Purpose: Write each captured frame as its own numbered PNG (frame-000000.png, frame-000001.png, ...), for visual
+ * regression baselines and for turning into a clip with any video tool.
+ * Assumptions: the directory exists
+ * Dependencies: This class depends on the CapturedFrame class and the Deflater and CRC32 classes.
+ * Example: encoder = new PngSequenceEncoder(Path.of("capture")), then
+ * ffmpeg -framerate 60 -i capture/frame-%06d.png game.mp4
+ * Other details: frames are written as 8 bit RGB (the scene is opaque, so alpha is dropped) with each row stored as
+ * the difference from the pixel to its left (PNG's Sub filter), which squeezes the game's flat colors down to very
+ * little with Deflater's fastest level. The PNG is written by hand instead of with ImageIO, so that the game doesn't
+ * need the java.desktop module and each worker thread reuses the same row and deflate buffers for every frame.
+ *
+ * @author Evan Kenyon
+ */
+public class PngSequenceEncoder implements FrameEncoder {
+
+    public static final String FILE_FORMAT = "frame-%06d.png";
+
+    private static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+    private static final int HEADER_LENGTH = 13;
+    private static final byte COLOR_TYPE_RGB = 2;
+    private static final byte BIT_DEPTH = 8;
+    private static final byte SUB_FILTER = 1;
+    private static final int RGB_BYTES = 3;
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private Path directory;
+    // Each worker thread's buffers, which are kept between frames
+    private ThreadLocal<Scratch> scratch;
+
+    /**
+     * Purpose: Construct an encoder that writes into directory
+     * Assumptions: directory exists
+     * @param directory where to write the frames
+     */
+    public PngSequenceEncoder(Path directory) {
+        this.directory = directory;
+        scratch = ThreadLocal.withInitial(Scratch::new);
+    }
+
+    @Override
+    public void encode(CapturedFrame frame) throws IOException {
+        Scratch buffers = scratch.get();
+        byte[] filtered = buffers.filter(frame);
+        Path path = directory.resolve(String.format(FILE_FORMAT, frame.getIndex()));
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), CHUNK_SIZE)) {
+            out.write(SIGNATURE);
+            byte[] header = buffers.chunk;
+            writeInt(header, 0, frame.getWidth());
+            writeInt(header, 4, frame.getHeight());
+            header[8] = BIT_DEPTH;
+            header[9] = COLOR_TYPE_RGB;
+            // Default compression and filtering, and not interlaced
+            header[10] = 0;
+            header[11] = 0;
+            header[12] = 0;
+            writeChunk(out, buffers, "IHDR", HEADER_LENGTH);
+            Deflater deflater = buffers.deflater;
+            deflater.reset();
+            deflater.setInput(filtered, 0, frame.getHeight() * (1 + frame.getWidth() * RGB_BYTES));
+            deflater.finish();
+            // Each chunk's worth of compressed data is its own IDAT, which PNG readers join back together
+            while(!deflater.finished()) {
+                int length = deflater.deflate(buffers.chunk);
+                if(length > 0) {
+                    writeChunk(out, buffers, "IDAT", length);
+                }
+            }
+            writeChunk(out, buffers, "IEND", 0);
+        }
+    }
+
+    // Writes the first length bytes of the scratch chunk buffer as a chunk of the given type
+    private void writeChunk(OutputStream out, Scratch buffers, String type, int length) throws IOException {
+        byte[] typeBytes = buffers.type;
+        for(int i = 0; i < typeBytes.length; i++) {
+            typeBytes[i] = (byte) type.charAt(i);
+        }
+        CRC32 crc = buffers.crc;
+        crc.reset();
+        crc.update(typeBytes);
+        crc.update(buffers.chunk, 0, length);
+        writeInt(buffers.number, 0, length);
+        out.write(buffers.number);
+        out.write(typeBytes);
+        out.write(buffers.chunk, 0, length);
+        writeInt(buffers.number, 0, (int) crc.getValue());
+        out.write(buffers.number);
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    // One worker's reusable buffers
+    private static class Scratch {
+
+        private byte[] filtered = new byte[0];
+        private byte[] chunk = new byte[CHUNK_SIZE];
+        private byte[] type = new byte[4];
+        private byte[] number = new byte[4];
+        private Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private CRC32 crc = new CRC32();
+
+        // Turns BGRA rows into Sub filtered RGB rows, each starting with the filter type
+        private byte[] filter(CapturedFrame frame) {
+            int width = frame.getWidth();
+            int rowLength = 1 + width * RGB_BYTES;
+            int length = frame.getHeight() * rowLength;
+            if(filtered.length < length) {
+                filtered = new byte[length];
+            }
+            byte[] pixels = frame.getPixels();
+            int in = 0;
+            int out = 0;
+            for(int row = 0; row < frame.getHeight(); row++) {
+                filtered[out++] = SUB_FILTER;
+                int red = 0;
+                int green = 0;
+                int blue = 0;
+                for(int column = 0; column < width; column++) {
+                    int pixelBlue = pixels[in];
+                    int pixelGreen = pixels[in + 1];
+                    int pixelRed = pixels[in + 2];
+                    filtered[out] = (byte) (pixelRed - red);
+                    filtered[out + 1] = (byte) (pixelGreen - green);
+                    filtered[out + 2] = (byte) (pixelBlue - blue);
+                    red = pixelRed;
+                    green = pixelGreen;
+                    blue = pixelBlue;
+                    in += CapturedFrame.BYTES_PER_PIXEL;
+                    out += RGB_BYTES;
+                }
+            }
+            return filtered;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package breakout.capture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Purpose: Write every captured frame into one file of raw BGRA video, which is as fast as writing frames gets and
+ * can be turned into any video format afterwards.
+ * Assumptions: every frame is the same size
+ * Dependencies: This class depends on the CapturedFrame class and the FileChannel class.
+ * Example: encoder = new RawVideoEncoder(Path.of("capture/frames.bgra")), then
+ * ffmpeg -f rawvideo -pixel_format bgra -video_size 800x800 -framerate 60 -i capture/frames.bgra game.mp4
+ * Other details: each frame is written at its index times the frame size with positional writes, so workers can
+ * write frames in whatever order they finish them without any locking.
+ *
+ * @author Evan Kenyon
+ */
+public class RawVideoEncoder implements FrameEncoder {
+
+    private FileChannel channel;
+
+    /**
+     * Purpose: Start a raw video file, replacing whatever was there
+     * Assumptions: none
+     * @param path where to write the video
+     * @throws IOException if the file couldn't be opened
+     */
+    public RawVideoEncoder(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    @Override
+    public void encode(CapturedFrame frame) throws IOException {
+        ByteBuffer pixels = ByteBuffer.wrap(frame.getPixels());
+        long position = frame.getIndex() * pixels.capacity();
+        while(pixels.hasRemaining()) {
+            position += channel.write(pixels, position);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,225 @@
+package breakout.net;
+
+import breakout.sim.Balls;
+import breakout.sim.BrickField;
+import breakout.sim.Settings;
+import breakout.sim.Varint;
+import breakout.sim.World;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+
+/**
+ * Purpose: Hold what the SnapshotServer knows about one client: its channel, the bytes waiting to be sent to it, the
+ * state it was last sent (its baseline), which the next snapshot is a delta from, and which directions it's holding the
+ * paddle in.
+ * Assumptions: only used by the server's selector thread
+ * Dependencies: This class depends on the SnapshotProtocol, World, Balls, BrickField, Settings, and Varint classes and
+ * the ByteBuffer and SocketChannel classes.
+ * Other details: TCP delivers frames in order, so whatever has been written to the out buffer will reach the client
+ * and can be used as the baseline right away. A client that falls behind far enough to fill its out buffer is simply
+ * skipped until it drains, and then gets one delta covering everything it missed.
+ *
+ * @author Evan Kenyon
+ */
+class Connection {
+
+    public static final int OUT_BUFFER_BYTES = 1 << 16;
+    public static final int IN_BUFFER_BYTES = 256;
+
+    private SocketChannel channel;
+    private ByteBuffer in;
+    private ByteBuffer out;
+    private boolean sentFull;
+    // The baseline, NaN and -1 mean the client hasn't been sent that value yet
+    private float paddleX;
+    private int lives;
+    private int score;
+    private int status;
+    private int ballCount;
+    private float[] ballX;
+    private float[] ballY;
+    private float[] ballXVelocity;
+    private float[] ballYVelocity;
+    private int brickChangesSent;
+    private boolean leftHeld;
+    private boolean rightHeld;
+
+    Connection(SocketChannel channel, int ballCapacity) {
+        this.channel = channel;
+        in = ByteBuffer.allocate(IN_BUFFER_BYTES);
+        out = ByteBuffer.allocateDirect(OUT_BUFFER_BYTES);
+        ballX = new float[ballCapacity];
+        ballY = new float[ballCapacity];
+        ballXVelocity = new float[ballCapacity];
+        ballYVelocity = new float[ballCapacity];
+        sentFull = false;
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    ByteBuffer getIn() {
+        return in;
+    }
+
+    ByteBuffer getOut() {
+        return out;
+    }
+
+    boolean isLeftHeld() {
+        return leftHeld;
+    }
+
+    void setLeftHeld(boolean held) {
+        leftHeld = held;
+    }
+
+    boolean isRightHeld() {
+        return rightHeld;
+    }
+
+    void setRightHeld(boolean held) {
+        rightHeld = held;
+    }
+
+    private void forgetBaseline() {
+        paddleX = Float.NaN;
+        lives = -1;
+        score = -1;
+        status = -1;
+        ballCount = 0;
+        brickChangesSent = 0;
+    }
+
+    /**
+     * Purpose: Add a frame with everything about world that changed since the last frame (or everything, for the
+     * first frame) to the out buffer, and make that the new baseline
+     * Assumptions: brickChanges holds the cell of every brick hit since the game started, in order
+     * @return false if the out buffer didn't have room (nothing was written and the baseline is unchanged)
+     */
+    boolean writeSnapshot(World world, long tick, Settings settings, long seed, int[] brickChanges,
+                          int brickChangeCount) {
+        Balls balls = world.getBalls();
+        int count = balls.getCount();
+        boolean full = !sentFull;
+        int maxBytes = SnapshotProtocol.MAX_FRAME_HEADER_BYTES + (full ? SnapshotProtocol.MAX_FULL_HEADER_BYTES : 0)
+                + SnapshotProtocol.MAX_BODY_BYTES_WITHOUT_BALLS_OR_BRICKS + count * SnapshotProtocol.MAX_BALL_BYTES;
+        if(out.remaining() < maxBytes) {
+            return false;
+        }
+        if(full) {
+            forgetBaseline();
+        }
+        int bricksToSend = Math.min(brickChangeCount - brickChangesSent,
+                (out.remaining() - maxBytes) / SnapshotProtocol.MAX_BRICK_CHANGE_BYTES);
+        int start = out.position();
+        out.position(start + 4);
+        out.put(full ? SnapshotProtocol.FULL : SnapshotProtocol.DELTA);
+        if(full) {
+            out.putLong(seed);
+            SnapshotProtocol.writeSettings(out, settings);
+        }
+        Varint.write(out, tick);
+        int flagsPosition = out.position();
+        out.put((byte) 0);
+        int flags = writeFields(world);
+        if(writeBalls(balls, count)) {
+            flags |= SnapshotProtocol.BALLS;
+        }
+        if(flags == 0 && bricksToSend == 0 && !full) {
+            out.position(start);
+            return true;
+        }
+        out.put(flagsPosition, (byte) flags);
+        Varint.write(out, bricksToSend);
+        BrickField bricks = world.getBricks();
+        for(int i = 0; i < bricksToSend; i++) {
+            int cell = brickChanges[brickChangesSent++];
+            Varint.write(out, cell);
+            out.put((byte) bricks.getHitPoints(cell));
+        }
+        out.putInt(start, out.position() - start - 4);
+        sentFull = true;
+        return true;
+    }
+
+    private int writeFields(World world) {
+        int flags = 0;
+        float newPaddleX = (float) world.getPaddleX();
+        if(Float.compare(newPaddleX, paddleX) != 0) {
+            flags |= SnapshotProtocol.PADDLE_X;
+            out.putFloat(newPaddleX);
+            paddleX = newPaddleX;
+        }
+        if(world.getLives() != lives) {
+            flags |= SnapshotProtocol.LIVES;
+            lives = world.getLives();
+            Varint.write(out, lives);
+        }
+        if(world.getScore() != score) {
+            flags |= SnapshotProtocol.SCORE;
+            score = world.getScore();
+            Varint.write(out, score);
+        }
+        if(world.getStatus().ordinal() != status) {
+            flags |= SnapshotProtocol.STATUS;
+            status = world.getStatus().ordinal();
+            out.put((byte) status);
+        }
+        return flags;
+    }
+
+    // Writes the balls section, or nothing (and returns false) if no ball changed
+    private boolean writeBalls(Balls balls, int count) {
+        if(count > ballX.length) {
+            ballX = Arrays.copyOf(ballX, count);
+            ballY = Arrays.copyOf(ballY, count);
+            ballXVelocity = Arrays.copyOf(ballXVelocity, count);
+            ballYVelocity = Arrays.copyOf(ballYVelocity, count);
+        }
+        int start = out.position();
+        boolean changed = count != ballCount;
+        Varint.write(out, count);
+        for(int i = 0; i < count; i++) {
+            // Balls the client didn't have before are sent in full
+            boolean isNew = i >= ballCount;
+            int maskPosition = out.position();
+            out.put((byte) 0);
+            int mask = 0;
+            float x = (float) balls.getX(i);
+            float y = (float) balls.getY(i);
+            float xVelocity = (float) balls.getXVelocity(i);
+            float yVelocity = (float) balls.getYVelocity(i);
+            if(isNew || Float.compare(x, ballX[i]) != 0) {
+                mask |= SnapshotProtocol.BALL_X;
+                out.putFloat(x);
+                ballX[i] = x;
+            }
+            if(isNew || Float.compare(y, ballY[i]) != 0) {
+                mask |= SnapshotProtocol.BALL_Y;
+                out.putFloat(y);
+                ballY[i] = y;
+            }
+            if(isNew || Float.compare(xVelocity, ballXVelocity[i]) != 0) {
+                mask |= SnapshotProtocol.BALL_X_VELOCITY;
+                out.putFloat(xVelocity);
+                ballXVelocity[i] = xVelocity;
+            }
+            if(isNew || Float.compare(yVelocity, ballYVelocity[i]) != 0) {
+                mask |= SnapshotProtocol.BALL_Y_VELOCITY;
+                out.putFloat(yVelocity);
+                ballYVelocity[i] = yVelocity;
+            }
+            out.put(maskPosition, (byte) mask);
+            changed |= mask != 0;
+        }
+        ballCount = count;
+        if(!changed) {
+            out.position(start);
+        }
+        return changed;
+    }
+}
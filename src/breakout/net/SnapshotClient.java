@@ -0,0 +1,260 @@
+package breakout.net;
+
+import breakout.sim.BrickField;
+import breakout.sim.Input;
+import breakout.sim.Settings;
+import breakout.sim.Varint;
+import breakout.sim.World;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Purpose: Follow a game being run by a SnapshotServer by applying the snapshots it sends to a local copy of the
+ * game's state, and send the server Inputs for the paddle.
+ * Assumptions: only used from one thread
+ * Dependencies: This class depends on the SnapshotProtocol, World, BrickField, Settings, Input, and Varint classes and
+ * the SocketChannel class.
+ * Example: client = new SnapshotClient(new InetSocketAddress("localhost", 7307)), then call receive in a loop and
+ * read getScore, getBallX, getBricks, etc., and call sendInput on key presses.
+ * Other details: the socket is blocking, receive waits for and applies exactly one snapshot. Positions and velocities
+ * are sent as floats, so they are slightly rounded compared to the server's doubles.
+ *
+ * @author Evan Kenyon
+ */
+public class SnapshotClient implements Closeable {
+
+    private SocketChannel channel;
+    private ByteBuffer lengthBuffer;
+    private ByteBuffer payload;
+    private ByteBuffer inputBuffer;
+    private Settings settings;
+    private long seed;
+    private BrickField bricks;
+    private long tick;
+    private float paddleX;
+    private int lives;
+    private int score;
+    private World.Status status;
+    private int ballCount;
+    private float[] ballX;
+    private float[] ballY;
+    private float[] ballXVelocity;
+    private float[] ballYVelocity;
+    private long bytesReceived;
+
+    /**
+     * Purpose: Connect to a server, the game's state isn't known until the first receive
+     * Assumptions: none
+     * @param address the server's address
+     * @throws IOException if the connection couldn't be made
+     */
+    public SnapshotClient(InetSocketAddress address) throws IOException {
+        channel = SocketChannel.open(address);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        lengthBuffer = ByteBuffer.allocate(4);
+        payload = ByteBuffer.allocate(Connection.OUT_BUFFER_BYTES);
+        inputBuffer = ByteBuffer.allocate(1);
+        ballX = new float[0];
+        ballY = new float[0];
+        ballXVelocity = new float[0];
+        ballYVelocity = new float[0];
+    }
+
+    /**
+     * Purpose: Wait for the next snapshot and apply it
+     * Assumptions: none
+     * @throws IOException if the connection failed or the server closed it
+     */
+    public void receive() throws IOException {
+        lengthBuffer.clear();
+        readFully(lengthBuffer);
+        int length = lengthBuffer.getInt(0);
+        if(length > payload.capacity()) {
+            payload = ByteBuffer.allocate(length);
+        }
+        payload.clear().limit(length);
+        readFully(payload);
+        payload.flip();
+        bytesReceived += 4 + length;
+        if(payload.get() == SnapshotProtocol.FULL) {
+            seed = payload.getLong();
+            settings = SnapshotProtocol.readSettings(payload);
+            // The same starting bricks the server has, the changes since are in the body
+            bricks = World.create(settings, seed).getBricks();
+        }
+        readBody(payload);
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer) < 0) {
+                throw new EOFException("Server closed the connection");
+            }
+        }
+    }
+
+    private void readBody(ByteBuffer in) {
+        tick = Varint.read(in);
+        int flags = in.get();
+        if((flags & SnapshotProtocol.PADDLE_X) != 0) {
+            paddleX = in.getFloat();
+        }
+        if((flags & SnapshotProtocol.LIVES) != 0) {
+            lives = (int) Varint.read(in);
+        }
+        if((flags & SnapshotProtocol.SCORE) != 0) {
+            score = (int) Varint.read(in);
+        }
+        if((flags & SnapshotProtocol.STATUS) != 0) {
+            status = World.Status.values()[in.get()];
+        }
+        if((flags & SnapshotProtocol.BALLS) != 0) {
+            readBalls(in);
+        }
+        int brickChanges = (int) Varint.read(in);
+        for(int i = 0; i < brickChanges; i++) {
+            int cell = (int) Varint.read(in);
+            bricks.setBrick(cell, in.get(), bricks.getColor(cell));
+        }
+    }
+
+    private void readBalls(ByteBuffer in) {
+        ballCount = (int) Varint.read(in);
+        if(ballCount > ballX.length) {
+            ballX = Arrays.copyOf(ballX, ballCount);
+            ballY = Arrays.copyOf(ballY, ballCount);
+            ballXVelocity = Arrays.copyOf(ballXVelocity, ballCount);
+            ballYVelocity = Arrays.copyOf(ballYVelocity, ballCount);
+        }
+        for(int i = 0; i < ballCount; i++) {
+            int mask = in.get();
+            if((mask & SnapshotProtocol.BALL_X) != 0) {
+                ballX[i] = in.getFloat();
+            }
+            if((mask & SnapshotProtocol.BALL_Y) != 0) {
+                ballY[i] = in.getFloat();
+            }
+            if((mask & SnapshotProtocol.BALL_X_VELOCITY) != 0) {
+                ballXVelocity[i] = in.getFloat();
+            }
+            if((mask & SnapshotProtocol.BALL_Y_VELOCITY) != 0) {
+                ballYVelocity[i] = in.getFloat();
+            }
+        }
+    }
+
+    /**
+     * Purpose: Send the server an Input for the paddle, which it applies before its next tick
+     * Assumptions: none
+     * @param input what the player did
+     * @throws IOException if the connection failed
+     */
+    public void sendInput(Input input) throws IOException {
+        inputBuffer.clear();
+        inputBuffer.put((byte) input.ordinal()).flip();
+        while(inputBuffer.hasRemaining()) {
+            channel.write(inputBuffer);
+        }
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Purpose: Return the client's copy of the bricks, with every hit the server has sent so far applied
+     * Assumptions: a snapshot has been received
+     * @return the bricks
+     */
+    public BrickField getBricks() {
+        return bricks;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public float getPaddleX() {
+        return paddleX;
+    }
+
+    public int getLives() {
+        return lives;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public World.Status getStatus() {
+        return status;
+    }
+
+    public int getBallCount() {
+        return ballCount;
+    }
+
+    public float getBallX(int index) {
+        return ballX[index];
+    }
+
+    public float getBallY(int index) {
+        return ballY[index];
+    }
+
+    public float getBallXVelocity(int index) {
+        return ballXVelocity[index];
+    }
+
+    public float getBallYVelocity(int index) {
+        return ballYVelocity[index];
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Purpose: Spectate a server's game, printing its state once a second
+     * Assumptions: none
+     * @param args --host=name and --port=N
+     * @throws IOException if the connection failed
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for(String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(parts[0], parts.length == 2 ? parts[1] : "");
+        }
+        InetSocketAddress address = new InetSocketAddress(options.getOrDefault("host", "localhost"),
+                Integer.parseInt(options.getOrDefault("port", "" + SnapshotServer.DEFAULT_PORT)));
+        try(SnapshotClient client = new SnapshotClient(address)) {
+            while(true) {
+                client.receive();
+                if(client.getTick() % 60 == 0) {
+                    System.out.printf("Tick %d: %s, score %d, lives %d, %d bricks left, %.1f bytes per tick%n",
+                            client.getTick(), client.getStatus(), client.getScore(), client.getLives(),
+                            client.getBricks().getRemaining(), (double) client.getBytesReceived() / client.getTick());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package breakout.net;
+
+import breakout.sim.Settings;
+import breakout.sim.Varint;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Purpose: Hold the constants of the snapshot protocol that SnapshotServer and SnapshotClient speak, and read and
+ * write the parts that both of them need.
+ * Assumptions: none
+ * Dependencies: This class depends on the Settings and Varint classes and the ByteBuffer class.
+ * Other details: every server message is a frame: its length (int) and then its payload. A FULL payload has the
+ * game's seed (long) and settings (see writeSettings), so that the client can generate the same starting bricks
+ * itself instead of being sent them, followed by the same body as a DELTA. The body is the tick (varint), a byte of
+ * flags saying which of paddle x (float), lives (varint), score (varint), status (byte), and balls follow, then for
+ * balls their count (varint) and a byte of flags per ball saying which of x, y, x velocity, and y velocity (floats)
+ * follow, then the number of brick changes (varint) and each one's cell (varint) and new hit points (byte).
+ * Everything is only sent if it changed since the last frame sent to that client. Clients send a byte per Input
+ * (its ordinal).
+ *
+ * @author Evan Kenyon
+ */
+public final class SnapshotProtocol {
+
+    public static final byte FULL = 1;
+    public static final byte DELTA = 2;
+    public static final int PADDLE_X = 1;
+    public static final int LIVES = 1 << 1;
+    public static final int SCORE = 1 << 2;
+    public static final int STATUS = 1 << 3;
+    public static final int BALLS = 1 << 4;
+    public static final int BALL_X = 1;
+    public static final int BALL_Y = 1 << 1;
+    public static final int BALL_X_VELOCITY = 1 << 2;
+    public static final int BALL_Y_VELOCITY = 1 << 3;
+    // The most bytes each part of a frame can take, for checking a frame fits before writing it
+    public static final int MAX_FRAME_HEADER_BYTES = 4 + 1;
+    public static final int MAX_FULL_HEADER_BYTES = 8 + 5 * 10 + 2 * 8;
+    public static final int MAX_BODY_BYTES_WITHOUT_BALLS_OR_BRICKS = 10 + 1 + 4 + 10 + 10 + 1 + 10 + 10;
+    public static final int MAX_BALL_BYTES = 1 + 4 * 4;
+    public static final int MAX_BRICK_CHANGE_BYTES = 5 + 1;
+
+    private SnapshotProtocol() {
+    }
+
+    static void writeSettings(ByteBuffer out, Settings settings) {
+        Varint.write(out, settings.sceneSize());
+        Varint.write(out, settings.brickSize());
+        out.putDouble(settings.blockedRowOrColFreq());
+        Varint.write(out, settings.paddleSpeed());
+        out.putDouble(settings.ballSpeed());
+        Varint.write(out, settings.ballCount());
+        Varint.write(out, settings.lives());
+    }
+
+    static Settings readSettings(ByteBuffer in) {
+        return new Settings((int) Varint.read(in), (int) Varint.read(in), in.getDouble(), (int) Varint.read(in),
+                in.getDouble(), (int) Varint.read(in), (int) Varint.read(in));
+    }
+}
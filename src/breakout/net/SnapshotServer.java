@@ -0,0 +1,333 @@
+package breakout.net;
+
+import breakout.sim.Input;
+import breakout.sim.Settings;
+import breakout.sim.World;
+import breakout.sim.WorldListener;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Purpose: Run one authoritative breakout game and stream it to any number of clients (players and spectators) over
+ * non-blocking sockets, sending each client only what changed since the last snapshot it was sent, and applying the
+ * Inputs that clients send to the game's paddle the same way key presses are in the Breakout class.
+ * Assumptions: everything except stop is called from one thread (the one calling run, or a test calling processIo
+ * and tick itself)
+ * Dependencies: This class depends on the World, Settings, Input, and WorldListener classes, the Connection and
+ * SnapshotProtocol classes, and the java.nio channel classes.
+ * Example: java breakout.net.SnapshotServer --port=7307 --seed=307, then connect SnapshotClients to it.
+ * Other details: one selector thread does all of the accepting, reading, writing, and simulating, so hundreds of
+ * connections cost one thread. Every client controls the same paddle (their Inputs are applied in the order they
+ * arrive), spectators just don't send any. Held directions are kept per client: the paddle is held left or right while
+ * any client is holding it that way, and whatever a client was holding is let go when it disconnects, so a client that
+ * drops with a key down doesn't leave the paddle moving forever. The bricks are never sent in full, clients generate
+ * the starting bricks from the seed and settings and are then sent the cell of every brick hit since (see
+ * SnapshotProtocol).
+ *
+ * @author Evan Kenyon
+ */
+public class SnapshotServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 7307;
+    public static final double SECOND_DELAY = 1.0 / 60;
+    public static final int MAX_PENDING_INPUTS = 1024;
+
+    private static final Input[] INPUTS = Input.values();
+
+    private Settings settings;
+    private long seed;
+    private double stepSeconds;
+    private World world;
+    private long tick;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private List<Connection> connections;
+    private int[] brickChanges;
+    private int brickChangeCount;
+    private byte[] pendingInputs;
+    private int pendingInputCount;
+    private int leftHolders;
+    private int rightHolders;
+    private volatile boolean running;
+
+    /**
+     * Purpose: Start listening for clients, with a new game made from settings and seed
+     * Assumptions: none
+     * @param settings the numbers the game is tuned with
+     * @param seed the game's seed
+     * @param stepSeconds how many seconds of game time each tick covers
+     * @param address where to listen (port 0 picks a free port, see getPort)
+     * @throws IOException if the server socket couldn't be opened
+     */
+    public SnapshotServer(Settings settings, long seed, double stepSeconds, InetSocketAddress address)
+            throws IOException {
+        this.settings = settings;
+        this.seed = seed;
+        this.stepSeconds = stepSeconds;
+        world = World.create(settings, seed);
+        brickChanges = new int[64];
+        world.setListener(new WorldListener() {
+            @Override
+            public void brickDestroyed(int cell) {
+                addBrickChange(cell);
+            }
+
+            @Override
+            public void brickHit(int cell) {
+                addBrickChange(cell);
+            }
+        });
+        pendingInputs = new byte[MAX_PENDING_INPUTS];
+        connections = new ArrayList<>();
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(address);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    private void addBrickChange(int cell) {
+        if(brickChangeCount == brickChanges.length) {
+            brickChanges = Arrays.copyOf(brickChanges, brickChanges.length * 2);
+        }
+        brickChanges[brickChangeCount++] = cell;
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Purpose: Tick the game in real time and handle clients in between ticks until stop is called
+     * Assumptions: none
+     * @throws IOException if the selector fails
+     */
+    public void run() throws IOException {
+        running = true;
+        long stepNanos = (long) (stepSeconds * 1e9);
+        long nextTick = System.nanoTime();
+        while(running) {
+            long wait = nextTick - System.nanoTime();
+            if(wait > 0) {
+                processIo(Math.max(1, wait / 1_000_000));
+            } else {
+                processIo(-1);
+                tick();
+                nextTick += stepNanos;
+            }
+        }
+    }
+
+    /**
+     * Purpose: Make run return (from any thread)
+     * Assumptions: none
+     */
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * Purpose: Accept new clients, read their Inputs, and write out snapshots that didn't fit in their sockets before
+     * Assumptions: none
+     * @param timeoutMillis how long to wait for something to happen, 0 to wait forever, or negative to not wait
+     * @throws IOException if the selector fails
+     */
+    public void processIo(long timeoutMillis) throws IOException {
+        if(timeoutMillis < 0) {
+            selector.selectNow();
+        } else {
+            selector.select(timeoutMillis);
+        }
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while(keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if(!key.isValid()) {
+                continue;
+            }
+            try {
+                if(key.isAcceptable()) {
+                    accept();
+                    continue;
+                }
+                if(key.isReadable()) {
+                    read(key);
+                }
+                if(key.isValid() && key.isWritable()) {
+                    flush(key);
+                }
+            } catch (IOException e) {
+                // A client that errors is dropped, the rest carry on
+                disconnect(key);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Connection connection = new Connection(channel, settings.ballCount());
+            channel.register(selector, SelectionKey.OP_READ, connection);
+            connections.add(connection);
+        }
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        ByteBuffer in = connection.getIn();
+        if(connection.getChannel().read(in) < 0) {
+            disconnect(key);
+            return;
+        }
+        in.flip();
+        while(in.hasRemaining()) {
+            byte input = in.get();
+            if(input < 0 || input >= INPUTS.length) {
+                disconnect(key);
+                return;
+            }
+            if(hold(connection, INPUTS[input])) {
+                continue;
+            }
+            // Inputs past the limit in one tick are dropped, nobody presses keys that fast
+            if(pendingInputCount < pendingInputs.length) {
+                pendingInputs[pendingInputCount++] = input;
+            }
+        }
+        in.clear();
+    }
+
+    // Keeps track of which directions connection is holding, returning false for Inputs that aren't holds
+    private boolean hold(Connection connection, Input input) {
+        switch (input) {
+            case LEFT_PRESSED, LEFT_RELEASED -> {
+                boolean held = input == Input.LEFT_PRESSED;
+                if(connection.isLeftHeld() != held) {
+                    connection.setLeftHeld(held);
+                    leftHolders += held ? 1 : -1;
+                }
+                return true;
+            }
+            case RIGHT_PRESSED, RIGHT_RELEASED -> {
+                boolean held = input == Input.RIGHT_PRESSED;
+                if(connection.isRightHeld() != held) {
+                    connection.setRightHeld(held);
+                    rightHolders += held ? 1 : -1;
+                }
+                return true;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    private void flush(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        ByteBuffer out = connection.getOut();
+        out.flip();
+        connection.getChannel().write(out);
+        out.compact();
+        // Only ask to be told when the socket can take more if there's something left to send
+        key.interestOps(out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    private void disconnect(SelectionKey key) {
+        Connection connection = (Connection) key.attachment();
+        key.cancel();
+        hold(connection, Input.LEFT_RELEASED);
+        hold(connection, Input.RIGHT_RELEASED);
+        try {
+            connection.getChannel().close();
+        } catch (IOException e) {
+            // It's being dropped anyway
+        }
+        connections.remove(connection);
+    }
+
+    /**
+     * Purpose: Apply the Inputs that arrived since the last tick, step the game, and send every client its snapshot
+     * Assumptions: none
+     */
+    public void tick() {
+        for(int i = 0; i < pendingInputCount; i++) {
+            INPUTS[pendingInputs[i]].apply(world, settings.paddleSpeed());
+        }
+        pendingInputCount = 0;
+        world.holdLeft(leftHolders > 0);
+        world.holdRight(rightHolders > 0);
+        world.step(stepSeconds);
+        tick++;
+        for(int i = 0; i < connections.size(); i++) {
+            Connection connection = connections.get(i);
+            connection.writeSnapshot(world, tick, settings, seed, brickChanges, brickChangeCount);
+            SelectionKey key = connection.getChannel().keyFor(selector);
+            try {
+                flush(key);
+            } catch (IOException e) {
+                disconnect(key);
+                i--;
+            }
+        }
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for(Connection connection : connections) {
+            connection.getChannel().close();
+        }
+        connections.clear();
+        serverChannel.close();
+        selector.close();
+    }
+
+    /**
+     * Purpose: Run a server until the process is killed
+     * Assumptions: none
+     * @param args --port=N, --seed=N, --balls=N
+     * @throws IOException if the server couldn't be started
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for(String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(parts[0], parts.length == 2 ? parts[1] : "");
+        }
+        int port = Integer.parseInt(options.getOrDefault("port", "" + DEFAULT_PORT));
+        long seed = Long.parseLong(options.getOrDefault("seed", "0"));
+        Settings settings = Settings.DEFAULT.withBallCount(Integer.parseInt(options.getOrDefault("balls", "1")));
+        try(SnapshotServer server = new SnapshotServer(settings, seed, SECOND_DELAY, new InetSocketAddress(port))) {
+            System.out.println("Serving seed " + seed + " on port " + server.getPort());
+            server.run();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package breakout.sim;
+
+import java.util.SplittableRandom;
+
+/**
+ * Purpose: Follow the ball with the paddle like PaddlePolicy.FOLLOW_BALL, but catch it off the paddle's middle so
+ * that the paddle hit steers it (see World) towards a random direction, the way a person aims. A paddle that always
+ * catches the ball dead center never steers it, and with exact bounces the ball then tends to settle into the same
+ * path forever without reaching the last bricks.
+ * Assumptions: a policy is only used for one game at a time, since it remembers which ball it's following
+ * Dependencies: This class depends on the PaddlePolicy interface, the World and Balls classes, and the
+ * SplittableRandom class.
+ * Example: new BatchSimulator(settings, AimingPolicy::new, maxTicks) gives every game its own policy, seeded with
+ * the game's seed.
+ * Other details: whenever the ball being followed starts falling, a direction up to MAX_AIM_DEGREES either side of
+ * straight up is picked, and the paddle is kept however far from under the ball the steering needs to bounce it that
+ * way, up to MAX_AIM_FRACTION of the paddle's half width so that the ball still lands on the paddle. The same seed
+ * always picks the same directions.
+ *
+ * @author Evan Kenyon
+ */
+public class AimingPolicy implements PaddlePolicy {
+
+    public static final double MAX_AIM_DEGREES = 50;
+    public static final double MAX_AIM_FRACTION = 0.5;
+
+    private SplittableRandom rand;
+    private double aim;
+    private int target;
+    private boolean falling;
+
+    /**
+     * Purpose: Construct a policy whose directions all come from seed
+     * Assumptions: none
+     * @param seed the seed of the directions, e.g. the game's seed
+     */
+    public AimingPolicy(long seed) {
+        rand = new SplittableRandom(seed);
+        target = -1;
+    }
+
+    @Override
+    public double getPaddleMove(World world) {
+        Balls balls = world.getBalls();
+        int nearest = 0;
+        for(int i = 0; i < balls.getCount(); i++) {
+            if(balls.getYVelocity(i) > 0 && (balls.getYVelocity(nearest) <= 0 || balls.getY(i) > balls.getY(nearest))) {
+                nearest = i;
+            }
+        }
+        boolean nearestFalling = balls.getYVelocity(nearest) > 0;
+        if(nearestFalling && (nearest != target || !falling)) {
+            aim = Math.PI / 2 + Math.toRadians((rand.nextDouble() * 2 - 1) * MAX_AIM_DEGREES);
+        }
+        target = nearest;
+        falling = nearestFalling;
+        double middle = world.getPaddleX() + world.getPaddleWidth() / 2;
+        if(!nearestFalling) {
+            return balls.getX(nearest) - middle;
+        }
+        // The bounce sends the ball back up at the angle it's coming down at, which the steering then turns
+        double bounced = Math.atan2(balls.getYVelocity(nearest), balls.getXVelocity(nearest));
+        double maxOffset = MAX_AIM_FRACTION * world.getPaddleWidth() / 2;
+        double offset = Math.toDegrees(aim - bounced) / World.PADDLE_STEERING_DEGREES_PER_PIXEL;
+        return balls.getX(nearest) + Math.max(-maxOffset, Math.min(maxOffset, offset)) - middle;
+    }
+}
@@ -0,0 +1,142 @@
+package breakout.sim;
+
+import java.util.Random;
+
+/**
+ * Purpose: Work with one ball held in a Balls through an object, e.g. for the Ball node that mirrors it on screen.
+ * Assumptions: values of vars do not push past practical limits (e.g. centerX and centerY values that would cause
+ * the ball to spawn outside of the world)
+ * Dependencies: This class depends on the Balls class and the Random class.
+ * Example: Get the BallState of a single ball game from World.getBall, or construct one on its own with a
+ * reasonable radius and center point.
+ * Other details: this class doesn't hold any state itself, it reads and writes the Balls' arrays at its index.
+ * Note that the positive y direction is actually towards the bottom of the scene when manipulating the angle.
+ *
+ * @author Evan Kenyon
+ */
+public class BallState {
+
+    private Balls balls;
+    private int index;
+
+    /**
+     * Purpose: Construct a ball state for a new ball which has the given dimensions desired
+     * and an initial, random speed
+     * Assumptions: centerX, centerY, and radius are set such that the ball spawns within the world
+     * @param centerX the x value for the center of the ball
+     * @param centerY the y value for the center of the ball
+     * @param radius the radius of the ball
+     * @param rand the source of randomness for the ball's starting angles
+     */
+    public BallState(double centerX, double centerY, double radius, Random rand) {
+        this(new Balls(1, centerX, centerY, radius, rand), 0);
+        balls.add();
+    }
+
+    /**
+     * Purpose: Construct a ball state for a ball that is already in balls
+     * Assumptions: none
+     * @param balls the balls that the ball is in
+     * @param index the index of the ball
+     */
+    public BallState(Balls balls, int index) {
+        this.balls = balls;
+        this.index = index;
+    }
+
+    public double getCenterX() {
+        return balls.getX(index);
+    }
+
+    public void setCenterX(double centerX) {
+        balls.setX(index, centerX);
+    }
+
+    public double getCenterY() {
+        return balls.getY(index);
+    }
+
+    public void setCenterY(double centerY) {
+        balls.setY(index, centerY);
+    }
+
+    public double getInterpolatedCenterX(double alpha) {
+        return balls.getInterpolatedX(index, alpha);
+    }
+
+    public double getInterpolatedCenterY(double alpha) {
+        return balls.getInterpolatedY(index, alpha);
+    }
+
+    public double getRadius() {
+        return balls.getRadius(index);
+    }
+
+    /**
+     * Purpose: Return the current x velocity
+     * Assumptions: none
+     * @return the current x velocity, or 0 if the ball isn't moving
+     */
+    public double getXVelocity() {
+        return balls.getXVelocity(index);
+    }
+
+    public void setXVelocity(double xVelocity) {
+        balls.setXVelocity(index, xVelocity);
+    }
+
+    /**
+     * Purpose: Return the current y velocity
+     * Assumptions: none
+     * @return the current y velocity, or 0 if the ball isn't moving
+     */
+    public double getYVelocity() {
+        return balls.getYVelocity(index);
+    }
+
+    public void setYVelocity(double yVelocity) {
+        balls.setYVelocity(index, yVelocity);
+    }
+
+    public void reverseYVelocity() {
+        balls.reverseYVelocity(index);
+    }
+
+    public void reverseXVelocity() {
+        balls.reverseXVelocity(index);
+    }
+
+    /**
+     * Purpose: Return the angle the ball is moving at, which is worked out from its velocities
+     * Assumptions: none
+     * @return the ball's angle
+     */
+    public double getAngle() {
+        return balls.getAngle(index);
+    }
+
+    /**
+     * Purpose: Set this object's angle, which also sets its velocities
+     * Assumptions: none
+     * @param angle the value to set this object's angle to
+     */
+    public void setAngle(double angle) {
+        balls.setAngle(index, angle);
+    }
+
+    /**
+     * Purpose: Reset the ball to its original position and set a new random starting speed
+     * Assumptions: none
+     */
+    public void resetPosition() {
+        balls.resetPosition(index);
+    }
+
+    public boolean isMoving() {
+        return balls.isMoving();
+    }
+
+    public void setIsMoving(boolean isMoving) {
+        balls.setIsMoving(isMoving);
+    }
+}
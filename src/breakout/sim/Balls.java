@@ -0,0 +1,307 @@
+package breakout.sim;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Purpose: Hold the position and movement of every ball in play, stored as one primitive array per field
+ * (structure of arrays) so that the World can move and bounce thousands of balls in tight loops.
+ * Assumptions: values of vars do not push past practical limits (e.g. a spawn point outside of the world)
+ * Dependencies: This class depends on the RestorableRandom class, the Random class, and the Arrays class.
+ * Example: Construct a Balls with the spot new balls spawn at and call reset with how many balls should be in play,
+ * then hand it to a World. Use a BallState to work with a single ball through an object.
+ * Other details: a ball's angle isn't stored, it is worked out from its velocities only when it is asked for (e.g. on
+ * a paddle hit), so that bounces only have to flip a sign. Removing a ball moves the last ball into its index.
+ * Note that the positive y direction is actually towards the bottom of the scene when manipulating the angle.
+ *
+ * @author Evan Kenyon
+ */
+public class Balls {
+
+    // Max speed in either direction of the standard game, chosen along with the paddle speed in World
+    public static final double SPEED = 300;
+
+    private double[] x;
+    private double[] y;
+    private double[] xVelocity;
+    private double[] yVelocity;
+    private double[] radius;
+    // Where each ball was at the start of the last step, for drawing balls in between steps
+    private double[] previousX;
+    private double[] previousY;
+    private int count;
+    private boolean isMoving;
+    private double spawnX;
+    private double spawnY;
+    private double spawnRadius;
+    private double speed;
+    private Random rand;
+
+    /**
+     * Purpose: Construct an empty Balls that spawns new balls at the given spot
+     * Assumptions: spawnX, spawnY, and spawnRadius are set such that balls spawn within the world
+     * @param capacity how many balls there is room for before the arrays have to grow
+     * @param spawnX the x value for the center of new balls
+     * @param spawnY the y value for the center of new balls
+     * @param spawnRadius the radius of new balls
+     * @param rand the source of randomness for the balls' starting angles
+     */
+    public Balls(int capacity, double spawnX, double spawnY, double spawnRadius, Random rand) {
+        this(capacity, spawnX, spawnY, spawnRadius, SPEED, rand);
+    }
+
+    /**
+     * Purpose: Construct an empty Balls that spawns new balls at the given spot, moving at the given speed
+     * Assumptions: spawnX, spawnY, and spawnRadius are set such that balls spawn within the world
+     * @param capacity how many balls there is room for before the arrays have to grow
+     * @param spawnX the x value for the center of new balls
+     * @param spawnY the y value for the center of new balls
+     * @param spawnRadius the radius of new balls
+     * @param speed max speed of the balls in either direction
+     * @param rand the source of randomness for the balls' starting angles
+     */
+    public Balls(int capacity, double spawnX, double spawnY, double spawnRadius, double speed, Random rand) {
+        x = new double[capacity];
+        y = new double[capacity];
+        xVelocity = new double[capacity];
+        yVelocity = new double[capacity];
+        radius = new double[capacity];
+        previousX = new double[capacity];
+        previousY = new double[capacity];
+        this.spawnX = spawnX;
+        this.spawnY = spawnY;
+        this.spawnRadius = spawnRadius;
+        this.speed = speed;
+        this.rand = rand;
+        count = 0;
+        isMoving = false;
+    }
+
+    /**
+     * Purpose: Add a ball at the spawn point with a random starting speed
+     * Assumptions: none
+     * @return the index of the new ball
+     */
+    public int add() {
+        if(count == x.length) {
+            grow();
+        }
+        radius[count] = spawnRadius;
+        resetPosition(count);
+        return count++;
+    }
+
+    /**
+     * Purpose: Add a ball at the given spot with a random starting speed, e.g. from a multi-ball power-up
+     * Assumptions: the spot is within the world
+     * @param x the x value for the center of the ball
+     * @param y the y value for the center of the ball
+     * @return the index of the new ball
+     */
+    public int add(double x, double y) {
+        int index = add();
+        this.x[index] = x;
+        this.y[index] = y;
+        previousX[index] = x;
+        previousY[index] = y;
+        return index;
+    }
+
+    private void grow() {
+        int capacity = Math.max(1, x.length * 2);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        xVelocity = Arrays.copyOf(xVelocity, capacity);
+        yVelocity = Arrays.copyOf(yVelocity, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        previousX = Arrays.copyOf(previousX, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+    }
+
+    /**
+     * Purpose: Take a ball out of play by moving the last ball into its index
+     * Assumptions: index is less than getCount()
+     * @param index the index of the ball to remove
+     */
+    public void remove(int index) {
+        count--;
+        x[index] = x[count];
+        y[index] = y[count];
+        xVelocity[index] = xVelocity[count];
+        yVelocity[index] = yVelocity[count];
+        radius[index] = radius[count];
+        previousX[index] = previousX[count];
+        previousY[index] = previousY[count];
+    }
+
+    /**
+     * Purpose: Replace every ball with ballCount new balls at the spawn point
+     * Assumptions: none
+     * @param ballCount how many balls should be in play
+     */
+    public void reset(int ballCount) {
+        count = 0;
+        for(int i = 0; i < ballCount; i++) {
+            add();
+        }
+    }
+
+    /**
+     * Purpose: Make this hold exactly the same balls as source, for saving a World's balls in a Snapshot and putting
+     * them back
+     * Assumptions: both spawn balls the same way, and both were made with a RestorableRandom if balls should respawn
+     * at the same angles after copying (otherwise only the randomness isn't copied)
+     * @param source the balls to copy
+     */
+    public void copyFrom(Balls source) {
+        while(x.length < source.count) {
+            grow();
+        }
+        count = source.count;
+        isMoving = source.isMoving;
+        System.arraycopy(source.x, 0, x, 0, count);
+        System.arraycopy(source.y, 0, y, 0, count);
+        System.arraycopy(source.xVelocity, 0, xVelocity, 0, count);
+        System.arraycopy(source.yVelocity, 0, yVelocity, 0, count);
+        System.arraycopy(source.radius, 0, radius, 0, count);
+        System.arraycopy(source.previousX, 0, previousX, 0, count);
+        System.arraycopy(source.previousY, 0, previousY, 0, count);
+        if(rand instanceof RestorableRandom copy && source.rand instanceof RestorableRandom original) {
+            copy.setState(original.getState());
+        }
+    }
+
+    /**
+     * Purpose: Remember where every ball is now, called at the start of each step
+     * Assumptions: none
+     */
+    public void savePreviousPositions() {
+        System.arraycopy(x, 0, previousX, 0, count);
+        System.arraycopy(y, 0, previousY, 0, count);
+    }
+
+    /**
+     * Purpose: Return where a ball is drawn alpha of the way through the last step
+     * Assumptions: index is less than getCount()
+     * @param index the index of the ball
+     * @param alpha how far through the step, from 0 (where it started) to 1 (where it is now)
+     * @return the ball's x value to draw at
+     */
+    public double getInterpolatedX(int index, double alpha) {
+        return previousX[index] + (x[index] - previousX[index]) * alpha;
+    }
+
+    /**
+     * Purpose: Return where a ball is drawn alpha of the way through the last step
+     * Assumptions: index is less than getCount()
+     * @param index the index of the ball
+     * @param alpha how far through the step, from 0 (where it started) to 1 (where it is now)
+     * @return the ball's y value to draw at
+     */
+    public double getInterpolatedY(int index, double alpha) {
+        return previousY[index] + (y[index] - previousY[index]) * alpha;
+    }
+
+    /**
+     * Purpose: Put a ball back at the spawn point and give it a new random starting speed
+     * Assumptions: index is less than getCount()
+     * @param index the index of the ball
+     */
+    public void resetPosition(int index) {
+        x[index] = spawnX;
+        y[index] = spawnY;
+        // Respawning isn't movement, so it shouldn't be drawn as the ball sliding back to the spawn point
+        previousX[index] = spawnX;
+        previousY[index] = spawnY;
+        setAngle(index, (rand.nextDouble() * (5*Math.PI)/6) + Math.PI/6);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getX(int index) {
+        return x[index];
+    }
+
+    public void setX(int index, double x) {
+        this.x[index] = x;
+    }
+
+    public double getY(int index) {
+        return y[index];
+    }
+
+    public void setY(int index, double y) {
+        this.y[index] = y;
+    }
+
+    public double getRadius(int index) {
+        return radius[index];
+    }
+
+    /**
+     * Purpose: Return a ball's current x velocity
+     * Assumptions: index is less than getCount()
+     * @param index the index of the ball
+     * @return the ball's current x velocity, or 0 if the balls aren't moving
+     */
+    public double getXVelocity(int index) {
+        return isMoving ? xVelocity[index] : 0;
+    }
+
+    public void setXVelocity(int index, double xVelocity) {
+        this.xVelocity[index] = xVelocity;
+    }
+
+    /**
+     * Purpose: Return a ball's current y velocity
+     * Assumptions: index is less than getCount()
+     * @param index the index of the ball
+     * @return the ball's current y velocity, or 0 if the balls aren't moving
+     */
+    public double getYVelocity(int index) {
+        return isMoving ? yVelocity[index] : 0;
+    }
+
+    public void setYVelocity(int index, double yVelocity) {
+        this.yVelocity[index] = yVelocity;
+    }
+
+    public void reverseXVelocity(int index) {
+        xVelocity[index] = -xVelocity[index];
+    }
+
+    public void reverseYVelocity(int index) {
+        yVelocity[index] = -yVelocity[index];
+    }
+
+    /**
+     * Purpose: Work out the angle a ball is moving at from its velocities
+     * Assumptions: index is less than getCount()
+     * @param index the index of the ball
+     * @return the ball's angle
+     */
+    public double getAngle(int index) {
+        return Math.atan2(-yVelocity[index], xVelocity[index]);
+    }
+
+    /**
+     * Purpose: Point a ball in the given direction at full speed
+     * Assumptions: index is less than getCount()
+     * @param index the index of the ball
+     * @param angle the angle to move the ball at
+     */
+    public void setAngle(int index, double angle) {
+        xVelocity[index] = speed*Math.cos(angle);
+        yVelocity[index] = -speed*Math.sin(angle);
+    }
+
+    public boolean isMoving() {
+        return isMoving;
+    }
+
+    public void setIsMoving(boolean isMoving) {
+        this.isMoving = isMoving;
+    }
+}
@@ -0,0 +1,143 @@
+package breakout.sim;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongFunction;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+
+/**
+ * Purpose: Play thousands of independent seeded games with a scripted paddle across all cores and add up how they
+ * went, for balancing the game's settings (paddle speed, brick size, blocked row/column frequency, ball speed)
+ * without playing by hand.
+ * Assumptions: none
+ * Dependencies: This class depends on the World, Settings, PaddlePolicy, AimingPolicy, BatchStats, and Seeds classes
+ * and the ForkJoinPool, LongFunction, Collector, and IntStream classes.
+ * Example: java breakout.sim.BatchSimulator --games=10000 --seed=307 --paddle-speed=20 --ball-speed=350
+ * Other details: game i of a batch always gets the same seed (see getGameSeed), so the same settings and seed give
+ * bit-identical results no matter how many threads play them. Some layouts can leave the ball bouncing forever
+ * without reaching the paddle or a brick, so games stop after maxTicks and are counted as timed out.
+ *
+ * @author Evan Kenyon
+ */
+public class BatchSimulator {
+
+    public static final double SECOND_DELAY = 1.0 / 60;
+    // 10 minutes of play at 60 ticks per second
+    public static final long DEFAULT_MAX_TICKS = 60 * 60 * 10;
+
+    private Settings settings;
+    private LongFunction<PaddlePolicy> policies;
+    private long maxTicks;
+
+    /**
+     * Purpose: Construct a BatchSimulator that plays games with the given settings, making a new paddle policy for
+     * each game (e.g. AimingPolicy::new, or seed -> PaddlePolicy.FOLLOW_BALL to use the same one for every game)
+     * Assumptions: maxTicks is positive, and a policy that is used for more than one game doesn't keep track of
+     * anything between calls (games are played on several threads at once)
+     * @param settings the numbers every game is tuned with
+     * @param policies makes the policy for a game, given the game's seed
+     * @param maxTicks how many ticks a game can go on for before it is counted as timed out
+     */
+    public BatchSimulator(Settings settings, LongFunction<PaddlePolicy> policies, long maxTicks) {
+        this.settings = settings;
+        this.policies = policies;
+        this.maxTicks = maxTicks;
+    }
+
+    /**
+     * Purpose: Play games in parallel on the common fork-join pool and add up their results
+     * Assumptions: none
+     * @param games how many games to play
+     * @param seed seed the seed of every game is derived from
+     * @return the totals for every game
+     */
+    public BatchStats run(int games, long seed) {
+        return IntStream.range(0, games).parallel()
+                .mapToObj(game -> getGameSeed(seed, game))
+                .collect(Collector.of(BatchStats::new, this::play, BatchStats::combine));
+    }
+
+    /**
+     * Purpose: Play games in parallel on a pool with the given number of threads and add up their results
+     * Assumptions: threads is positive
+     * @param games how many games to play
+     * @param seed seed the seed of every game is derived from
+     * @param threads how many threads to play games on
+     * @return the totals for every game
+     * @throws InterruptedException if interrupted while waiting for the games to finish
+     * @throws ExecutionException if a game threw an exception
+     */
+    public BatchStats run(int games, long seed, int threads) throws InterruptedException, ExecutionException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> run(games, seed)).get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void play(BatchStats stats, long gameSeed) {
+        World world = World.create(settings, gameSeed);
+        PaddlePolicy policy = policies.apply(gameSeed);
+        long ticks = 0;
+        while(world.getStatus() == World.Status.PLAYING && ticks < maxTicks) {
+            // Scripted players press space as soon as the ball stops
+            world.launchBall();
+            double move = policy.getPaddleMove(world);
+            world.movePaddle(Math.max(-settings.paddleSpeed(), Math.min(settings.paddleSpeed(), move)));
+            world.step(SECOND_DELAY);
+            ticks++;
+        }
+        stats.add(world, ticks, settings.lives());
+    }
+
+    /**
+     * Purpose: Work out the seed for one game of a batch, spreading nearby game numbers far apart
+     * Assumptions: none
+     * @param seed the batch's seed
+     * @param game which game of the batch
+     * @return the game's seed
+     */
+    public static long getGameSeed(long seed, int game) {
+        return Seeds.mix(seed, game);
+    }
+
+    /**
+     * Purpose: Play a batch of games from the command line and print the totals
+     * Assumptions: arguments look like --name=value, any that are left out use the standard game's values
+     * (--games, --seed, --threads, --max-ticks, --scene-size, --brick-size, --blocked-freq, --paddle-speed,
+     * --ball-speed, --balls, --lives)
+     * @param args the command line arguments
+     * @throws InterruptedException if interrupted while waiting for the games to finish
+     * @throws ExecutionException if a game threw an exception
+     */
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        Map<String, String> options = new HashMap<>();
+        for(String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(parts[0], parts.length == 2 ? parts[1] : "");
+        }
+        Settings defaults = Settings.DEFAULT;
+        Settings settings = new Settings(
+                Integer.parseInt(options.getOrDefault("scene-size", "" + defaults.sceneSize())),
+                Integer.parseInt(options.getOrDefault("brick-size", "" + defaults.brickSize())),
+                Double.parseDouble(options.getOrDefault("blocked-freq", "" + defaults.blockedRowOrColFreq())),
+                Integer.parseInt(options.getOrDefault("paddle-speed", "" + defaults.paddleSpeed())),
+                Double.parseDouble(options.getOrDefault("ball-speed", "" + defaults.ballSpeed())),
+                Integer.parseInt(options.getOrDefault("balls", "" + defaults.ballCount())),
+                Integer.parseInt(options.getOrDefault("lives", "" + defaults.lives())));
+        int games = Integer.parseInt(options.getOrDefault("games", "1000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "0"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "" + Runtime.getRuntime().availableProcessors()));
+        long maxTicks = Long.parseLong(options.getOrDefault("max-ticks", "" + DEFAULT_MAX_TICKS));
+
+        long start = System.nanoTime();
+        BatchStats stats = new BatchSimulator(settings, AimingPolicy::new, maxTicks).run(games, seed, threads);
+        System.out.println(settings);
+        System.out.println(stats);
+        System.out.printf("Took %.2f s on %d threads%n", (System.nanoTime() - start) / 1e9, threads);
+    }
+}
@@ -0,0 +1,97 @@
+package breakout.sim;
+
+/**
+ * Purpose: Add up the results of many games played by the BatchSimulator.
+ * Assumptions: none
+ * Dependencies: This class depends on the World class.
+ * Example: BatchSimulator.run returns one of these, print it or read the win rate and averages from it.
+ * Other details: only whole number totals are kept while adding games up, so combining the stats from different
+ * threads in any order always gives bit-identical averages.
+ *
+ * @author Evan Kenyon
+ */
+public class BatchStats {
+
+    private long games;
+    private long wins;
+    private long losses;
+    private long timeouts;
+    private long ticksToClear;
+    private long livesLost;
+
+    /**
+     * Purpose: Add one finished (or timed out) game to the totals
+     * Assumptions: the world was created with startingLives lives
+     * @param world the game after it was played
+     * @param ticks how many ticks the game was played for
+     * @param startingLives how many lives the game started with
+     */
+    public void add(World world, long ticks, int startingLives) {
+        games++;
+        livesLost += startingLives - world.getLives();
+        switch (world.getStatus()) {
+            case WON -> {
+                wins++;
+                ticksToClear += ticks;
+            }
+            case LOST -> losses++;
+            case PLAYING -> timeouts++;
+        }
+    }
+
+    /**
+     * Purpose: Add another set of totals to this one
+     * Assumptions: none
+     * @param other the totals to add
+     * @return this object
+     */
+    public BatchStats combine(BatchStats other) {
+        games += other.games;
+        wins += other.wins;
+        losses += other.losses;
+        timeouts += other.timeouts;
+        ticksToClear += other.ticksToClear;
+        livesLost += other.livesLost;
+        return this;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public double getWinRate() {
+        return games == 0 ? 0 : (double) wins / games;
+    }
+
+    /**
+     * Purpose: Return the average number of ticks it took to clear every brick in the games that were won
+     * Assumptions: none
+     * @return the average ticks to clear, or 0 if no games were won
+     */
+    public double getAverageTicksToClear() {
+        return wins == 0 ? 0 : (double) ticksToClear / wins;
+    }
+
+    public double getAverageLivesLost() {
+        return games == 0 ? 0 : (double) livesLost / games;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Games: %d%nWins: %d%nLosses: %d%nTimed out: %d%nWin rate: %.4f%n"
+                        + "Average ticks to clear: %.2f%nAverage lives lost: %.4f",
+                games, wins, losses, timeouts, getWinRate(), getAverageTicksToClear(), getAverageLivesLost());
+    }
+}
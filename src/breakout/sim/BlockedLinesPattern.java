@@ -0,0 +1,50 @@
+package breakout.sim;
+
+import java.util.SplittableRandom;
+
+/**
+ * Purpose: Lay bricks out the way the standard game does, in every cell except for randomly chosen whole rows and
+ * columns that are left empty (see the README for why).
+ * Assumptions: blockedRowOrColFreq is less than 1 (and preferably less than 0.9)
+ * Dependencies: This class depends on the BrickPattern interface and the SplittableRandom class.
+ * Example: new LevelGenerator(new BlockedLinesPattern(0.1), Palette.DEFAULT)
+ * Other details: this is the same layout as BrickField's constructor, but picked with a SplittableRandom, so the same
+ * seed gives a different field than World.create does.
+ *
+ * @author Evan Kenyon
+ */
+public class BlockedLinesPattern implements BrickPattern {
+
+    public static final String NAME = "lines";
+
+    private double blockedRowOrColFreq;
+    private boolean[] blockedColumns;
+    private boolean[] blockedRows;
+
+    /**
+     * Purpose: Construct a pattern with roughly blockedRowOrColFreq of its rows and columns empty
+     * Assumptions: blockedRowOrColFreq is between 0 and 1
+     * @param blockedRowOrColFreq frequency of a row or column being empty
+     */
+    public BlockedLinesPattern(double blockedRowOrColFreq) {
+        this.blockedRowOrColFreq = blockedRowOrColFreq;
+    }
+
+    @Override
+    public void prepare(int columns, int rows, long seed) {
+        SplittableRandom rand = new SplittableRandom(seed);
+        blockedColumns = new boolean[columns];
+        blockedRows = new boolean[rows];
+        for(int col = 0; col < columns; col++) {
+            blockedColumns[col] = rand.nextDouble() <= blockedRowOrColFreq;
+        }
+        for(int row = 0; row < rows; row++) {
+            blockedRows[row] = rand.nextDouble() <= blockedRowOrColFreq;
+        }
+    }
+
+    @Override
+    public int getHitPoints(int column, int row, SplittableRandom rand) {
+        return blockedColumns[column] || blockedRows[row] ? 0 : 1;
+    }
+}
@@ -0,0 +1,425 @@
+package breakout.sim;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Purpose: Keep track of which bricks are left in the breakout game without depending on JavaFX. Bricks sit on a
+ * fixed lattice with a stride of brickWidth + 1 by brickHeight + 1, so each brick is identified by its lattice cell.
+ * Assumptions: values of vars do not push past practical limits (details provided in JavaDoc of constructor)
+ * Dependencies: This class depends on the Contact, Palette, Sweep, and WorldListener classes and the Random class
+ * and the Arrays class.
+ * Example: Construct a BrickField with reasonable arguments to be used in the World class, which asks it for the
+ * brick a ball hits and hits that brick.
+ * Other details: Cells are numbered column-major (cell = column * rows + row), which is also the order bricks were
+ * originally generated in. Each cell only stores 2 bytes, its hit points (0 for no brick) and its color's index in
+ * the palette, so even fields with millions of bricks stay small. Hit points are kept in pages of PAGE_SIZE cells
+ * that snapshots share instead of copying, and a shared page is only copied the first time one of its bricks is hit
+ * afterwards (copy-on-write), so a snapshot costs a pointer per page plus the pages hit since. Explanation for the
+ * algorithm for brick generation can be found in the README.
+ *
+ * @author Evan Kenyon
+ */
+public class BrickField {
+
+    public static final int MAX_HIT_POINTS = 127;
+    // 512 cells a page keeps a snapshot of a 100k brick field to a couple hundred page pointers, while a page copied
+    // on a hit is still only 512 bytes
+    public static final int PAGE_BITS = 9;
+    public static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private int brickWidth;
+    private int brickHeight;
+    private int columns;
+    private int rows;
+    // 1 / the distance between neighboring cells, multiplying by these is far cheaper than dividing by the distance
+    private double inverseColumnPitch;
+    private double inverseRowPitch;
+    private int cellCount;
+    private byte[][] hitPointPages;
+    // Whether each page might also be in a snapshot, in which case it has to be copied before it's changed
+    private boolean[] pageShared;
+    private byte[] colors;
+    private Palette palette;
+    private int remaining;
+
+    /**
+     * Purpose: Construct a BrickField which has the number of bricks of size brickWidth x brickHeight
+     * that fit into a sceneWidth x sceneHeight/2 area, with roughly blockRowOrColFreq of the rows/columns empty
+     * Assumptions: brickWidth is 1 less than a factor of the sceneWidth, blockRowOrColFreq is less than 1
+     * (and preferably less than 0.9), and brickWidth and brickHeight are reasonable values
+     * (i.e. 1 brick will not be bigger than the whole scene)
+     * @param sceneWidth scene width, used so that bricks aren't generated outside of scene
+     * @param sceneHeight scene height, used so that bricks aren't generated outside of scene
+     * @param brickWidth width of each brick
+     * @param brickHeight height of each brick
+     * @param blockedRowOrColFreq frequency of a row or column being empty
+     * @param rand the source of randomness for which rows and columns are empty and for brick colors
+     */
+    public BrickField(int sceneWidth, int sceneHeight, int brickWidth, int brickHeight, double blockedRowOrColFreq,
+                      Random rand) {
+        this(getColumnsFitting(sceneWidth, brickWidth), getRowsFitting(sceneHeight, brickHeight), brickWidth,
+                brickHeight, Palette.DEFAULT);
+        generateBricks(blockedRowOrColFreq, rand);
+    }
+
+    /**
+     * Purpose: Construct a BrickField with no bricks in it yet, for filling in with setBrick (e.g. from a level file)
+     * Assumptions: columns and rows are positive
+     * @param columns how many columns of cells there are
+     * @param rows how many rows of cells there are
+     * @param brickWidth width of each brick
+     * @param brickHeight height of each brick
+     * @param palette the colors that bricks can be
+     */
+    public BrickField(int columns, int rows, int brickWidth, int brickHeight, Palette palette) {
+        this.columns = columns;
+        this.rows = rows;
+        this.brickWidth = brickWidth;
+        this.brickHeight = brickHeight;
+        inverseColumnPitch = 1.0 / (brickWidth + 1);
+        inverseRowPitch = 1.0 / (brickHeight + 1);
+        this.palette = palette;
+        cellCount = columns * rows;
+        int pages = (cellCount + PAGE_SIZE - 1) >> PAGE_BITS;
+        hitPointPages = new byte[pages][PAGE_SIZE];
+        pageShared = new boolean[pages];
+        colors = new byte[cellCount];
+        remaining = 0;
+    }
+
+    /**
+     * Purpose: Work out how many columns of bricks (each followed by a 1 pixel gap) fit across a scene, since a
+     * brick past the right wall could never be hit
+     * Assumptions: sceneWidth and brickWidth are positive
+     * @param sceneWidth width of the scene
+     * @param brickWidth width of each brick
+     * @return the number of columns, at least 1
+     */
+    public static int getColumnsFitting(int sceneWidth, int brickWidth) {
+        return Math.max(1, sceneWidth / (brickWidth + 1));
+    }
+
+    /**
+     * Purpose: Work out how many rows of bricks (each followed by a 1 pixel gap) fit in the top half of a scene,
+     * leaving the bottom half for the ball and paddle
+     * Assumptions: sceneHeight and brickHeight are positive
+     * @param sceneHeight height of the scene
+     * @param brickHeight height of each brick
+     * @return the number of rows, at least 1
+     */
+    public static int getRowsFitting(int sceneHeight, int brickHeight) {
+        return Math.max(1, (sceneHeight / 2) / (brickHeight + 1));
+    }
+
+    /**
+     * Purpose: Check whether this field fits in the top half of a scene the way getColumnsFitting and getRowsFitting
+     * lay a generated field out, i.e. that no brick is off the side of the scene or in the ball and paddle's half
+     * Assumptions: none
+     * @param sceneWidth width of the scene
+     * @param sceneHeight height of the scene
+     * @return true if every brick is inside the top half of the scene
+     */
+    public boolean fitsScene(int sceneWidth, int sceneHeight) {
+        return (long) columns * (brickWidth + 1) <= sceneWidth && (long) rows * (brickHeight + 1) <= sceneHeight / 2;
+    }
+
+    // Picks whole columns and rows to leave empty, then fills in every other cell with a 1 hit brick
+    private void generateBricks(double blockedRowOrColFreq, Random rand) {
+        boolean[] blockedColumns = new boolean[columns];
+        boolean[] blockedRows = new boolean[rows];
+        for(int col = 0; col < columns; col++) {
+            blockedColumns[col] = rand.nextDouble() <= blockedRowOrColFreq;
+        }
+        for(int row = 0; row < rows; row++) {
+            blockedRows[row] = rand.nextDouble() <= blockedRowOrColFreq;
+        }
+        for(int col = 0; col < columns; col++) {
+            if(blockedColumns[col]) {
+                continue;
+            }
+            for(int row = 0; row < rows; row++) {
+                if(!blockedRows[row]) {
+                    setBrick(col * rows + row, 1, rand.nextInt(palette.size()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Purpose: Put a brick in a cell (or take one out, with 0 hit points)
+     * Assumptions: hitPoints is between 0 and MAX_HIT_POINTS and color is less than the palette's size
+     * @param cell the cell to put the brick in
+     * @param hitPoints how many hits it takes to destroy the brick
+     * @param color the index of the brick's color in the palette
+     */
+    public void setBrick(int cell, int hitPoints, int color) {
+        byte[] page = getWritablePage(cell);
+        if(page[cell & PAGE_MASK] > 0) {
+            remaining--;
+        }
+        if(hitPoints > 0) {
+            remaining++;
+        }
+        page[cell & PAGE_MASK] = (byte) hitPoints;
+        colors[cell] = (byte) color;
+    }
+
+    /**
+     * Purpose: Put a brick in an empty cell without counting it in getRemaining, so that a LevelGenerator can fill
+     * different cells from many threads at once (and add up the count itself with addRemaining)
+     * Assumptions: the cell is empty, and no snapshot has been taken of this field yet
+     * @param cell the cell to put the brick in
+     * @param hitPoints how many hits it takes to destroy the brick
+     * @param color the index of the brick's color in the palette
+     */
+    void fillCell(int cell, int hitPoints, int color) {
+        hitPointPages[cell >> PAGE_BITS][cell & PAGE_MASK] = (byte) hitPoints;
+        colors[cell] = (byte) color;
+    }
+
+    void addRemaining(int bricks) {
+        remaining += bricks;
+    }
+
+    private byte[] getWritablePage(int cell) {
+        int page = cell >> PAGE_BITS;
+        if(pageShared[page]) {
+            hitPointPages[page] = hitPointPages[page].clone();
+            pageShared[page] = false;
+        }
+        return hitPointPages[page];
+    }
+
+    /**
+     * Purpose: Find the first brick (in generation order) whose bounds intersect with the given box, only checking
+     * the lattice cells that the box covers
+     * Assumptions: minX <= maxX and minY <= maxY
+     * @param minX the left edge of the box
+     * @param minY the top edge of the box
+     * @param maxX the right edge of the box
+     * @param maxY the bottom edge of the box
+     * @return the cell of the brick being intersected with, or -1 if there isn't one
+     */
+    public int getCellIntersecting(double minX, double minY, double maxX, double maxY) {
+        // The range can be one cell wider than needed (see getFirstSlot), the bounds check below is exact
+        int minCol = Math.max(0, getFirstSlot(minX, inverseColumnPitch));
+        int maxCol = Math.min(columns - 1, getLastSlot(maxX, inverseColumnPitch, brickWidth + 1));
+        int minRow = Math.max(0, getFirstSlot(minY, inverseRowPitch));
+        int maxRow = Math.min(rows - 1, getLastSlot(maxY, inverseRowPitch, brickHeight + 1));
+        for(int col = minCol; col <= maxCol; col++) {
+            for(int row = minRow; row <= maxRow; row++) {
+                int cell = col * rows + row;
+                if(isOccupied(cell) && isIntersecting(cell, minX, minY, maxX, maxY)) {
+                    return cell;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // Bricks before the lattice slot that min is in end at least the 1 pixel gap before it, so this is one cell wider
+    // than needed at most (when min is in a gap), and being an ulp over a whole number only skips a brick that ends
+    // in the gap before min
+    private static int getFirstSlot(double min, double inversePitch) {
+        return (int) Math.floor(min * inversePitch);
+    }
+
+    // Multiplying can land an ulp under a whole number that dividing would have hit exactly, which would miss a brick
+    // touching max, so the slot after is checked exactly
+    private static int getLastSlot(double max, double inversePitch, int pitch) {
+        int slot = (int) Math.floor(max * inversePitch);
+        return (slot + 1) * pitch <= max ? slot + 1 : slot;
+    }
+
+    /**
+     * Purpose: Offer contact the first brick that a moving ball hits, only checking the lattice cells that the ball
+     * sweeps over before contact's current time
+     * Assumptions: radius is positive
+     * @param contact the contact to offer hits to, its time is how far ahead to look
+     * @param x x value of the ball's center now
+     * @param y y value of the ball's center now
+     * @param radius radius of the ball
+     * @param vx x velocity of the ball
+     * @param vy y velocity of the ball
+     */
+    public void findFirstContact(Contact contact, double x, double y, double radius, double vx, double vy) {
+        double endX = x + vx * contact.getTime();
+        double endY = y + vy * contact.getTime();
+        double minX = Math.min(x, endX) - radius;
+        double minY = Math.min(y, endY) - radius;
+        double maxX = Math.max(x, endX) + radius;
+        double maxY = Math.max(y, endY) + radius;
+        // The same cells getCellIntersecting would check for the box the ball sweeps through
+        int minCol = Math.max(0, getFirstSlot(minX, inverseColumnPitch));
+        int maxCol = Math.min(columns - 1, getLastSlot(maxX, inverseColumnPitch, brickWidth + 1));
+        int minRow = Math.max(0, getFirstSlot(minY, inverseRowPitch));
+        int maxRow = Math.min(rows - 1, getLastSlot(maxY, inverseRowPitch, brickHeight + 1));
+        for(int col = minCol; col <= maxCol; col++) {
+            for(int row = minRow; row <= maxRow; row++) {
+                int cell = col * rows + row;
+                if(isOccupied(cell)) {
+                    double cellX = getCellX(cell);
+                    double cellY = getCellY(cell);
+                    Sweep.circleBox(contact, Contact.Kind.BRICK, cell, x, y, radius, vx, vy,
+                            cellX, cellY, cellX + brickWidth, cellY + brickHeight);
+                }
+            }
+        }
+    }
+
+    // Same (inclusive) check as javafx.geometry.Bounds.intersects
+    private boolean isIntersecting(int cell, double minX, double minY, double maxX, double maxY) {
+        double cellX = getCellX(cell);
+        double cellY = getCellY(cell);
+        return cellX + brickWidth >= minX && cellY + brickHeight >= minY && cellX <= maxX && cellY <= maxY;
+    }
+
+    /**
+     * Purpose: Hit the brick in the given cell, which destroys it if it has no hit points left
+     * Assumptions: the cell currently has a brick in it
+     * @param cell the cell of the brick to hit
+     * @return true if the brick was destroyed, false if it can take more hits
+     */
+    public boolean hit(int cell) {
+        byte[] page = getWritablePage(cell);
+        page[cell & PAGE_MASK]--;
+        if(page[cell & PAGE_MASK] == 0) {
+            remaining--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Purpose: Return the cell that the brick with the given top left corner is in
+     * Assumptions: x and y are on the lattice
+     * @param x the x value of the top left corner of the brick
+     * @param y the y value of the top left corner of the brick
+     * @return the cell that the brick is in
+     */
+    public int getCell(int x, int y) {
+        return (x / (brickWidth + 1)) * rows + y / (brickHeight + 1);
+    }
+
+    public int getCellX(int cell) {
+        return (cell / rows) * (brickWidth + 1);
+    }
+
+    public int getCellY(int cell) {
+        return (cell % rows) * (brickHeight + 1);
+    }
+
+    public boolean isOccupied(int cell) {
+        return hitPointPages[cell >> PAGE_BITS][cell & PAGE_MASK] > 0;
+    }
+
+    public int getHitPoints(int cell) {
+        return hitPointPages[cell >> PAGE_BITS][cell & PAGE_MASK];
+    }
+
+    /**
+     * Purpose: Save every brick's hit points without copying them, by sharing the pages they are kept in
+     * Assumptions: none
+     * @param pages where to put the pages, used if it is the right length
+     * @return the saved pages, which this field never changes afterwards
+     */
+    byte[][] sharePages(byte[][] pages) {
+        if(pages == null || pages.length != hitPointPages.length) {
+            pages = new byte[hitPointPages.length][];
+        }
+        System.arraycopy(hitPointPages, 0, pages, 0, pages.length);
+        Arrays.fill(pageShared, true);
+        return pages;
+    }
+
+    /**
+     * Purpose: Construct a field with the same layout, colors, and hit points as this one, which shares this one's
+     * hit point pages until either field changes a brick
+     * Assumptions: none
+     * @return the copy
+     */
+    public BrickField copy() {
+        BrickField copy = new BrickField(columns, rows, brickWidth, brickHeight, palette);
+        System.arraycopy(colors, 0, copy.colors, 0, cellCount);
+        copy.hitPointPages = sharePages(null);
+        Arrays.fill(copy.pageShared, true);
+        copy.remaining = remaining;
+        return copy;
+    }
+
+    /**
+     * Purpose: Put back hit points saved by sharePages, letting listener know about every brick that changed
+     * Assumptions: pages came from sharePages on this field, and no bricks were put in with setBrick since (e.g. by
+     * a LevelLoader that was still loading)
+     * @param pages the saved pages
+     * @param remaining how many bricks were left when the pages were saved
+     * @param listener told about each cell whose hit points are different now
+     */
+    void restorePages(byte[][] pages, int remaining, WorldListener listener) {
+        for(int page = 0; page < pages.length; page++) {
+            // Pages are never changed once shared, so the same page means nothing in it changed
+            if(pages[page] != hitPointPages[page]) {
+                byte[] current = hitPointPages[page];
+                hitPointPages[page] = pages[page];
+                int firstCell = page << PAGE_BITS;
+                int cells = Math.min(PAGE_SIZE, cellCount - firstCell);
+                for(int i = 0; i < cells; i++) {
+                    if(current[i] != pages[page][i]) {
+                        listener.brickChanged(firstCell + i);
+                    }
+                }
+            }
+        }
+        Arrays.fill(pageShared, true);
+        this.remaining = remaining;
+    }
+
+    /**
+     * Purpose: Return the index of a brick's color in the palette
+     * Assumptions: none
+     * @param cell the cell of the brick
+     * @return the color's index
+     */
+    public int getColor(int cell) {
+        return colors[cell] & 0xFF;
+    }
+
+    public Palette getPalette() {
+        return palette;
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getBrickWidth() {
+        return brickWidth;
+    }
+
+    public int getBrickHeight() {
+        return brickHeight;
+    }
+
+    public int getRemaining() {
+        return remaining;
+    }
+
+    /**
+     * Purpose: Check if any bricks haven't been hit by the ball yet
+     * Assumptions: none
+     * @return true if there are bricks left, false otherwise
+     */
+    public boolean isBrickRemaining() {
+        return remaining != 0;
+    }
+}
@@ -0,0 +1,59 @@
+package breakout.sim;
+
+import java.util.SplittableRandom;
+
+/**
+ * Purpose: Decide where a generated level's bricks go, one cell at a time, so that a LevelGenerator can fill any
+ * part of the field on any thread.
+ * Assumptions: getHitPoints only reads what prepare set up, since it is called from many threads at once
+ * Dependencies: This class depends on the LevelGenerator class (for hashing) and the SplittableRandom class.
+ * Example: new LevelGenerator(new CavePattern(), Palette.DEFAULT).generate(1401, 701, 49, 49, seed), or
+ * BrickPattern.forName("mirrored-maze") for one named on the command line.
+ * Other details: a pattern is prepared again for each field it generates, so it should only be used for one field at
+ * a time. Choices that have to line up with neighboring cells (like maze walls) should come from
+ * LevelGenerator.hash, while rand (the stream of the tile the cell is in) is for choices that don't. A pattern that
+ * uses rand can't be mirrored (see MirroredPattern).
+ *
+ * @author Evan Kenyon
+ */
+public interface BrickPattern {
+
+    /**
+     * Purpose: Make any choices that span the whole field (e.g. which rows are empty), before any cell is asked for
+     * Assumptions: none
+     * @param columns how many columns of cells the field has
+     * @param rows how many rows of cells the field has
+     * @param seed the level's seed
+     */
+    default void prepare(int columns, int rows, long seed) {
+    }
+
+    /**
+     * Purpose: Decide the brick in one cell
+     * Assumptions: column and row are inside the field prepare was called with
+     * @param column the cell's column
+     * @param row the cell's row
+     * @param rand the random stream of the tile the cell is in
+     * @return the brick's hit points, 0 for no brick and at most BrickField.MAX_HIT_POINTS
+     */
+    int getHitPoints(int column, int row, SplittableRandom rand);
+
+    /**
+     * Purpose: Return the pattern with a given name, with its default settings
+     * Assumptions: none
+     * @param name lines, caves, or maze, optionally starting with mirrored-
+     * @return the pattern
+     * @throws IllegalArgumentException if there is no pattern with that name
+     */
+    static BrickPattern forName(String name) {
+        if(name.startsWith(MirroredPattern.PREFIX)) {
+            return new MirroredPattern(forName(name.substring(MirroredPattern.PREFIX.length())));
+        }
+        return switch (name) {
+            case BlockedLinesPattern.NAME -> new BlockedLinesPattern(World.BLOCKED_ROW_OR_COL_FREQ);
+            case CavePattern.NAME -> new CavePattern();
+            case MazePattern.NAME -> new MazePattern();
+            default -> throw new IllegalArgumentException("Unknown brick pattern: " + name);
+        };
+    }
+}
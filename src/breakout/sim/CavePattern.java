@@ -0,0 +1,125 @@
+package breakout.sim;
+
+import java.util.SplittableRandom;
+
+/**
+ * Purpose: Lay bricks out as solid rock with winding caves through it, from value noise, with the occasional
+ * tougher brick.
+ * Assumptions: scale is at least 1
+ * Dependencies: This class depends on the BrickPattern interface, the LevelGenerator class (for hashing), and the
+ * SplittableRandom class.
+ * Example: new LevelGenerator(new CavePattern(), Palette.DEFAULT)
+ * Other details: the noise is OCTAVES layers of random values on a grid scale cells apart (then half that, and so
+ * on), smoothly blended in between. Cells where it is above threshold are bricks. Every grid value comes from
+ * hashing its grid point with the seed, and they're all worked out in prepare (there are far fewer grid points than
+ * cells), so any cell can then be worked out on its own by looking up the 4 grid points around it in each octave.
+ * Which bricks are tougher comes from hashing the cell too, so the pattern never uses the tile's random stream.
+ *
+ * @author Evan Kenyon
+ */
+public class CavePattern implements BrickPattern {
+
+    public static final String NAME = "caves";
+    public static final int OCTAVES = 3;
+    public static final double DEFAULT_SCALE = 16;
+    // Rock slightly outnumbers cave, so caves are mostly separate pockets with some joined up
+    public static final double DEFAULT_THRESHOLD = 0.45;
+    // 1 in this many bricks takes 3 hits
+    public static final int TOUGH_BRICK_ODDS = 20;
+    public static final int TOUGH_BRICK_HIT_POINTS = 3;
+
+    private double scale;
+    private double threshold;
+    // Each octave's random values at its grid points, row-major, worked out in prepare so that cells only look them up
+    private double[][] gridValues;
+    private int[] gridColumns;
+    private long toughSeed;
+
+    /**
+     * Purpose: Construct a cave pattern with the default cave size and amount of rock
+     * Assumptions: none
+     */
+    public CavePattern() {
+        this(DEFAULT_SCALE, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Purpose: Construct a cave pattern
+     * Assumptions: scale is at least 1, threshold is between 0 and 1
+     * @param scale roughly how many cells across the biggest caves are
+     * @param threshold how high the noise has to be for a brick, higher gives more cave
+     */
+    public CavePattern(double scale, double threshold) {
+        this.scale = scale;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void prepare(int columns, int rows, long seed) {
+        gridValues = new double[OCTAVES][];
+        gridColumns = new int[OCTAVES];
+        double frequency = 1 / scale;
+        for(int octave = 0; octave < OCTAVES; octave++) {
+            // One more grid point past the last cell on each side, since each cell blends the grid points around it
+            int width = (int) ((columns - 1) * frequency) + 2;
+            int height = (int) ((rows - 1) * frequency) + 2;
+            double[] values = new double[width * height];
+            for(int y = 0; y < height; y++) {
+                for(int x = 0; x < width; x++) {
+                    // Top 53 bits as a double in [0, 1), the same way SplittableRandom.nextDouble does it
+                    values[y * width + x] = (LevelGenerator.hash(seed + octave, x, y) >>> 11) * 0x1.0p-53;
+                }
+            }
+            gridValues[octave] = values;
+            gridColumns[octave] = width;
+            frequency *= 2;
+        }
+        // A seed none of the octaves use
+        toughSeed = seed + OCTAVES;
+    }
+
+    @Override
+    public int getHitPoints(int column, int row, SplittableRandom rand) {
+        if(getNoise(column, row) <= threshold) {
+            return 0;
+        }
+        // From the cell's hash rather than rand, so that a mirrored cave has its tough bricks mirrored too
+        return (LevelGenerator.hash(toughSeed, column, row) >>> 1) % TOUGH_BRICK_ODDS == 0 ? TOUGH_BRICK_HIT_POINTS : 1;
+    }
+
+    // Between 0 and 1, each octave has half the spacing and half the weight of the one before
+    private double getNoise(int column, int row) {
+        double total = 0;
+        double weight = 1;
+        double weights = 0;
+        double frequency = 1 / scale;
+        for(int octave = 0; octave < OCTAVES; octave++) {
+            total += getValueNoise(column * frequency, row * frequency, gridValues[octave], gridColumns[octave])
+                    * weight;
+            weights += weight;
+            weight /= 2;
+            frequency *= 2;
+        }
+        return total / weights;
+    }
+
+    // x and y are never negative, so casting floors them
+    private static double getValueNoise(double x, double y, double[] values, int width) {
+        int x0 = (int) x;
+        int y0 = (int) y;
+        double tx = smooth(x - x0);
+        double ty = smooth(y - y0);
+        int topLeft = y0 * width + x0;
+        double top = lerp(values[topLeft], values[topLeft + 1], tx);
+        double bottom = lerp(values[topLeft + width], values[topLeft + width + 1], tx);
+        return lerp(top, bottom, ty);
+    }
+
+    private static double smooth(double t) {
+        return t * t * (3 - 2 * t);
+    }
+
+    private static double lerp(double a, double b, double t) {
+        return a + (b - a) * t;
+    }
+}
@@ -0,0 +1,89 @@
+package breakout.sim;
+
+/**
+ * Purpose: Hold the earliest thing a moving ball will hit during a step: when it hits it, the normal of the surface
+ * it hits, and what it is.
+ * Assumptions: none
+ * Dependencies: none
+ * Example: World resets one Contact to the time left in the step, lets Sweep offer every wall, the paddle, and
+ * every nearby brick to it, and then moves the ball up to the contact's time and bounces it off of the normal.
+ * Other details: Contacts are reused instead of being created each step so that collision doesn't allocate.
+ *
+ * @author Evan Kenyon
+ */
+public class Contact {
+
+    /**
+     * Purpose: What the ball hits
+     */
+    public enum Kind { NONE, WALL, PADDLE, BRICK }
+
+    private double time;
+    private double normalX;
+    private double normalY;
+    private Kind kind;
+    private int cell;
+
+    /**
+     * Purpose: Construct a contact that hasn't hit anything yet
+     */
+    public Contact() {
+        reset(0);
+    }
+
+    /**
+     * Purpose: Forget whatever was hit so that anything hit within maxTime is accepted
+     * Assumptions: maxTime is not negative
+     * @param maxTime how far ahead (in seconds) to look for something to hit
+     */
+    public void reset(double maxTime) {
+        time = maxTime;
+        normalX = 0;
+        normalY = 0;
+        kind = Kind.NONE;
+        cell = -1;
+    }
+
+    /**
+     * Purpose: Replace the current contact with a new one if the new one happens sooner, ties go to whatever was
+     * offered first
+     * Assumptions: (normalX, normalY) has a length of 1
+     * @param time seconds from now that the ball hits
+     * @param normalX x part of the normal of the surface hit, pointing back towards the ball
+     * @param normalY y part of the normal of the surface hit, pointing back towards the ball
+     * @param kind what was hit
+     * @param cell the cell of the brick hit, or -1 if it wasn't a brick
+     * @return whether the new contact replaced the current one
+     */
+    public boolean offer(double time, double normalX, double normalY, Kind kind, int cell) {
+        if(time < 0 || time > this.time || (time == this.time && this.kind != Kind.NONE)) {
+            return false;
+        }
+        this.time = time;
+        this.normalX = normalX;
+        this.normalY = normalY;
+        this.kind = kind;
+        this.cell = cell;
+        return true;
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    public double getNormalX() {
+        return normalX;
+    }
+
+    public double getNormalY() {
+        return normalY;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getCell() {
+        return cell;
+    }
+}
@@ -0,0 +1,249 @@
+package breakout.sim;
+
+import java.util.Arrays;
+
+/**
+ * Purpose: Hold every entity of one archetype (e.g. all falling power-ups, or all lasers), with each component stored
+ * as one primitive array (structure of arrays), so that the World's systems can update tens of thousands of them in
+ * tight loops over memory in order.
+ * Assumptions: values of vars do not push past practical limits (e.g. entities larger than the world)
+ * Dependencies: This class depends on the Arrays class.
+ * Example: Construct an Entities for an archetype, add entities to it, and call move and age once per step. The
+ * World keeps one for the power-ups falling from destroyed bricks and one for the paddle's lasers.
+ * Other details: every entity has a position and velocity (of its top left corner), a size, a lifetime in seconds
+ * (it is removed once the lifetime runs out, so archetypes that leave the world at a known time use it instead of a
+ * bounds check), and a kind whose meaning depends on the archetype. Removing an entity moves the last entity into
+ * its index, so entities stay packed at the front of the arrays.
+ *
+ * @author Evan Kenyon
+ */
+public class Entities {
+
+    private double[] x;
+    private double[] y;
+    private double[] xVelocity;
+    private double[] yVelocity;
+    private double[] width;
+    private double[] height;
+    private double[] lifetime;
+    // Where each entity was at the start of the last step, for drawing in between steps and sweeping collisions
+    private double[] previousX;
+    private double[] previousY;
+    private byte[] kind;
+    private int count;
+
+    /**
+     * Purpose: Construct an empty archetype
+     * Assumptions: none
+     * @param capacity how many entities there is room for before the arrays have to grow
+     */
+    public Entities(int capacity) {
+        x = new double[capacity];
+        y = new double[capacity];
+        xVelocity = new double[capacity];
+        yVelocity = new double[capacity];
+        width = new double[capacity];
+        height = new double[capacity];
+        lifetime = new double[capacity];
+        previousX = new double[capacity];
+        previousY = new double[capacity];
+        kind = new byte[capacity];
+        count = 0;
+    }
+
+    /**
+     * Purpose: Add an entity
+     * Assumptions: width, height, and lifetime are positive, and kind fits in a byte
+     * @param x the x value of the entity's top left corner
+     * @param y the y value of the entity's top left corner
+     * @param xVelocity the entity's x velocity in pixels per second
+     * @param yVelocity the entity's y velocity in pixels per second
+     * @param width the entity's width
+     * @param height the entity's height
+     * @param lifetime how many seconds until the entity is removed
+     * @param kind what sort of entity it is within the archetype
+     * @return the index of the new entity
+     */
+    public int add(double x, double y, double xVelocity, double yVelocity, double width, double height,
+                   double lifetime, int kind) {
+        if(count == this.x.length) {
+            grow();
+        }
+        this.x[count] = x;
+        this.y[count] = y;
+        this.xVelocity[count] = xVelocity;
+        this.yVelocity[count] = yVelocity;
+        this.width[count] = width;
+        this.height[count] = height;
+        this.lifetime[count] = lifetime;
+        // Appearing isn't movement, so it shouldn't be drawn sliding in from wherever the index's last entity was
+        previousX[count] = x;
+        previousY[count] = y;
+        this.kind[count] = (byte) kind;
+        return count++;
+    }
+
+    private void grow() {
+        int capacity = Math.max(1, x.length * 2);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        xVelocity = Arrays.copyOf(xVelocity, capacity);
+        yVelocity = Arrays.copyOf(yVelocity, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        lifetime = Arrays.copyOf(lifetime, capacity);
+        previousX = Arrays.copyOf(previousX, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+        kind = Arrays.copyOf(kind, capacity);
+    }
+
+    /**
+     * Purpose: Remove an entity by moving the last entity into its index
+     * Assumptions: index is less than getCount()
+     * @param index the index of the entity to remove
+     */
+    public void remove(int index) {
+        count--;
+        x[index] = x[count];
+        y[index] = y[count];
+        xVelocity[index] = xVelocity[count];
+        yVelocity[index] = yVelocity[count];
+        width[index] = width[count];
+        height[index] = height[count];
+        lifetime[index] = lifetime[count];
+        previousX[index] = previousX[count];
+        previousY[index] = previousY[count];
+        kind[index] = kind[count];
+    }
+
+    /**
+     * Purpose: Remove every entity
+     * Assumptions: none
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Purpose: Make this hold exactly the same entities as source, for saving a World's entities in a Snapshot and
+     * putting them back
+     * Assumptions: none
+     * @param source the entities to copy
+     */
+    public void copyFrom(Entities source) {
+        while(x.length < source.count) {
+            grow();
+        }
+        count = source.count;
+        System.arraycopy(source.x, 0, x, 0, count);
+        System.arraycopy(source.y, 0, y, 0, count);
+        System.arraycopy(source.xVelocity, 0, xVelocity, 0, count);
+        System.arraycopy(source.yVelocity, 0, yVelocity, 0, count);
+        System.arraycopy(source.width, 0, width, 0, count);
+        System.arraycopy(source.height, 0, height, 0, count);
+        System.arraycopy(source.lifetime, 0, lifetime, 0, count);
+        System.arraycopy(source.previousX, 0, previousX, 0, count);
+        System.arraycopy(source.previousY, 0, previousY, 0, count);
+        System.arraycopy(source.kind, 0, kind, 0, count);
+    }
+
+    /**
+     * Purpose: Movement system, move every entity along its velocity for elapsedTime seconds and remember where it
+     * started
+     * Assumptions: none
+     * @param elapsedTime number of seconds to move the entities by
+     */
+    public void move(double elapsedTime) {
+        // One pass per component keeps each loop to a couple of arrays, which the JIT can vectorize
+        System.arraycopy(x, 0, previousX, 0, count);
+        System.arraycopy(y, 0, previousY, 0, count);
+        for(int i = 0; i < count; i++) {
+            x[i] += xVelocity[i] * elapsedTime;
+        }
+        for(int i = 0; i < count; i++) {
+            y[i] += yVelocity[i] * elapsedTime;
+        }
+    }
+
+    /**
+     * Purpose: Lifetime system, take elapsedTime off of every entity's lifetime and remove the ones that ran out
+     * Assumptions: none
+     * @param elapsedTime number of seconds that passed
+     */
+    public void age(double elapsedTime) {
+        for(int i = 0; i < count; i++) {
+            lifetime[i] -= elapsedTime;
+            if(lifetime[i] <= 0) {
+                remove(i);
+                // The last entity was moved into index i, so it still needs to be aged
+                i--;
+            }
+        }
+    }
+
+    /**
+     * Purpose: Return where an entity is drawn alpha of the way through the last step
+     * Assumptions: index is less than getCount()
+     * @param index the index of the entity
+     * @param alpha how far through the step, from 0 (where it started) to 1 (where it is now)
+     * @return the entity's x value to draw at
+     */
+    public double getInterpolatedX(int index, double alpha) {
+        return previousX[index] + (x[index] - previousX[index]) * alpha;
+    }
+
+    /**
+     * Purpose: Return where an entity is drawn alpha of the way through the last step
+     * Assumptions: index is less than getCount()
+     * @param index the index of the entity
+     * @param alpha how far through the step, from 0 (where it started) to 1 (where it is now)
+     * @return the entity's y value to draw at
+     */
+    public double getInterpolatedY(int index, double alpha) {
+        return previousY[index] + (y[index] - previousY[index]) * alpha;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getX(int index) {
+        return x[index];
+    }
+
+    public double getY(int index) {
+        return y[index];
+    }
+
+    public double getPreviousX(int index) {
+        return previousX[index];
+    }
+
+    public double getPreviousY(int index) {
+        return previousY[index];
+    }
+
+    public double getXVelocity(int index) {
+        return xVelocity[index];
+    }
+
+    public double getYVelocity(int index) {
+        return yVelocity[index];
+    }
+
+    public double getWidth(int index) {
+        return width[index];
+    }
+
+    public double getHeight(int index) {
+        return height[index];
+    }
+
+    public double getLifetime(int index) {
+        return lifetime[index];
+    }
+
+    public int getKind(int index) {
+        return kind[index];
+    }
+}
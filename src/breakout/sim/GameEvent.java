@@ -0,0 +1,39 @@
+package breakout.sim;
+
+/**
+ * Purpose: The things that happen during a World step that the rest of the game (the HUD, sounds, analytics,
+ * achievements) might want to react to, published to a GameEventRing by a GameEventPublisher.
+ * Assumptions: none
+ * Dependencies: none
+ * Example: A GameEventHandler gets BRICK_DESTROYED with the brick's cell as its value.
+ * Other details: the ring stores each event as its ordinal in a byte, so there can be at most 128 of them.
+ *
+ * @author Evan Kenyon
+ */
+public enum GameEvent {
+    // The value is the brick's cell
+    BRICK_HIT,
+    BRICK_DESTROYED,
+    // A ball bounced off of the paddle, the value is unused
+    PADDLE_HIT,
+    // The value is the PowerUp's ordinal
+    POWER_UP_CAUGHT,
+    // The value is unused for the rest
+    LIFE_LOST,
+    LEVEL_CLEARED,
+    GAME_LOST,
+    // The World was put back to a snapshot (rewound or quick-loaded), so the score and lives can go down
+    RESTORED;
+
+    private static final GameEvent[] VALUES = values();
+
+    /**
+     * Purpose: Return the event with the given ordinal, without copying the values array
+     * Assumptions: ordinal is one of the ordinals
+     * @param ordinal the event's ordinal
+     * @return the event
+     */
+    public static GameEvent get(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
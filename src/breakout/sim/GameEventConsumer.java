@@ -0,0 +1,79 @@
+package breakout.sim;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Purpose: Run a GameEventHandler on its own thread, reading a GameEventRing as events come in, for consumers (e.g.
+ * sounds, analytics, achievements) that shouldn't slow down the thread stepping the World.
+ * Assumptions: the handler is only used by this consumer
+ * Dependencies: This class depends on the GameEventRing and GameEventHandler classes and the LockSupport class.
+ * Example: consumer = new GameEventConsumer(ring.newReader(), counts, "Event counts"), consumer.start(), and
+ * consumer.stop() when the game closes, after which everything published before stop was called has been handled.
+ * Other details: the thread sleeps for IDLE_MICROS whenever there is nothing to read instead of spinning, so events
+ * are handled within a fraction of a frame without taking a core away from the game.
+ *
+ * @author Evan Kenyon
+ */
+public class GameEventConsumer {
+
+    // Events handled per poll, so that a long backlog doesn't delay noticing stop
+    public static final int BATCH_SIZE = 256;
+    public static final long IDLE_MICROS = 500;
+
+    private GameEventRing.Reader reader;
+    private GameEventHandler handler;
+    private Thread thread;
+    private volatile boolean running;
+
+    /**
+     * Purpose: Construct a consumer that hasn't started yet
+     * Assumptions: none
+     * @param reader the reader to poll, which should only be used by this consumer
+     * @param handler what to do with each event, called on the consumer's thread
+     * @param name the name of the consumer's thread
+     */
+    public GameEventConsumer(GameEventRing.Reader reader, GameEventHandler handler, String name) {
+        this.reader = reader;
+        this.handler = handler;
+        thread = new Thread(this::run, name);
+        // Shouldn't keep the game open after its window is closed
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Purpose: Start handling events on the consumer's thread
+     * Assumptions: only called once
+     */
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Purpose: Stop the consumer's thread once it has handled every event published before this was called
+     * Assumptions: start was called
+     * @throws InterruptedException if interrupted while waiting for the thread to finish
+     */
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join();
+    }
+
+    private void run() {
+        while(running) {
+            if(reader.poll(handler, BATCH_SIZE) == 0) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(IDLE_MICROS));
+            }
+        }
+        // Whatever was published before stop still gets handled
+        while(reader.poll(handler, BATCH_SIZE) > 0) {
+            // poll does all of the work
+        }
+    }
+
+    public GameEventRing.Reader getReader() {
+        return reader;
+    }
+}
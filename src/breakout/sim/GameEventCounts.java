@@ -0,0 +1,42 @@
+package breakout.sim;
+
+/**
+ * Purpose: Count how many of each game event happened, a simple analytics consumer of a GameEventRing.
+ * Assumptions: only read after the thread handling events has finished (e.g. after GameEventConsumer.stop), or from
+ * that thread
+ * Dependencies: This class depends on the GameEvent and GameEventHandler classes.
+ * Example: run it with new GameEventConsumer(ring.newReader(), counts, "Event counts") and print it when the game
+ * closes, e.g. "Events: BRICK_HIT=0 BRICK_DESTROYED=42 PADDLE_HIT=40 ..."
+ *
+ * @author Evan Kenyon
+ */
+public class GameEventCounts implements GameEventHandler {
+
+    private long[] counts;
+
+    /**
+     * Purpose: Construct counts that start at 0
+     * Assumptions: none
+     */
+    public GameEventCounts() {
+        counts = new long[GameEvent.values().length];
+    }
+
+    @Override
+    public void onEvent(GameEvent event, int value, int score, int lives) {
+        counts[event.ordinal()]++;
+    }
+
+    public long getCount(GameEvent event) {
+        return counts[event.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("Events:");
+        for(GameEvent event : GameEvent.values()) {
+            text.append(' ').append(event).append('=').append(counts[event.ordinal()]);
+        }
+        return text.toString();
+    }
+}
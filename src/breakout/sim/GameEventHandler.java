@@ -0,0 +1,23 @@
+package breakout.sim;
+
+/**
+ * Purpose: React to game events read from a GameEventRing.
+ * Assumptions: a handler is only called by the thread polling its reader
+ * Dependencies: This class depends on the GameEvent enum.
+ * Example: reader.poll((event, value, score, lives) -> counts[event.ordinal()]++, 100)
+ * Other details: an event's fields are passed as primitives, so reading events never allocates.
+ *
+ * @author Evan Kenyon
+ */
+@FunctionalInterface
+public interface GameEventHandler {
+
+    /**
+     * Purpose: Handle one event
+     * @param event what happened
+     * @param value what it happened to (see GameEvent)
+     * @param score the score just after it happened
+     * @param lives the lives left just after it happened
+     */
+    void onEvent(GameEvent event, int value, int score, int lives);
+}
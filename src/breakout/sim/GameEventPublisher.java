@@ -0,0 +1,73 @@
+package breakout.sim;
+
+/**
+ * Purpose: Publish what happens in a World to a GameEventRing, so that everything reacting to it can read the events
+ * on its own thread (or once a frame) instead of running inside of World.step.
+ * Assumptions: the World is stepped on one thread, which is the ring's only publisher
+ * Dependencies: This class depends on the World, WorldListener, GameEventRing, GameEvent, and PowerUp classes.
+ * Example: world.setListener(new GameEventPublisher(ring, world)), or subclass it to also react to changes right
+ * away (Breakout does, for the brick nodes which have to be up to date before the frame is drawn).
+ * Other details: publishing an event is a handful of array writes, every event carries the score and lives as they
+ * were right after it happened.
+ *
+ * @author Evan Kenyon
+ */
+public class GameEventPublisher implements WorldListener {
+
+    private GameEventRing ring;
+    private World world;
+
+    /**
+     * Purpose: Construct a publisher of world's events
+     * Assumptions: this is set as world's listener
+     * @param ring the ring to publish to
+     * @param world the World whose score and lives go with each event
+     */
+    public GameEventPublisher(GameEventRing ring, World world) {
+        this.ring = ring;
+        this.world = world;
+    }
+
+    @Override
+    public void brickDestroyed(int cell) {
+        publish(GameEvent.BRICK_DESTROYED, cell);
+    }
+
+    @Override
+    public void brickHit(int cell) {
+        publish(GameEvent.BRICK_HIT, cell);
+    }
+
+    @Override
+    public void paddleHit() {
+        publish(GameEvent.PADDLE_HIT, 0);
+    }
+
+    @Override
+    public void powerUpCaught(PowerUp powerUp) {
+        publish(GameEvent.POWER_UP_CAUGHT, powerUp.ordinal());
+    }
+
+    @Override
+    public void lifeLost() {
+        publish(GameEvent.LIFE_LOST, 0);
+    }
+
+    @Override
+    public void gameEnded(World.Status status) {
+        publish(status == World.Status.WON ? GameEvent.LEVEL_CLEARED : GameEvent.GAME_LOST, 0);
+    }
+
+    /**
+     * Purpose: Publish that the World was put back to a snapshot, since the score and lives it carries can be lower
+     * than in the events before it
+     * Assumptions: called on the thread stepping the World, after World.restore
+     */
+    public void restored() {
+        publish(GameEvent.RESTORED, 0);
+    }
+
+    private void publish(GameEvent event, int value) {
+        ring.publish(event, value, world.getScore(), world.getLives());
+    }
+}
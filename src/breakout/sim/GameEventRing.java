@@ -0,0 +1,174 @@
+package breakout.sim;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Purpose: Pass game events from the thread stepping the World to any number of readers on other threads without
+ * locks, allocation, or ever making the World wait, so that whatever reacts to events stays off of the tick.
+ * Assumptions: publish is only ever called from one thread (the one stepping the World), and each Reader is only
+ * polled from one thread at a time
+ * Dependencies: This class depends on the GameEvent and GameEventHandler classes and the VarHandle class.
+ * Example: ring = new GameEventRing(GameEventRing.DEFAULT_CAPACITY), give the World a GameEventPublisher for it, and
+ * have each consumer call ring.newReader() and poll it whenever it's ready for more events.
+ * Other details: every slot is allocated up front, with one primitive array per field. Each event takes the next
+ * sequence number, and readers keep their own next sequence, so every reader sees every event. Readers don't hold
+ * the publisher back: one that falls a whole ring behind skips ahead to the oldest event still in the ring, and counts
+ * the events it missed. The publisher claims a sequence before overwriting its slot and publishes it afterwards, so a
+ * reader can tell when a slot it read was overwritten while it was reading it and drop what it read.
+ *
+ * @author Evan Kenyon
+ */
+public class GameEventRing {
+
+    // Far more than a frame's worth of events even with lasers, so readers that poll once a frame never fall behind
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+
+    private static final VarHandle CLAIMED;
+    private static final VarHandle PUBLISHED;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            CLAIMED = lookup.findVarHandle(GameEventRing.class, "claimed", long.class);
+            PUBLISHED = lookup.findVarHandle(GameEventRing.class, "published", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private int capacity;
+    private int mask;
+    private byte[] events;
+    private int[] values;
+    private int[] scores;
+    private int[] lives;
+    // One past the last sequence the publisher started writing, and one past the last one it finished writing
+    private long claimed;
+    private long published;
+
+    /**
+     * Purpose: Construct an empty ring
+     * Assumptions: capacity is a power of 2
+     * @param capacity how many events a reader can fall behind by before it misses some
+     */
+    public GameEventRing(int capacity) {
+        if(Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of 2: " + capacity);
+        }
+        this.capacity = capacity;
+        mask = capacity - 1;
+        events = new byte[capacity];
+        values = new int[capacity];
+        scores = new int[capacity];
+        lives = new int[capacity];
+    }
+
+    /**
+     * Purpose: Add an event for every reader to see, overwriting the oldest one if the ring is full
+     * Assumptions: only called from the publishing thread
+     * @param event what happened
+     * @param value what it happened to (see GameEvent)
+     * @param score the score just after it happened
+     * @param livesLeft the lives left just after it happened
+     */
+    public void publish(GameEvent event, int value, int score, int livesLeft) {
+        // Only this thread writes the sequences, so plain reads of them are up to date here
+        long sequence = published;
+        CLAIMED.setRelease(this, sequence + 1);
+        // The claim has to be visible before any of the slot's fields change
+        VarHandle.storeStoreFence();
+        int slot = (int) sequence & mask;
+        events[slot] = (byte) event.ordinal();
+        values[slot] = value;
+        scores[slot] = score;
+        lives[slot] = livesLeft;
+        PUBLISHED.setRelease(this, sequence + 1);
+    }
+
+    /**
+     * Purpose: Make a reader that sees every event published from now on
+     * Assumptions: none
+     * @return a new reader
+     */
+    public Reader newReader() {
+        return new Reader((long) PUBLISHED.getAcquire(this));
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Purpose: Return how many events have been published in total
+     * Assumptions: none
+     * @return the number of events published
+     */
+    public long getPublished() {
+        return (long) PUBLISHED.getAcquire(this);
+    }
+
+    /**
+     * Purpose: Read one consumer's events from a GameEventRing, from whichever thread that consumer runs on.
+     * Assumptions: only polled from one thread at a time
+     * Other details: see GameEventRing for what happens when a reader falls behind.
+     */
+    public class Reader {
+
+        private long next;
+        private long missed;
+
+        private Reader(long next) {
+            this.next = next;
+        }
+
+        /**
+         * Purpose: Hand every event published since the last poll to handler, up to limit of them
+         * Assumptions: none
+         * @param handler what to do with each event
+         * @param limit the most events to handle
+         * @return how many events were handled
+         */
+        public int poll(GameEventHandler handler, int limit) {
+            long available = (long) PUBLISHED.getAcquire(GameEventRing.this);
+            int handled = 0;
+            while(next < available && handled < limit) {
+                int slot = (int) next & mask;
+                GameEvent event = GameEvent.get(events[slot]);
+                int value = values[slot];
+                int score = scores[slot];
+                int livesLeft = lives[slot];
+                // The fields have to be read before checking whether the publisher had started overwriting them
+                VarHandle.loadLoadFence();
+                long oldest = (long) CLAIMED.getAcquire(GameEventRing.this) - capacity;
+                if(next < oldest) {
+                    missed += oldest - next;
+                    next = oldest;
+                    continue;
+                }
+                next++;
+                handled++;
+                handler.onEvent(event, value, score, livesLeft);
+            }
+            return handled;
+        }
+
+        /**
+         * Purpose: Return how many events this reader skipped because it fell a whole ring behind
+         * Assumptions: none
+         * @return the number of events missed
+         */
+        public long getMissed() {
+            return missed;
+        }
+
+        /**
+         * Purpose: Return how many published events this reader hasn't handled yet (including any it will miss)
+         * Assumptions: none
+         * @return the number of events waiting
+         */
+        public long getBacklog() {
+            return (long) PUBLISHED.getAcquire(GameEventRing.this) - next;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package breakout.sim;
+
+/**
+ * Purpose: The things a player can do in a breakout game, as plain data so that they can be recorded and replayed.
+ * Assumptions: none
+ * Dependencies: This class depends on the World class.
+ * Example: The Breakout class turns each arrow key going down or up into a PRESSED or RELEASED Input and applies it
+ * to the World (and records it with a ReplayRecorder if it's recording).
+ * Other details: the order of the values is part of the replay file format, new values should only be added at the end.
+ * LEFT and RIGHT move the paddle once by paddleSpeed, which is what agents (see VectorEnv) and replays from before
+ * keys could be held use. The PRESSED and RELEASED values hold the paddle to one side, so that it moves every tick
+ * until the key comes back up.
+ *
+ * @author Evan Kenyon
+ */
+public enum Input {
+    LEFT, RIGHT, LAUNCH, LEFT_PRESSED, LEFT_RELEASED, RIGHT_PRESSED, RIGHT_RELEASED;
+
+    /**
+     * Purpose: Do what the player asked for in world
+     * Assumptions: none
+     * @param world the game being played
+     * @param paddleSpeed how far the paddle moves for each LEFT or RIGHT
+     */
+    public void apply(World world, int paddleSpeed) {
+        switch (this) {
+            case LEFT -> world.movePaddle(-paddleSpeed);
+            case RIGHT -> world.movePaddle(paddleSpeed);
+            case LAUNCH -> world.launchBall();
+            case LEFT_PRESSED -> world.holdLeft(true);
+            case LEFT_RELEASED -> world.holdLeft(false);
+            case RIGHT_PRESSED -> world.holdRight(true);
+            case RIGHT_RELEASED -> world.holdRight(false);
+        }
+    }
+}
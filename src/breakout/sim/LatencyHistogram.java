@@ -0,0 +1,102 @@
+package breakout.sim;
+
+import java.util.Arrays;
+
+/**
+ * Purpose: Count how many times each latency was seen, in buckets that are about 6% wide however big the latency is,
+ * so that percentiles can be read without keeping every sample and recording never allocates.
+ * Assumptions: latencies are not negative
+ * Dependencies: This class depends on the Arrays class.
+ * Example: call record with how many nanoseconds something took each time it runs, and getPercentile(99) for its p99.
+ * Other details: values below SUB_BUCKETS get a bucket each, after that every power of 2 is split into SUB_BUCKETS
+ * buckets (the same log-linear layout HdrHistogram uses), which is 960 buckets for the whole range of a long.
+ * Percentiles are reported as the top of their bucket (but never more than the max, which is exact).
+ *
+ * @author Evan Kenyon
+ */
+public class LatencyHistogram {
+
+    public static final int SUB_BUCKET_BITS = 4;
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private long[] counts;
+    private long total;
+    private long max;
+
+    /**
+     * Purpose: Construct an empty histogram
+     * Assumptions: none
+     */
+    public LatencyHistogram() {
+        counts = new long[getBucket(Long.MAX_VALUE) + 1];
+    }
+
+    /**
+     * Purpose: Count one latency
+     * Assumptions: value is not negative
+     * @param value the latency, e.g. in nanoseconds
+     */
+    public void record(long value) {
+        counts[getBucket(value)]++;
+        total++;
+        max = Math.max(max, value);
+    }
+
+    private static int getBucket(long value) {
+        if(value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    // The largest value that falls into the bucket
+    private static long getBucketTop(int bucket) {
+        if(bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long bottom = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+        return bottom + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * Purpose: Return the latency that the given percent of recorded latencies are at or below
+     * Assumptions: percentile is between 0 and 100
+     * @param percentile which percentile, e.g. 99
+     * @return the latency, or 0 if nothing has been recorded
+     */
+    public long getPercentile(double percentile) {
+        if(total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for(int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if(seen >= target) {
+                return Math.min(max, getBucketTop(bucket));
+            }
+        }
+        return max;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Purpose: Forget everything that has been recorded
+     * Assumptions: none
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        total = 0;
+        max = 0;
+    }
+}
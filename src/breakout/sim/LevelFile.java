@@ -0,0 +1,196 @@
+package breakout.sim;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Purpose: Write levels (a BrickField's layout, hit points, and palette) in the binary level format that
+ * LevelLoader reads, and read levels written by hand in the text format, so that games can be played on designed
+ * levels instead of only randomly generated ones.
+ * Assumptions: none
+ * Dependencies: This class depends on the BrickField, Palette, LevelGenerator, and BrickPattern classes and the
+ * DataOutputStream and Files classes.
+ * Example: java breakout.sim.LevelFile --text=data/stripes.txt --out=data/stripes.level converts a text level, and
+ * java breakout.sim.LevelFile --scene-size=70000 --seed=307 --out=giant.level writes a randomly generated one
+ * (add --pattern=caves for one generated from a BrickPattern).
+ * Other details: the binary format (big-endian) is: magic (int), version (byte), columns, rows, brick width, brick
+ * height, and palette size (ints), the palette's 0xRRGGBB colors (ints), then 2 bytes per cell (hit points, then
+ * palette index) in the BrickField's column-major cell order, so that any range of cells can be read on its own.
+ * The text format is a list of lines: "brick-size W [H]", then "brick C HP RRGGBB" to say that the character C is a
+ * brick with HP hit points and that color, then "rows" followed by one line per row of bricks with a character per
+ * column ('.' or a space for an empty cell). Lines starting with # are comments.
+ *
+ * @author Evan Kenyon
+ */
+public final class LevelFile {
+
+    public static final int MAGIC = 0x42524B4C;
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 4 + 1 + 5 * 4;
+    public static final int BYTES_PER_CELL = 2;
+    public static final char EMPTY_CELL = '.';
+
+    private LevelFile() {
+    }
+
+    /**
+     * Purpose: Write field to file in the binary level format
+     * Assumptions: none
+     * @param field the level's bricks
+     * @param file where to write the level, replacing it if it already exists
+     * @throws IOException if the file couldn't be written to
+     */
+    public static void write(BrickField field, Path file) throws IOException {
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            Palette palette = field.getPalette();
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(field.getColumns());
+            out.writeInt(field.getRows());
+            out.writeInt(field.getBrickWidth());
+            out.writeInt(field.getBrickHeight());
+            out.writeInt(palette.size());
+            for(int i = 0; i < palette.size(); i++) {
+                out.writeInt(palette.getColor(i));
+            }
+            for(int cell = 0; cell < field.getCellCount(); cell++) {
+                out.writeByte(field.getHitPoints(cell));
+                out.writeByte(field.getColor(cell));
+            }
+        }
+    }
+
+    /**
+     * Purpose: Read a level written in the text format
+     * Assumptions: none
+     * @param file the text level
+     * @return the level's bricks
+     * @throws IOException if the file couldn't be read or isn't a valid text level
+     */
+    public static BrickField readText(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        int brickWidth = World.BRICK_SIZE;
+        int brickHeight = World.BRICK_SIZE;
+        Map<Character, int[]> bricks = new HashMap<>();
+        List<Integer> colors = new ArrayList<>();
+        int lineNumber = 0;
+        while(lineNumber < lines.size()) {
+            String line = lines.get(lineNumber++).strip();
+            if(line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            try {
+                switch (parts[0]) {
+                    case "brick-size" -> {
+                        brickWidth = Integer.parseInt(parts[1]);
+                        brickHeight = parts.length > 2 ? Integer.parseInt(parts[2]) : brickWidth;
+                    }
+                    case "brick" -> {
+                        int hitPoints = Integer.parseInt(parts[2]);
+                        int color = Integer.parseInt(parts[3], 16);
+                        if(parts[1].length() != 1 || parts[1].charAt(0) == EMPTY_CELL || hitPoints < 1
+                                || hitPoints > BrickField.MAX_HIT_POINTS) {
+                            throw new IOException(file + ":" + lineNumber + ": invalid brick");
+                        }
+                        if(!colors.contains(color)) {
+                            colors.add(color);
+                        }
+                        bricks.put(parts[1].charAt(0), new int[] {hitPoints, colors.indexOf(color)});
+                    }
+                    case "rows" -> {
+                        return readRows(file, lines.subList(lineNumber, lines.size()), lineNumber, bricks,
+                                toPalette(colors), brickWidth, brickHeight);
+                    }
+                    default -> throw new IOException(file + ":" + lineNumber + ": unknown line " + parts[0]);
+                }
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException(file + ":" + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        throw new IOException(file + ": no rows");
+    }
+
+    private static BrickField readRows(Path file, List<String> rowLines, int firstLineNumber,
+                                       Map<Character, int[]> bricks, Palette palette, int brickWidth, int brickHeight)
+            throws IOException {
+        int columns = 0;
+        for(String row : rowLines) {
+            columns = Math.max(columns, row.stripTrailing().length());
+        }
+        // Blank lines at the end of the file aren't rows
+        int rows = rowLines.size();
+        while(rows > 0 && rowLines.get(rows - 1).isBlank()) {
+            rows--;
+        }
+        BrickField field = new BrickField(Math.max(1, columns), Math.max(1, rows), brickWidth, brickHeight, palette);
+        for(int row = 0; row < rows; row++) {
+            String line = rowLines.get(row);
+            for(int col = 0; col < line.length(); col++) {
+                char c = line.charAt(col);
+                if(c == EMPTY_CELL || c == ' ') {
+                    continue;
+                }
+                int[] brick = bricks.get(c);
+                if(brick == null) {
+                    throw new IOException(file + ":" + (firstLineNumber + row + 1) + ": unknown brick " + c);
+                }
+                field.setBrick(col * field.getRows() + row, brick[0], brick[1]);
+            }
+        }
+        return field;
+    }
+
+    private static Palette toPalette(List<Integer> colors) {
+        int[] palette = new int[Math.max(1, colors.size())];
+        for(int i = 0; i < colors.size(); i++) {
+            palette[i] = colors.get(i);
+        }
+        return new Palette(palette);
+    }
+
+    /**
+     * Purpose: Write a binary level, either converted from a text level or randomly generated
+     * Assumptions: none
+     * @param args --out=path (required), and either --text=path or any of --scene-size, --brick-size,
+     *             --blocked-freq, and --seed for a generated level, plus --pattern=name (see BrickPattern.forName)
+     *             to generate it with a LevelGenerator instead of the way the standard game does
+     * @throws IOException if a file couldn't be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for(String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(parts[0], parts.length == 2 ? parts[1] : "");
+        }
+        BrickField field;
+        if(options.containsKey("text")) {
+            field = readText(Path.of(options.get("text")));
+        } else if(options.containsKey("pattern")) {
+            int sceneSize = Integer.parseInt(options.getOrDefault("scene-size", "" + World.SCENE_SIZE));
+            int brickSize = Integer.parseInt(options.getOrDefault("brick-size", "" + World.BRICK_SIZE));
+            LevelGenerator generator = new LevelGenerator(BrickPattern.forName(options.get("pattern")), Palette.DEFAULT);
+            long start = System.nanoTime();
+            field = generator.generateForScene(sceneSize, brickSize, Long.parseLong(options.getOrDefault("seed", "0")));
+            System.out.printf("Generated in %.1f ms%n", (System.nanoTime() - start) / 1e6);
+        } else {
+            int sceneSize = Integer.parseInt(options.getOrDefault("scene-size", "" + World.SCENE_SIZE));
+            int brickSize = Integer.parseInt(options.getOrDefault("brick-size", "" + World.BRICK_SIZE));
+            field = new BrickField(sceneSize, sceneSize, brickSize, brickSize,
+                    Double.parseDouble(options.getOrDefault("blocked-freq", "" + World.BLOCKED_ROW_OR_COL_FREQ)),
+                    new Random(Long.parseLong(options.getOrDefault("seed", "0"))));
+        }
+        Path out = Path.of(options.get("out"));
+        write(field, out);
+        System.out.printf("Wrote %d x %d cells (%d bricks) to %s, %d bytes%n", field.getColumns(), field.getRows(),
+                field.getRemaining(), out, Files.size(out));
+    }
+}
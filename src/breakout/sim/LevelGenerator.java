@@ -0,0 +1,135 @@
+package breakout.sim;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Purpose: Generate a level's bricks from a BrickPattern in parallel, by splitting the field into square tiles that
+ * are each filled on their own with a random stream derived from the level's seed.
+ * Assumptions: the pattern isn't being used to generate another field at the same time
+ * Dependencies: This class depends on the BrickPattern, BrickField, Palette, and Seeds classes and the
+ * SplittableRandom, ForkJoinPool, and IntStream classes.
+ * Example: field = new LevelGenerator(new CavePattern(), Palette.DEFAULT).generate(1401, 701, 49, 49, seed), then
+ * World.create(settings, field, seed), or LevelFile.write(field, path) to save it.
+ * Other details: tile i's stream is seeded with Seeds.mix(seed, i) and its cells are always filled in the same order,
+ * so the field only depends on the seed and never on how many threads there are or which tiles they pick up first.
+ * Tiles only write their own cells, so they need no locking.
+ *
+ * @author Evan Kenyon
+ */
+public class LevelGenerator {
+
+    // 64 x 64 cells is 4096 bricks a tile, big enough that splitting the work up costs next to nothing and small
+    // enough that a million brick field still has a couple hundred tiles to share out
+    public static final int TILE_SIZE = 64;
+
+    private BrickPattern pattern;
+    private Palette palette;
+
+    /**
+     * Purpose: Construct a generator for fields in the given pattern with colors from palette
+     * Assumptions: none
+     * @param pattern where the bricks go
+     * @param palette the colors that bricks are picked from
+     */
+    public LevelGenerator(BrickPattern pattern, Palette palette) {
+        this.pattern = pattern;
+        this.palette = palette;
+    }
+
+    /**
+     * Purpose: Generate a field on the common fork-join pool
+     * Assumptions: columns and rows are positive
+     * @param columns how many columns of cells there are
+     * @param rows how many rows of cells there are
+     * @param brickWidth width of each brick
+     * @param brickHeight height of each brick
+     * @param seed seed for everything random about the field
+     * @return the generated field
+     */
+    public BrickField generate(int columns, int rows, int brickWidth, int brickHeight, long seed) {
+        BrickField field = new BrickField(columns, rows, brickWidth, brickHeight, palette);
+        pattern.prepare(columns, rows, seed);
+        int tileColumns = (columns + TILE_SIZE - 1) / TILE_SIZE;
+        int tileRows = (rows + TILE_SIZE - 1) / TILE_SIZE;
+        int remaining = IntStream.range(0, tileColumns * tileRows).parallel()
+                .map(tile -> fillTile(field, tile / tileRows, tile % tileRows, Seeds.mix(seed, tile)))
+                .sum();
+        field.addRemaining(remaining);
+        return field;
+    }
+
+    /**
+     * Purpose: Generate a field on a pool with the given number of threads, which gives the same field as any other
+     * number of threads
+     * Assumptions: threads is positive, columns and rows are positive
+     * @param columns how many columns of cells there are
+     * @param rows how many rows of cells there are
+     * @param brickWidth width of each brick
+     * @param brickHeight height of each brick
+     * @param seed seed for everything random about the field
+     * @param threads how many threads to fill tiles on
+     * @return the generated field
+     * @throws InterruptedException if interrupted while waiting for the tiles to be filled
+     * @throws ExecutionException if the pattern threw an exception
+     */
+    public BrickField generate(int columns, int rows, int brickWidth, int brickHeight, long seed, int threads)
+            throws InterruptedException, ExecutionException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> generate(columns, rows, brickWidth, brickHeight, seed)).get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Purpose: Generate a field on the common fork-join pool with the same lattice the standard game has for a
+     * square scene (enough cells to cover its top half)
+     * Assumptions: brickSize is 1 less than a factor of sceneSize
+     * @param sceneSize width and height of the scene
+     * @param brickSize width and height of each brick
+     * @param seed seed for everything random about the field
+     * @return the generated field
+     */
+    public BrickField generateForScene(int sceneSize, int brickSize, long seed) {
+        return generate(BrickField.getColumnsFitting(sceneSize, brickSize),
+                BrickField.getRowsFitting(sceneSize, brickSize), brickSize, brickSize, seed);
+    }
+
+    // Returns how many bricks were put in the tile
+    private int fillTile(BrickField field, int tileColumn, int tileRow, long tileSeed) {
+        SplittableRandom rand = new SplittableRandom(tileSeed);
+        int rows = field.getRows();
+        int toColumn = Math.min(field.getColumns(), (tileColumn + 1) * TILE_SIZE);
+        int fromRow = tileRow * TILE_SIZE;
+        int toRow = Math.min(rows, fromRow + TILE_SIZE);
+        int bricks = 0;
+        for(int col = tileColumn * TILE_SIZE; col < toColumn; col++) {
+            for(int row = fromRow; row < toRow; row++) {
+                int hitPoints = pattern.getHitPoints(col, row, rand);
+                if(hitPoints > 0) {
+                    field.fillCell(col * rows + row, hitPoints, rand.nextInt(palette.size()));
+                    bricks++;
+                }
+            }
+        }
+        return bricks;
+    }
+
+    /**
+     * Purpose: Mix a seed and a cell into a random looking number, for patterns whose choices have to line up between
+     * neighboring cells no matter which tile (or thread) works them out
+     * Assumptions: none
+     * @param seed the level's seed
+     * @param column a column (or any other x coordinate)
+     * @param row a row (or any other y coordinate)
+     * @return 64 random looking bits, always the same for the same arguments
+     */
+    static long hash(long seed, int column, int row) {
+        // Mixing is one-to-one, so no two cells of the same level get the same bits
+        return Seeds.mix(seed ^ ((long) column << 32 | (row & 0xFFFFFFFFL)), 0);
+    }
+}
@@ -0,0 +1,194 @@
+package breakout.sim;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Purpose: Load a binary level (see LevelFile) into a BrickField a chunk of cells at a time, so that a game on a very
+ * large level can start before the whole level has been read, and report how long loading took and how much heap it
+ * used so that huge levels can be kept under a startup budget.
+ * Assumptions: the file was written by LevelFile.write and isn't changed while it's being loaded
+ * Dependencies: This class depends on the BrickField, Palette, and LevelFile classes and the FileChannel and
+ * MappedByteBuffer classes.
+ * Example: Construct a LevelLoader, call loadChunk until the field has a brick in it, start the game on getField(), and
+ * call loadChunk once per tick until isLoaded. java breakout.sim.LevelLoader --file=giant.level loads a whole level
+ * and prints its report.
+ * Other details: the file is memory-mapped, so only the pages holding the chunk being loaded are read from disk.
+ * Cells are loaded in column-major order (left to right), each chunk is copied out of the mapping into one reused
+ * array and then put into the BrickField, so loading doesn't allocate past the BrickField itself.
+ *
+ * @author Evan Kenyon
+ */
+public class LevelLoader {
+
+    // 64k cells is a few hundred microseconds of loading, which fits in a tick with room to spare
+    public static final int DEFAULT_CHUNK_CELLS = 1 << 16;
+
+    private MappedByteBuffer buffer;
+    private int cellsStart;
+    private int paletteSize;
+    private BrickField field;
+    private byte[] chunk;
+    private int chunkCells;
+    private int loadedCells;
+    private int chunks;
+    private long fileBytes;
+    private long loadNanos;
+    private long firstChunkNanos;
+    private long heapBefore;
+    private long heapAfter;
+
+    /**
+     * Purpose: Open a level file and read its header, which is enough to know the size of the level and its palette
+     * Assumptions: chunkCells is positive
+     * @param file a binary level
+     * @param chunkCells how many cells loadChunk loads at most
+     * @throws IOException if the file couldn't be read or isn't a valid level
+     */
+    public LevelLoader(Path file, int chunkCells) throws IOException {
+        heapBefore = getUsedHeap();
+        long start = System.nanoTime();
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            fileBytes = channel.size();
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileBytes);
+        }
+        if(fileBytes < LevelFile.HEADER_BYTES || buffer.getInt() != LevelFile.MAGIC) {
+            throw new IOException("Not a level file: " + file);
+        }
+        int version = buffer.get();
+        if(version != LevelFile.VERSION) {
+            throw new IOException("Unsupported level version " + version + ": " + file);
+        }
+        int columns = buffer.getInt();
+        int rows = buffer.getInt();
+        int brickWidth = buffer.getInt();
+        int brickHeight = buffer.getInt();
+        paletteSize = buffer.getInt();
+        if(columns <= 0 || rows <= 0 || paletteSize <= 0 || paletteSize > Palette.MAX_SIZE) {
+            throw new IOException("Invalid level header: " + file);
+        }
+        cellsStart = LevelFile.HEADER_BYTES + paletteSize * 4;
+        if(fileBytes != cellsStart + (long) columns * rows * LevelFile.BYTES_PER_CELL) {
+            throw new IOException("Level file is the wrong size for its header: " + file);
+        }
+        int[] colors = new int[paletteSize];
+        for(int i = 0; i < paletteSize; i++) {
+            colors[i] = buffer.getInt();
+        }
+        field = new BrickField(columns, rows, brickWidth, brickHeight, new Palette(colors));
+        this.chunkCells = chunkCells;
+        chunk = new byte[Math.min(chunkCells, field.getCellCount()) * LevelFile.BYTES_PER_CELL];
+        loadedCells = 0;
+        chunks = 0;
+        loadNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Purpose: Load the next chunk of cells into the field
+     * Assumptions: none
+     * @return true if there are still cells left to load, false once the whole level is loaded
+     * @throws IOException if a brick in the chunk has a color that isn't in the level's palette
+     */
+    public boolean loadChunk() throws IOException {
+        if(isLoaded()) {
+            return false;
+        }
+        long start = System.nanoTime();
+        int count = Math.min(chunkCells, field.getCellCount() - loadedCells);
+        buffer.get(cellsStart + loadedCells * LevelFile.BYTES_PER_CELL, chunk, 0, count * LevelFile.BYTES_PER_CELL);
+        for(int i = 0; i < count; i++) {
+            byte hitPoints = chunk[i * LevelFile.BYTES_PER_CELL];
+            if(hitPoints > 0) {
+                int color = chunk[i * LevelFile.BYTES_PER_CELL + 1] & 0xFF;
+                if(color >= paletteSize) {
+                    throw new IOException("Cell " + (loadedCells + i) + " has color " + color
+                            + " but the palette only has " + paletteSize + " colors");
+                }
+                field.setBrick(loadedCells + i, hitPoints, color);
+            }
+        }
+        loadedCells += count;
+        chunks++;
+        long nanos = System.nanoTime() - start;
+        loadNanos += nanos;
+        if(chunks == 1) {
+            firstChunkNanos = loadNanos;
+        }
+        if(isLoaded()) {
+            heapAfter = getUsedHeap();
+        }
+        return !isLoaded();
+    }
+
+    /**
+     * Purpose: Load whatever is left of the level
+     * Assumptions: none
+     * @return the fully loaded field
+     * @throws IOException if a brick has a color that isn't in the level's palette
+     */
+    public BrickField load() throws IOException {
+        while(loadChunk()) {
+            // loadChunk does all of the work
+        }
+        return field;
+    }
+
+    private static long getUsedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Purpose: Return the level's bricks, which only has the cells before getLoadedCells() filled in until isLoaded
+     * Assumptions: none
+     * @return the level's bricks
+     */
+    public BrickField getField() {
+        return field;
+    }
+
+    public int getLoadedCells() {
+        return loadedCells;
+    }
+
+    public boolean isLoaded() {
+        return loadedCells == field.getCellCount();
+    }
+
+    /**
+     * Purpose: Describe how loading went, i.e. how big the level is, how long it took to load (in total and until the
+     * first chunk was in), and how much heap it used
+     * Assumptions: isLoaded() (otherwise the heap use isn't known yet)
+     * @return the report
+     */
+    public String getReport() {
+        return String.format("Loaded %d x %d cells (%d bricks, %.1f KB file) in %d chunks: %.2f ms to the first "
+                        + "chunk, %.2f ms in total. The field takes %.1f KB (heap grew by %.1f KB while loading)",
+                field.getColumns(), field.getRows(), field.getRemaining(), fileBytes / 1e3, chunks,
+                firstChunkNanos / 1e6, loadNanos / 1e6,
+                (double) field.getCellCount() * LevelFile.BYTES_PER_CELL / 1e3, (heapAfter - heapBefore) / 1e3);
+    }
+
+    /**
+     * Purpose: Load a level and print its report
+     * Assumptions: none
+     * @param args --file=path (required) and --chunk-cells=N
+     * @throws IOException if the level couldn't be read
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for(String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(parts[0], parts.length == 2 ? parts[1] : "");
+        }
+        LevelLoader loader = new LevelLoader(Path.of(options.get("file")),
+                Integer.parseInt(options.getOrDefault("chunk-cells", "" + DEFAULT_CHUNK_CELLS)));
+        loader.load();
+        System.out.println(loader.getReport());
+    }
+}
@@ -0,0 +1,59 @@
+package breakout.sim;
+
+import java.util.SplittableRandom;
+
+/**
+ * Purpose: Lay bricks out as the walls of a maze, where every open cell can be reached from every other one.
+ * Assumptions: none
+ * Dependencies: This class depends on the BrickPattern interface, the LevelGenerator class (for hashing), and the
+ * SplittableRandom class.
+ * Example: new LevelGenerator(new MazePattern(), Palette.DEFAULT)
+ * Other details: cells with an even column and row are open, cells with an odd column and row are always walls,
+ * and the rest are the walls in between, which are knocked down with the binary tree algorithm: each open cell joins
+ * up with the one to its right or the one above it (at random), except along the top and right edges where only one
+ * way is left. Since that choice only depends on the open cell's own hash, every wall can be worked out on its own,
+ * which more common maze algorithms (like a depth first search) can't do.
+ *
+ * @author Evan Kenyon
+ */
+public class MazePattern implements BrickPattern {
+
+    public static final String NAME = "maze";
+
+    private int rows;
+    private int lastOpenColumn;
+    private long seed;
+
+    @Override
+    public void prepare(int columns, int rows, long seed) {
+        this.rows = rows;
+        lastOpenColumn = (columns - 1) & ~1;
+        this.seed = seed;
+    }
+
+    @Override
+    public int getHitPoints(int column, int row, SplittableRandom rand) {
+        boolean evenColumn = (column & 1) == 0;
+        boolean evenRow = (row & 1) == 0;
+        if(evenColumn && evenRow) {
+            return 0;
+        }
+        if(!evenColumn && !evenRow) {
+            return 1;
+        }
+        if(evenRow) {
+            // Between the open cells to the left and right
+            return isJoinedRight(column - 1, row) ? 0 : 1;
+        }
+        // Between the open cells above and below (if there is one below), the one below can join up with it
+        return row + 1 == rows || isJoinedRight(column, row + 1) ? 1 : 0;
+    }
+
+    // Whether the open cell at column, row joins up with the one to its right (otherwise it joins the one above it)
+    private boolean isJoinedRight(int column, int row) {
+        if(column == lastOpenColumn) {
+            return false;
+        }
+        return row == 0 || (LevelGenerator.hash(seed, column, row) & 1) == 0;
+    }
+}
@@ -0,0 +1,43 @@
+package breakout.sim;
+
+import java.util.SplittableRandom;
+
+/**
+ * Purpose: Make any pattern symmetric, by mirroring its left half onto its right half.
+ * Assumptions: none
+ * Dependencies: This class depends on the BrickPattern interface and the SplittableRandom class.
+ * Example: new MirroredPattern(new CavePattern()), or BrickPattern.forName("mirrored-caves")
+ * Other details: the inner pattern is asked for the mirrored column, so it has to decide each cell from its column
+ * and row alone (with LevelGenerator.hash) and never from rand, since the mirrored cell is in a different tile with a
+ * different random stream. Every built-in pattern does. Colors are still picked from the tile's stream, so they
+ * aren't mirrored.
+ *
+ * @author Evan Kenyon
+ */
+public class MirroredPattern implements BrickPattern {
+
+    public static final String PREFIX = "mirrored-";
+
+    private BrickPattern pattern;
+    private int columns;
+
+    /**
+     * Purpose: Construct a symmetric version of pattern
+     * Assumptions: pattern's getHitPoints doesn't use rand
+     * @param pattern the pattern to mirror
+     */
+    public MirroredPattern(BrickPattern pattern) {
+        this.pattern = pattern;
+    }
+
+    @Override
+    public void prepare(int columns, int rows, long seed) {
+        this.columns = columns;
+        pattern.prepare(columns, rows, seed);
+    }
+
+    @Override
+    public int getHitPoints(int column, int row, SplittableRandom rand) {
+        return pattern.getHitPoints(Math.min(column, columns - 1 - column), row, rand);
+    }
+}
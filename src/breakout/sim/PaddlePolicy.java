@@ -0,0 +1,38 @@
+package breakout.sim;
+
+/**
+ * Purpose: Decide how a scripted player moves the paddle each tick, so that games can be played without a person
+ * (e.g. by the BatchSimulator).
+ * Assumptions: policies only read the World, they don't change it
+ * Dependencies: This class depends on the World and Balls classes.
+ * Example: PaddlePolicy.FOLLOW_BALL, or a lambda that returns how far the paddle should move this tick.
+ * Other details: whoever runs the policy limits the move to the game's paddle speed.
+ *
+ * @author Evan Kenyon
+ */
+@FunctionalInterface
+public interface PaddlePolicy {
+
+    /**
+     * Purpose: Move the paddle's center towards the nearest ball that is falling (or the first ball if none are).
+     * Catching the ball dead center never steers it, so it can end up bouncing along the same path forever, see
+     * AimingPolicy for a player that steers
+     */
+    PaddlePolicy FOLLOW_BALL = world -> {
+        Balls balls = world.getBalls();
+        int target = 0;
+        for(int i = 0; i < balls.getCount(); i++) {
+            if(balls.getYVelocity(i) > 0 && (balls.getYVelocity(target) <= 0 || balls.getY(i) > balls.getY(target))) {
+                target = i;
+            }
+        }
+        return balls.getX(target) - (world.getPaddleX() + world.getPaddleWidth() / 2);
+    };
+
+    /**
+     * Purpose: Decide how far to move the paddle this tick
+     * @param world the game being played
+     * @return how far the paddle should move (negative values move it left)
+     */
+    double getPaddleMove(World world);
+}
@@ -0,0 +1,71 @@
+package breakout.sim;
+
+import java.util.Random;
+
+/**
+ * Purpose: Hold the colors that bricks can be, so that each brick only has to store a 1 byte index into the palette
+ * instead of a color of its own.
+ * Assumptions: a palette has at most MAX_SIZE colors
+ * Dependencies: This class depends on the Random class.
+ * Example: BrickField stores a palette index per brick, and Bricks and BrickLayer turn the palette into JavaFX
+ * Colors once and look them up by index.
+ * Other details: colors are stored as 0xRRGGBB ints so that this class doesn't depend on JavaFX.
+ *
+ * @author Evan Kenyon
+ */
+public class Palette {
+
+    public static final int MAX_SIZE = 256;
+    public static final int DEFAULT_SIZE = 64;
+    // Fixed so that every game has the same palette, which bricks then pick from randomly
+    public static final long DEFAULT_SEED = 307;
+    public static final Palette DEFAULT = createRandom(DEFAULT_SIZE, new Random(DEFAULT_SEED));
+
+    private int[] colors;
+
+    /**
+     * Purpose: Construct a palette with the given colors
+     * Assumptions: there are between 1 and MAX_SIZE colors
+     * @param colors the colors as 0xRRGGBB ints
+     */
+    public Palette(int[] colors) {
+        this.colors = colors.clone();
+    }
+
+    /**
+     * Purpose: Construct a palette of random colors that are bright enough to see
+     * Assumptions: size is between 1 and MAX_SIZE
+     * @param size how many colors
+     * @param rand the source of randomness for the colors
+     * @return the palette
+     */
+    public static Palette createRandom(int size, Random rand) {
+        int[] colors = new int[size];
+        for(int i = 0; i < size; i++) {
+            colors[i] = (generateRandomColorPart(rand) << 16) | (generateRandomColorPart(rand) << 8)
+                    | generateRandomColorPart(rand);
+        }
+        return new Palette(colors);
+    }
+
+    // Made range for colors 0.1 to 1.0 instead of generic 0.0 to 1.0 so that bricks wouldn't be hard to see
+    // Based off of random color generator found at
+    // https://stackoverflow.com/questions/35715283/set-text-to-random-color-opacity-javafx/35715848
+    private static int generateRandomColorPart(Random rand) {
+        return (int) Math.round(((rand.nextDouble() * 0.9) + 0.1) * 255);
+    }
+
+    public int size() {
+        return colors.length;
+    }
+
+    /**
+     * Purpose: Return one of the palette's colors
+     * Assumptions: index is less than size()
+     * @param index the color's index
+     * @return the color as a 0xRRGGBB int
+     */
+    public int getColor(int index) {
+        return colors[index];
+    }
+}
@@ -0,0 +1,31 @@
+package breakout.sim;
+
+/**
+ * Purpose: The parts of a World step whose cost is measured separately by a PhaseProfiler, so that a slow tick can be
+ * put down to the part of the game's rules that made it slow.
+ * Assumptions: none
+ * Dependencies: none
+ * Example: PhaseProfiler.getPercentile(Phase.BRICK_CONTACTS, 99)
+ * Other details: SCENE_UPDATE is the time spent in the WorldListener, which is where Breakout adds and removes nodes.
+ *
+ * @author Evan Kenyon
+ */
+public enum Phase {
+    // Keeping the paddle inside of the world
+    PADDLE_BOUNDS,
+    // Moving balls back out of a paddle that was moved into them
+    PADDLE_PUSH_OUT,
+    // Finding when each ball next hits a wall, the paddle, and a brick
+    WALL_CONTACTS,
+    PADDLE_CONTACTS,
+    BRICK_CONTACTS,
+    // Moving each ball along its path and taking balls that went past the bottom out of play
+    BALL_MOVE,
+    // Bouncing off of whatever was hit, steering off of the paddle, and hitting bricks
+    BOUNCE,
+    // Moving the falling power-ups and lasers, catching power-ups, and lasers hitting bricks
+    ENTITIES,
+    SCENE_UPDATE,
+    // Losing a life and checking whether any bricks are left
+    WIN_CHECK
+}
@@ -0,0 +1,185 @@
+package breakout.sim;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Purpose: Measure how long each Phase of a World's steps takes, as a latency histogram per phase of the time spent
+ * in that phase each tick, so that when frames drop it's clear which part of the game's rules was slow.
+ * Assumptions: ticks are recorded from one thread (the one stepping the World), the getters can be called from any
+ * thread (e.g. by JMX) but may see a tick that is only partly recorded
+ * Dependencies: This class depends on the Phase, LatencyHistogram, and PhaseProfilerMBean classes and the JMX
+ * classes.
+ * Example: world.setProfiler(profiler), profiler.setEnabled(true), then read getPercentile(Phase.BRICK_CONTACTS, 99)
+ * or look at it in JConsole after calling register.
+ * Other details: the World switches phases with enter, which costs one System.nanoTime call. Time is added up per
+ * phase over a whole tick and recorded once the tick ends, so a phase that runs once per ball per contact is still
+ * one sample per tick. While disabled the World doesn't call this class at all. Nothing allocates after construction.
+ *
+ * @author Evan Kenyon
+ */
+public class PhaseProfiler implements PhaseProfilerMBean {
+
+    public static final String OBJECT_NAME = "breakout:type=PhaseProfiler";
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private LatencyHistogram[] histograms;
+    private long[] tickNanos;
+    private Phase current;
+    private long phaseStart;
+    private long ticks;
+    private volatile boolean enabled;
+    // Set by reset from any thread, and done by the recording thread at the end of the next tick
+    private volatile boolean resetRequested;
+
+    /**
+     * Purpose: Construct a disabled profiler with nothing recorded
+     * Assumptions: none
+     */
+    public PhaseProfiler() {
+        histograms = new LatencyHistogram[PHASES.length];
+        for(int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        tickNanos = new long[PHASES.length];
+    }
+
+    /**
+     * Purpose: Start timing a tick, in the given phase
+     * Assumptions: the last tick was ended
+     * @param phase the tick's first phase
+     */
+    public void startTick(Phase phase) {
+        current = phase;
+        phaseStart = System.nanoTime();
+    }
+
+    /**
+     * Purpose: Count the time since the last phase change towards that phase, and move on to the given phase
+     * Assumptions: a tick has been started
+     * @param phase the phase the tick is in now
+     */
+    public void enter(Phase phase) {
+        long now = System.nanoTime();
+        tickNanos[current.ordinal()] += now - phaseStart;
+        current = phase;
+        phaseStart = now;
+    }
+
+    /**
+     * Purpose: Finish timing a tick and record how long it spent in each phase
+     * Assumptions: a tick has been started
+     */
+    public void endTick() {
+        tickNanos[current.ordinal()] += System.nanoTime() - phaseStart;
+        if(resetRequested) {
+            for(LatencyHistogram histogram : histograms) {
+                histogram.reset();
+            }
+            ticks = 0;
+            resetRequested = false;
+        }
+        for(int i = 0; i < tickNanos.length; i++) {
+            histograms[i].record(tickNanos[i]);
+            tickNanos[i] = 0;
+        }
+        ticks++;
+    }
+
+    /**
+     * Purpose: Return a percentile of the time spent in a phase per tick
+     * Assumptions: percentile is between 0 and 100
+     * @param phase the phase
+     * @param percentile which percentile, e.g. 99
+     * @return the time in nanoseconds
+     */
+    public long getPercentile(Phase phase, double percentile) {
+        return histograms[phase.ordinal()].getPercentile(percentile);
+    }
+
+    public long getMax(Phase phase) {
+        return histograms[phase.ordinal()].getMax();
+    }
+
+    /**
+     * Purpose: Make the profiler visible over JMX under OBJECT_NAME
+     * Assumptions: no other PhaseProfiler has been registered in this JVM
+     * @throws JMException if the profiler couldn't be registered
+     */
+    public void register() throws JMException {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public long getTicks() {
+        return ticks;
+    }
+
+    @Override
+    public String[] getPhaseNames() {
+        String[] names = new String[PHASES.length];
+        for(int i = 0; i < names.length; i++) {
+            names[i] = PHASES[i].name();
+        }
+        return names;
+    }
+
+    @Override
+    public long[] getP50Nanos() {
+        return getPercentiles(50);
+    }
+
+    @Override
+    public long[] getP99Nanos() {
+        return getPercentiles(99);
+    }
+
+    @Override
+    public long[] getMaxNanos() {
+        long[] maxes = new long[PHASES.length];
+        for(int i = 0; i < maxes.length; i++) {
+            maxes[i] = histograms[i].getMax();
+        }
+        return maxes;
+    }
+
+    private long[] getPercentiles(double percentile) {
+        long[] percentiles = new long[PHASES.length];
+        for(int i = 0; i < percentiles.length; i++) {
+            percentiles[i] = histograms[i].getPercentile(percentile);
+        }
+        return percentiles;
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder report = new StringBuilder(String.format("Phases over %d ticks, p50/p99/max in us:", ticks));
+        for(Phase phase : PHASES) {
+            report.append(String.format("%n%-16s %8.2f %8.2f %8.2f", phase, getPercentile(phase, 50) / 1e3,
+                    getPercentile(phase, 99) / 1e3, getMax(phase) / 1e3));
+        }
+        return report.toString();
+    }
+
+    @Override
+    public void reset() {
+        resetRequested = true;
+    }
+
+    @Override
+    public String toString() {
+        return getReport();
+    }
+}
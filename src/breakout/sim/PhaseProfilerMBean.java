@@ -0,0 +1,33 @@
+package breakout.sim;
+
+/**
+ * Purpose: What a PhaseProfiler shows over JMX (e.g. in JConsole or VisualVM), under PhaseProfiler.OBJECT_NAME.
+ * Assumptions: none
+ * Dependencies: none
+ * Other details: the arrays are in the order of getPhaseNames, with latencies in nanoseconds per tick.
+ *
+ * @author Evan Kenyon
+ */
+public interface PhaseProfilerMBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getTicks();
+
+    String[] getPhaseNames();
+
+    long[] getP50Nanos();
+
+    long[] getP99Nanos();
+
+    long[] getMaxNanos();
+
+    String getReport();
+
+    /**
+     * Purpose: Forget everything that has been recorded, starting from the next tick
+     */
+    void reset();
+}
@@ -0,0 +1,37 @@
+package breakout.sim;
+
+/**
+ * Purpose: The power-ups that can fall from destroyed bricks, which take effect when the paddle catches them.
+ * Assumptions: none
+ * Dependencies: none
+ * Example: World stores a falling power-up's ordinal as its kind in an Entities, and PowerUp.get(kind) turns it back.
+ * Other details: WIDE_PADDLE and LASER last World.POWER_UP_SECONDS, catching another one restarts the time.
+ *
+ * @author Evan Kenyon
+ */
+public enum PowerUp {
+    // Makes the paddle wider
+    WIDE_PADDLE,
+    // Adds balls on top of the paddle
+    MULTI_BALL,
+    // Makes the paddle fire lasers that hit the bricks above it
+    LASER,
+    // Gives back a life
+    EXTRA_LIFE;
+
+    private static final PowerUp[] VALUES = values();
+
+    /**
+     * Purpose: Return the power-up with the given ordinal, without copying the values array
+     * Assumptions: kind is one of the ordinals
+     * @param kind the power-up's ordinal
+     * @return the power-up
+     */
+    public static PowerUp get(int kind) {
+        return VALUES[kind];
+    }
+
+    public static int getCount() {
+        return VALUES.length;
+    }
+}
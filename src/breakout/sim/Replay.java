@@ -0,0 +1,208 @@
+package breakout.sim;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Purpose: Play back a game recorded by a ReplayRecorder by rebuilding its World from the recorded seed and settings
+ * and stepping it while applying each recorded Input on the tick it was given on, which reproduces the game exactly.
+ * Assumptions: the World's rules haven't changed since the replay was recorded
+ * Dependencies: This class depends on the World, Settings, Input, ReplayRecorder, and Varint classes and the
+ * FileChannel and MappedByteBuffer classes.
+ * Example: java breakout.sim.Replay --file=game.replay --seek=3600 plays a replay as fast as possible up to tick 3600
+ * and prints the game's state there. The Breakout class plays one back at real time with --replay=game.replay.
+ * Other details: the file is memory-mapped and Inputs are decoded from it one at a time as the game reaches them, so
+ * playing back never copies the file or allocates. The layout is: magic (int), version (byte), seed (long), seconds
+ * per tick (double), then the Settings (scene size, brick size, blocked frequency as a double, paddle speed, ball
+ * speed as a double, ball count, lives, with the ints as varints), then the events (see ReplayRecorder). Seeking
+ * backwards replays from the start, which is cheap since uncapped playback runs millions of ticks per second.
+ *
+ * @author Evan Kenyon
+ */
+public class Replay {
+
+    private static final Input[] INPUTS = Input.values();
+
+    private MappedByteBuffer buffer;
+    private int eventsStart;
+    // Where the last whole event ends, anything after it was cut off part way through being written
+    private int eventsEnd;
+    // How events are packed, which depends on the file's version
+    private int inputBits;
+    private int endCode;
+    private long seed;
+    private double stepSeconds;
+    private Settings settings;
+    private long tickCount;
+    private World world;
+    private long tick;
+    // The next event that hasn't been applied yet
+    private long nextEventTick;
+    private int nextEventCode;
+
+    /**
+     * Purpose: Open a replay file and set up its game at tick 0
+     * Assumptions: none
+     * @param file a file written by a ReplayRecorder
+     * @throws IOException if the file couldn't be read or isn't a replay
+     */
+    public Replay(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if(buffer.remaining() < 5 || buffer.getInt() != ReplayRecorder.MAGIC) {
+            throw new IOException("Not a replay file: " + file);
+        }
+        int version = buffer.get();
+        if(version < 1 || version > ReplayRecorder.VERSION) {
+            throw new IOException("Unsupported replay version " + version + ": " + file);
+        }
+        // Version 1 only had LEFT, RIGHT, and LAUNCH, which fit in 2 bits
+        inputBits = version == 1 ? 2 : ReplayRecorder.INPUT_BITS;
+        endCode = (1 << inputBits) - 1;
+        try {
+            seed = buffer.getLong();
+            stepSeconds = buffer.getDouble();
+            settings = new Settings((int) Varint.read(buffer), (int) Varint.read(buffer), buffer.getDouble(),
+                    (int) Varint.read(buffer), buffer.getDouble(), (int) Varint.read(buffer),
+                    (int) Varint.read(buffer));
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Replay file is cut off before the end of its header: " + file);
+        }
+        eventsStart = buffer.position();
+        tickCount = countTicks();
+        restart();
+    }
+
+    // A game that wasn't closed properly has no END marker, so it's played back up to its last whole Input (a crash
+    // can cut the file off part way through one)
+    private long countTicks() {
+        long ticks = 0;
+        while(Varint.hasComplete(buffer)) {
+            long event = Varint.read(buffer);
+            ticks += event >>> inputBits;
+            if((event & endCode) == endCode) {
+                break;
+            }
+        }
+        eventsEnd = buffer.position();
+        return ticks;
+    }
+
+    private void restart() {
+        world = World.create(settings, seed);
+        tick = 0;
+        nextEventTick = 0;
+        buffer.position(eventsStart);
+        readNextEvent();
+    }
+
+    private void readNextEvent() {
+        if(buffer.position() >= eventsEnd) {
+            nextEventCode = endCode;
+            nextEventTick = tickCount;
+            return;
+        }
+        long event = Varint.read(buffer);
+        nextEventTick += event >>> inputBits;
+        nextEventCode = (int) (event & endCode);
+    }
+
+    /**
+     * Purpose: Apply the Inputs given on the current tick and step the game once
+     * Assumptions: none
+     * @return false if the replay had already ended (and the game wasn't stepped), true otherwise
+     */
+    public boolean step() {
+        if(tick >= tickCount) {
+            return false;
+        }
+        while(nextEventTick == tick && nextEventCode != endCode) {
+            INPUTS[nextEventCode].apply(world, settings.paddleSpeed());
+            readNextEvent();
+        }
+        world.step(stepSeconds);
+        tick++;
+        return true;
+    }
+
+    /**
+     * Purpose: Play the game as fast as possible up to the given tick, starting over first if it's already past it
+     * Assumptions: none
+     * @param target the tick to stop at, past the end of the replay is the same as its end
+     */
+    public void seek(long target) {
+        if(target < tick) {
+            restart();
+        }
+        while(tick < target && step()) {
+            // step does all of the work
+        }
+    }
+
+    /**
+     * Purpose: Return the game being played back, which is a new World after seeking backwards
+     * Assumptions: none
+     * @return the game
+     */
+    public World getWorld() {
+        return world;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public boolean isFinished() {
+        return tick >= tickCount;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public double getStepSeconds() {
+        return stepSeconds;
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Purpose: Play back a replay uncapped and print the game's state where it stopped and how fast it went
+     * Assumptions: none
+     * @param args --file=path (required) and --seek=tick (defaults to the end of the replay)
+     * @throws IOException if the replay couldn't be read
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for(String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(parts[0], parts.length == 2 ? parts[1] : "");
+        }
+        Replay replay = new Replay(Path.of(options.get("file")));
+        long target = Long.parseLong(options.getOrDefault("seek", "" + replay.getTickCount()));
+        long start = System.nanoTime();
+        replay.seek(target);
+        long nanos = System.nanoTime() - start;
+        World world = replay.getWorld();
+        System.out.println(replay.getSettings() + " seed=" + replay.getSeed());
+        System.out.printf("Tick %d of %d: %s, score %d, lives %d, paddle x %.2f, ball (%.2f, %.2f)%n",
+                replay.getTick(), replay.getTickCount(), world.getStatus(), world.getScore(), world.getLives(),
+                world.getPaddleX(), world.getBall().getCenterX(), world.getBall().getCenterY());
+        System.out.printf("Played %d ticks in %.2f ms (%.1f million ticks/s)%n", replay.getTick(), nanos / 1e6,
+                replay.getTick() * 1e3 / Math.max(1, nanos));
+    }
+}
@@ -0,0 +1,113 @@
+package breakout.sim;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Purpose: Record a game as its seed, settings, and each Input the player gave along with the tick it was given on,
+ * so that the game can be played back exactly (see Replay) to reproduce a bug a player ran into.
+ * Assumptions: the game is a World made by World.create with the same settings and seed, and is stepped by the same
+ * number of seconds every tick
+ * Dependencies: This class depends on the Input, Settings, and Varint classes and the DataOutputStream class.
+ * Example: Construct a ReplayRecorder when the game starts, call record on each Input before applying it and tick
+ * after each World step, and close it when the game is closed.
+ * Other details: the file is only ever appended to. It starts with a header (see Replay for the layout) and after
+ * that each Input is one varint of (ticks since the last Input << 3 | the Input's ordinal), so an Input takes 1 byte
+ * if it comes less than 16 ticks after the last one. close appends an END marker the same way, so that playback
+ * knows how many ticks the game went on for after the last Input. Whatever was recorded is flushed to the file once
+ * a second of game time, so a crash loses at most the last second of Inputs.
+ *
+ * @author Evan Kenyon
+ */
+public class ReplayRecorder implements Closeable {
+
+    public static final int MAGIC = 0x42524B52;
+    // Version 2 added the held key Inputs, which need a 3rd bit (version 1 replays can still be played back)
+    public static final int VERSION = 2;
+    // Ordinals take the bottom 3 bits of each event, with 7 (after every Input) marking the end of the game
+    static final int INPUT_BITS = 3;
+    static final int END = 7;
+
+    private DataOutputStream out;
+    private long ticksPerFlush;
+    private long tick;
+    private long lastInputTick;
+    // Whether anything was recorded since the last flush
+    private boolean unflushed;
+
+    /**
+     * Purpose: Start recording a game into file, replacing it if it already exists
+     * Assumptions: none
+     * @param file where to write the replay
+     * @param settings the settings the game's World was made with
+     * @param seed the seed the game's World was made with
+     * @param stepSeconds how many seconds the World is stepped by each tick
+     * @throws IOException if the file couldn't be written to
+     */
+    public ReplayRecorder(Path file, Settings settings, long seed, double stepSeconds) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(seed);
+        out.writeDouble(stepSeconds);
+        Varint.write(out, settings.sceneSize());
+        Varint.write(out, settings.brickSize());
+        out.writeDouble(settings.blockedRowOrColFreq());
+        Varint.write(out, settings.paddleSpeed());
+        out.writeDouble(settings.ballSpeed());
+        Varint.write(out, settings.ballCount());
+        Varint.write(out, settings.lives());
+        ticksPerFlush = Math.max(1, Math.round(1 / stepSeconds));
+        unflushed = true;
+        tick = 0;
+        lastInputTick = 0;
+    }
+
+    /**
+     * Purpose: Record that the player gave input before the next tick
+     * Assumptions: input is applied to the World before it is next stepped
+     * @param input what the player did
+     * @throws IOException if the file couldn't be written to
+     */
+    public void record(Input input) throws IOException {
+        writeEvent(input.ordinal());
+    }
+
+    /**
+     * Purpose: Record that the World was stepped once, and flush what was recorded if a second of ticks went by
+     * Assumptions: none
+     * @throws IOException if the file couldn't be written to
+     */
+    public void tick() throws IOException {
+        tick++;
+        if(unflushed && tick % ticksPerFlush == 0) {
+            out.flush();
+            unflushed = false;
+        }
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    private void writeEvent(int code) throws IOException {
+        Varint.write(out, (tick - lastInputTick) << INPUT_BITS | code);
+        lastInputTick = tick;
+        unflushed = true;
+    }
+
+    /**
+     * Purpose: Mark the end of the game and finish writing the file
+     * Assumptions: nothing is recorded after this
+     * @throws IOException if the file couldn't be written to
+     */
+    @Override
+    public void close() throws IOException {
+        writeEvent(END);
+        out.close();
+    }
+}
@@ -0,0 +1,55 @@
+package breakout.sim;
+
+import java.util.Random;
+
+/**
+ * Purpose: Give the same numbers as a java.util.Random with the same seed, but with a state that can be read and set
+ * again, so that a World's snapshot can put its randomness back exactly where it was.
+ * Assumptions: nextGaussian isn't used, since the Gaussian that Random keeps for its next call isn't part of the state
+ * Dependencies: This class depends on the Random class.
+ * Example: World.create makes one of these from the game's seed, and Snapshot saves it with getState and puts it
+ * back with setState.
+ * Other details: Random's own seed is private, so this repeats its linear congruential generator (the constants are
+ * the ones documented in Random's JavaDoc) and all of Random's other methods work through the overridden next.
+ *
+ * @author Evan Kenyon
+ */
+public class RestorableRandom extends Random {
+
+    private static final long serialVersionUID = 1L;
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    private long state;
+
+    /**
+     * Purpose: Construct a RestorableRandom that gives the same numbers as new Random(seed)
+     * Assumptions: none
+     * @param seed the seed
+     */
+    public RestorableRandom(long seed) {
+        // Random's constructor calls setSeed, which sets state
+        super(seed);
+    }
+
+    @Override
+    public synchronized void setSeed(long seed) {
+        super.setSeed(seed);
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+}
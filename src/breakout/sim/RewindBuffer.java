@@ -0,0 +1,83 @@
+package breakout.sim;
+
+/**
+ * Purpose: Keep snapshots of a World's most recent ticks in a fixed size ring, so that the game can be rewound
+ * instantly to any of them.
+ * Assumptions: capture is called once per tick, after the World steps
+ * Dependencies: This class depends on the World and Snapshot classes.
+ * Example: rewind = new RewindBuffer(world, 600) keeps the last 10 seconds at 60 ticks a second, call
+ * rewind.capture() after every world.step and rewind.rewind(60) to go back a second.
+ * Other details: every snapshot is made up front and saved into again when the ring wraps around, so capturing
+ * doesn't allocate beyond the brick pages the World copies when a brick is hit after a capture.
+ *
+ * @author Evan Kenyon
+ */
+public class RewindBuffer {
+
+    private World world;
+    private Snapshot[] snapshots;
+    // Index the next capture goes in, the most recent snapshot (the current tick) is just before it
+    private int head;
+    private int size;
+
+    /**
+     * Purpose: Construct an empty RewindBuffer for world
+     * Assumptions: capacity is positive
+     * @param world the World to snapshot and rewind
+     * @param capacity how many ticks back the game can be rewound
+     */
+    public RewindBuffer(World world, int capacity) {
+        this.world = world;
+        snapshots = new Snapshot[capacity];
+        for(int i = 0; i < capacity; i++) {
+            snapshots[i] = new Snapshot();
+        }
+    }
+
+    /**
+     * Purpose: Save the World as it is now, replacing the oldest snapshot if the ring is full
+     * Assumptions: none
+     */
+    public void capture() {
+        world.save(snapshots[head]);
+        head = (head + 1) % snapshots.length;
+        size = Math.min(size + 1, snapshots.length);
+    }
+
+    /**
+     * Purpose: Put the World back the way it was ticks ticks before the most recent capture (or as far back as there
+     * are snapshots), and forget the snapshots after that one, so that rewinding again goes further back
+     * Assumptions: ticks is positive, and the most recent capture is of the World as it is now (i.e. capture is
+     * called after every step)
+     * @param ticks how many ticks to go back, 1 being the tick before the current one
+     * @return false if there weren't any snapshots from before the current tick to rewind to, true otherwise
+     */
+    public boolean rewind(int ticks) {
+        // The most recent snapshot is the current tick, so it's only something to go back from
+        if(size < 2) {
+            return false;
+        }
+        int back = Math.min(ticks, size - 1);
+        head = Math.floorMod(head - back, snapshots.length);
+        size -= back;
+        // The restored snapshot stays in as the most recent one, since it's the World as it is now again
+        world.restore(snapshots[Math.floorMod(head - 1, snapshots.length)]);
+        return true;
+    }
+
+    /**
+     * Purpose: Forget every snapshot, e.g. after the World was changed in a way that can't be rewound past
+     * Assumptions: none
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return snapshots.length;
+    }
+}
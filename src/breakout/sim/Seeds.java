@@ -0,0 +1,34 @@
+package breakout.sim;
+
+/**
+ * Purpose: Turn a seed and a number (a game of a batch, a tile of a level, a brick's cell) into a new seed that looks
+ * unrelated to the ones for nearby numbers, so that everything random in the game can be derived from one seed.
+ * Assumptions: none
+ * Dependencies: none
+ * Example: Seeds.mix(seed, game) gives game's seed in a BatchSimulator, and World decides whether a destroyed brick
+ * drops a power-up from Seeds.mix(powerUpSeed, cell).
+ * Other details: the mixing is the finalizer SplittableRandom uses for its seeds, so it's quick enough to call for
+ * every cell of a level, and it is one-to-one for a given seed, so no two numbers get the same result.
+ *
+ * @author Evan Kenyon
+ */
+public final class Seeds {
+
+    private Seeds() {
+    }
+
+    /**
+     * Purpose: Work out the seed for one numbered part of whatever seed was given for
+     * Assumptions: none
+     * @param seed the seed to derive from
+     * @param index which part to derive a seed for
+     * @return 64 random looking bits, always the same for the same arguments
+     */
+    public static long mix(long seed, long index) {
+        // Finalizer from SplittableRandom's mix64 (Stafford variant 13)
+        long z = seed + (index + 1) * 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
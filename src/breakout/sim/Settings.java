@@ -0,0 +1,59 @@
+package breakout.sim;
+
+/**
+ * Purpose: Hold the numbers that a breakout game is tuned with, so that a World can be built with different values
+ * than the standard game's (e.g. by the BatchSimulator when balancing the game).
+ * Assumptions: values of vars do not push past practical limits (details in the World and BrickField constructors)
+ * Dependencies: This class depends on the World and Balls classes for the standard game's values.
+ * Example: Pass Settings.DEFAULT, or a copy of it with some values changed, to World.create.
+ * Other details: the ball's radius and the paddle's width are always the standard game's (see World), they don't
+ * shrink with smaller bricks, since a ball of a third of a tiny brick and a paddle of a few pixels can't be played.
+ *
+ * @param sceneSize width and height of the world
+ * @param brickSize width and height of each brick
+ * @param blockedRowOrColFreq frequency of a row or column of bricks being empty
+ * @param paddleSpeed how far the paddle moves for each key press (or each tick, for scripted paddles)
+ * @param ballSpeed max speed of the ball in either direction, in pixels per second
+ * @param ballCount how many balls are in play at once, at least 1
+ * @param lives number of times every ball can go past the bottom before the game is lost
+ *
+ * @author Evan Kenyon
+ */
+public record Settings(int sceneSize, int brickSize, double blockedRowOrColFreq, int paddleSpeed, double ballSpeed,
+                       int ballCount, int lives) {
+
+    public static final Settings DEFAULT = new Settings(World.SCENE_SIZE, World.BRICK_SIZE,
+            World.BLOCKED_ROW_OR_COL_FREQ, World.PADDLE_SPEED, Balls.SPEED, 1, World.STARTING_LIVES);
+
+    /**
+     * Purpose: Reject values that a World can't be played with, so that a bad command line option fails right away
+     * instead of losing the game in a few ticks or failing deep inside of Balls
+     * Assumptions: none
+     * @throws IllegalArgumentException if ballCount is less than 1
+     */
+    public Settings {
+        if(ballCount < 1) {
+            throw new IllegalArgumentException("The number of balls has to be at least 1, not " + ballCount);
+        }
+    }
+
+    public double ballRadius() {
+        return World.BALL_RADIUS;
+    }
+
+    public int paddleWidth() {
+        return World.PADDLE_WIDTH;
+    }
+
+    public Settings withSceneSize(int sceneSize) {
+        return new Settings(sceneSize, brickSize, blockedRowOrColFreq, paddleSpeed, ballSpeed, ballCount, lives);
+    }
+
+    public Settings withBrickSize(int brickSize) {
+        return new Settings(sceneSize, brickSize, blockedRowOrColFreq, paddleSpeed, ballSpeed, ballCount, lives);
+    }
+
+    public Settings withBallCount(int ballCount) {
+        return new Settings(sceneSize, brickSize, blockedRowOrColFreq, paddleSpeed, ballSpeed, ballCount, lives);
+    }
+}
@@ -0,0 +1,67 @@
+package breakout.sim;
+
+/**
+ * Purpose: Hold everything needed to put a World back the way it was at one tick (the paddle, balls, power-ups,
+ * lasers, lives, score, status, and bricks), for quick-saves and rewinding.
+ * Assumptions: a snapshot is only restored into the World that saved it, or a copy of that World made by World.copy
+ * Dependencies: This class depends on the Balls, Entities, RestorableRandom, and World classes.
+ * Example: snapshot = new Snapshot(), then world.save(snapshot) and later world.restore(snapshot). RewindBuffer
+ * keeps a ring of these.
+ * Other details: saving again reuses the snapshot's arrays, so a snapshot that is saved into every tick doesn't
+ * allocate once its balls have room for the most balls in play. Bricks aren't copied, the snapshot shares the
+ * BrickField's hit point pages (see BrickField), so saving and restoring take microseconds even on large fields.
+ *
+ * @author Evan Kenyon
+ */
+public class Snapshot {
+
+    double paddleX;
+    double paddleWidth;
+    double widePaddleTime;
+    double laserTime;
+    double laserCooldown;
+    double previousPaddleX;
+    double steppedPaddleX;
+    boolean leftHeld;
+    boolean rightHeld;
+    int lives;
+    int score;
+    World.Status status;
+    // Its spawn point and speed are never used, only the state copied in from the World's balls
+    Balls balls;
+    Entities drops;
+    Entities lasers;
+    byte[][] brickPages;
+    int bricksRemaining;
+
+    /**
+     * Purpose: Construct an empty snapshot to save a World into
+     * Assumptions: none
+     */
+    public Snapshot() {
+        balls = new Balls(1, 0, 0, 0, new RestorableRandom(0));
+        drops = new Entities(0);
+        lasers = new Entities(0);
+    }
+
+    /**
+     * Purpose: Check if a World has been saved into this yet
+     * Assumptions: none
+     * @return true if nothing has been saved, false otherwise
+     */
+    public boolean isEmpty() {
+        return brickPages == null;
+    }
+
+    public int getLives() {
+        return lives;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getBricksRemaining() {
+        return bricksRemaining;
+    }
+}
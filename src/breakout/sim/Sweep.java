@@ -0,0 +1,143 @@
+package breakout.sim;
+
+/**
+ * Purpose: Work out when a moving circle first touches a box (continuous collision), so that a ball can't pass
+ * through a brick or the paddle in one step however fast it moves or however long the step is.
+ * Assumptions: none
+ * Dependencies: This class depends on the Contact class.
+ * Example: Sweep.circleBox(contact, Contact.Kind.PADDLE, -1, ...) offers the time and normal of the ball hitting the
+ * paddle to contact, if it hits it before contact's current time.
+ * Other details: the circle is swept against the box grown by the radius (a rectangle with rounded corners), so hits
+ * on a face give that face's normal and hits on a corner give the normal pointing from the corner to the center.
+ * A circle that already overlaps the box is only reported (at time 0) if it is moving further into the box.
+ *
+ * @author Evan Kenyon
+ */
+public final class Sweep {
+
+    private Sweep() {
+    }
+
+    /**
+     * Purpose: Offer contact the first time a circle moving at (vx, vy) touches the given box
+     * Assumptions: minX <= maxX, minY <= maxY, and radius is positive
+     * @param contact the contact to offer the hit to, its time is how far ahead to look
+     * @param kind what the box is
+     * @param cell the cell of the box if it's a brick, otherwise -1
+     * @param x x value of the circle's center now
+     * @param y y value of the circle's center now
+     * @param radius radius of the circle
+     * @param vx x velocity of the circle
+     * @param vy y velocity of the circle
+     * @param minX left edge of the box
+     * @param minY top edge of the box
+     * @param maxX right edge of the box
+     * @param maxY bottom edge of the box
+     * @return whether contact took the hit
+     */
+    public static boolean circleBox(Contact contact, Contact.Kind kind, int cell, double x, double y, double radius,
+                                    double vx, double vy, double minX, double minY, double maxX, double maxY) {
+        double closestX = Math.max(minX, Math.min(maxX, x));
+        double closestY = Math.max(minY, Math.min(maxY, y));
+        double dx = x - closestX;
+        double dy = y - closestY;
+        double distanceSquared = dx * dx + dy * dy;
+        if(distanceSquared < radius * radius) {
+            return offerOverlap(contact, kind, cell, x, y, vx, vy, minX, minY, maxX, maxY, dx, dy, distanceSquared);
+        }
+        // Slabs of the box grown by the radius, the axis that is entered last is the face that is hit
+        double nearX;
+        double farX;
+        if(vx == 0) {
+            if(x < minX - radius || x > maxX + radius) {
+                return false;
+            }
+            nearX = Double.NEGATIVE_INFINITY;
+            farX = Double.POSITIVE_INFINITY;
+        } else {
+            double t1 = (minX - radius - x) / vx;
+            double t2 = (maxX + radius - x) / vx;
+            nearX = Math.min(t1, t2);
+            farX = Math.max(t1, t2);
+        }
+        double nearY;
+        double farY;
+        if(vy == 0) {
+            if(y < minY - radius || y > maxY + radius) {
+                return false;
+            }
+            nearY = Double.NEGATIVE_INFINITY;
+            farY = Double.POSITIVE_INFINITY;
+        } else {
+            double t1 = (minY - radius - y) / vy;
+            double t2 = (maxY + radius - y) / vy;
+            nearY = Math.min(t1, t2);
+            farY = Math.max(t1, t2);
+        }
+        double enter = Math.max(nearX, nearY);
+        double exit = Math.min(farX, farY);
+        if(enter > exit || exit <= 0 || enter > contact.getTime()) {
+            return false;
+        }
+        if(enter >= 0) {
+            double hitX = x + vx * enter;
+            double hitY = y + vy * enter;
+            if(nearX > nearY && hitY >= minY && hitY <= maxY) {
+                return contact.offer(enter, -Math.signum(vx), 0, kind, cell);
+            }
+            if(nearY >= nearX && hitX >= minX && hitX <= maxX) {
+                return contact.offer(enter, 0, -Math.signum(vy), kind, cell);
+            }
+            return circleCorner(contact, kind, cell, x, y, radius, vx, vy,
+                    hitX < minX ? minX : maxX, hitY < minY ? minY : maxY);
+        }
+        // Already inside the grown box but not touching the box, so the circle is by one of its corners
+        return circleCorner(contact, kind, cell, x, y, radius, vx, vy, closestX, closestY);
+    }
+
+    private static boolean circleCorner(Contact contact, Contact.Kind kind, int cell, double x, double y,
+                                        double radius, double vx, double vy, double cornerX, double cornerY) {
+        double dx = x - cornerX;
+        double dy = y - cornerY;
+        double a = vx * vx + vy * vy;
+        double b = dx * vx + dy * vy;
+        double c = dx * dx + dy * dy - radius * radius;
+        double discriminant = b * b - a * c;
+        if(a == 0 || b >= 0 || discriminant < 0) {
+            return false;
+        }
+        double time = Math.max(0, (-b - Math.sqrt(discriminant)) / a);
+        if(time > contact.getTime()) {
+            return false;
+        }
+        double normalX = dx + vx * time;
+        double normalY = dy + vy * time;
+        double length = Math.sqrt(normalX * normalX + normalY * normalY);
+        return contact.offer(time, normalX / length, normalY / length, kind, cell);
+    }
+
+    private static boolean offerOverlap(Contact contact, Contact.Kind kind, int cell, double x, double y,
+                                        double vx, double vy, double minX, double minY, double maxX, double maxY,
+                                        double dx, double dy, double distanceSquared) {
+        double normalX;
+        double normalY;
+        if(distanceSquared > 0) {
+            double distance = Math.sqrt(distanceSquared);
+            normalX = dx / distance;
+            normalY = dy / distance;
+        } else {
+            // Center is inside the box, push out through whichever face is closest
+            double left = x - minX;
+            double right = maxX - x;
+            double top = y - minY;
+            double bottom = maxY - y;
+            double closest = Math.min(Math.min(left, right), Math.min(top, bottom));
+            normalX = closest == left ? -1 : closest == right ? 1 : 0;
+            normalY = normalX != 0 ? 0 : closest == top ? -1 : 1;
+        }
+        if(vx * normalX + vy * normalY >= 0) {
+            return false;
+        }
+        return contact.offer(0, normalX, normalY, kind, cell);
+    }
+}
@@ -0,0 +1,93 @@
+package breakout.sim;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Purpose: Hand the latest of a stream of values (e.g. a Snapshot of the World after each tick) from one thread to
+ * another without locks, without either thread waiting on the other, and without allocating, so that a thread
+ * producing values at one rate and a thread using them at another don't hold each other up.
+ * Assumptions: there is one producer thread and one consumer thread, and neither touches the other's buffer
+ * Dependencies: This class depends on the AtomicInteger class.
+ * Example: the producer fills in getBack() and calls publish(), the consumer calls update() and then reads
+ * getFront(), which is the most recently published value.
+ * Other details: there are three buffers, one being written (back), one being read (front), and the most recently
+ * published one in between. Publishing swaps the back buffer with the middle one, and updating swaps the front buffer
+ * with the middle one if it's newer, so the producer never has to wait for the consumer to finish reading and values
+ * the consumer was too slow to take are just written over. The swaps are atomic, so everything written to a buffer
+ * before it was published is visible to the consumer after it takes it.
+ *
+ * @param <T> the type of value being handed over
+ *
+ * @author Evan Kenyon
+ */
+public class TripleBuffer<T> {
+
+    // Set in the middle index when it holds a value the consumer hasn't taken yet
+    private static final int FRESH = 1 << 2;
+    private static final int INDEX_MASK = FRESH - 1;
+
+    private Object[] buffers;
+    private AtomicInteger middle;
+    // Only touched by the producer
+    private int back;
+    // Only touched by the consumer
+    private int front;
+
+    /**
+     * Purpose: Construct a triple buffer from its three buffers, none of which has been published yet
+     * Assumptions: the three buffers are different objects
+     * @param first the first buffer to be written
+     * @param second a buffer
+     * @param third the buffer getFront returns before anything is published
+     */
+    public TripleBuffer(T first, T second, T third) {
+        buffers = new Object[] { first, second, third };
+        back = 0;
+        middle = new AtomicInteger(1);
+        front = 2;
+    }
+
+    /**
+     * Purpose: Return the buffer the producer should write the next value into
+     * Assumptions: only called by the producer
+     * @return the back buffer
+     */
+    @SuppressWarnings("unchecked")
+    public T getBack() {
+        return (T) buffers[back];
+    }
+
+    /**
+     * Purpose: Make the back buffer the latest value, and take a buffer to write the next value into
+     * Assumptions: only called by the producer, which doesn't touch the published buffer afterwards
+     * @return true if the consumer took the value published before this one, false if it was written over unread
+     */
+    public boolean publish() {
+        int previous = middle.getAndSet(back | FRESH);
+        back = previous & INDEX_MASK;
+        return (previous & FRESH) == 0;
+    }
+
+    /**
+     * Purpose: Take the latest value if there is one the consumer hasn't taken yet
+     * Assumptions: only called by the consumer, which doesn't touch the old front buffer afterwards
+     * @return true if getFront is now a newer value, false if nothing was published since the last update
+     */
+    public boolean update() {
+        if((middle.get() & FRESH) == 0) {
+            return false;
+        }
+        front = middle.getAndSet(front) & INDEX_MASK;
+        return true;
+    }
+
+    /**
+     * Purpose: Return the latest value the consumer has taken
+     * Assumptions: only called by the consumer
+     * @return the front buffer
+     */
+    @SuppressWarnings("unchecked")
+    public T getFront() {
+        return (T) buffers[front];
+    }
+}
@@ -0,0 +1,65 @@
+package breakout.sim;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Purpose: Write and read unsigned variable length integers (7 bits per byte, lowest bits first, with the top bit of
+ * each byte set if more bytes follow), so that the small numbers that most of a replay or a network snapshot is made
+ * of take 1 byte each.
+ * Assumptions: values are not negative (a negative value would take 10 bytes)
+ * Dependencies: This class depends on the DataOutput and ByteBuffer classes.
+ * Other details: this is the same encoding as protobuf's varints.
+ *
+ * @author Evan Kenyon
+ */
+public final class Varint {
+
+    private Varint() {
+    }
+
+    public static void write(DataOutput out, long value) throws IOException {
+        while((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    // out needs room for up to 10 bytes
+    public static void write(ByteBuffer out, long value) {
+        while((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    /**
+     * Purpose: Check whether the rest of a buffer starts with a whole varint, which it doesn't if the data was cut off
+     * part way through one (e.g. a file that was still being written when the program crashed)
+     * Assumptions: none
+     * @param in the buffer, whose position isn't changed
+     * @return true if read would read a whole varint, false if the buffer ends first
+     */
+    public static boolean hasComplete(ByteBuffer in) {
+        for(int i = in.position(); i < in.limit(); i++) {
+            if(in.get(i) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static long read(ByteBuffer in) {
+        long value = 0;
+        for(int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if(b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package breakout.sim;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Purpose: Run many games in lockstep for training and testing paddle agents, taking one action per game per step and
+ * writing what each game looks like afterwards into one direct ByteBuffer that the agent reads straight from, without
+ * going through a Scene or copying observations.
+ * Assumptions: only used from one thread at a time
+ * Dependencies: This class depends on the World, Settings, Input, BatchSimulator (for seeds), and WorldListener
+ * classes and the ByteBuffer class.
+ * Example: env.reset(307), then repeatedly fill an int[] with an action per game (NOOP, LEFT, RIGHT, or LAUNCH), call
+ * env.step(actions), and read each game's record from env.getObservations() at game * env.getStride().
+ * Other details: each game's record is, in native byte order: lives, score, done (0 or 1), and ball count (ints),
+ * reward and paddle x (floats), then x, y, x velocity, and y velocity (floats) for each of the settings' ball count
+ * balls (zeros for balls that are out of play), then a bit per brick cell (1 if there's a brick, cell i is bit i % 8
+ * of byte i / 8), padded so each record starts on an 8 byte boundary. Reward is bricks destroyed minus lives lost
+ * that step. A game that ends is started again right away with its next seed, so done is set on the step it ended and
+ * the record already shows the new game. Brick bits are only cleared as bricks are destroyed instead of being
+ * rewritten every step, which is what keeps large fields cheap.
+ *
+ * @author Evan Kenyon
+ */
+public class VectorEnv {
+
+    public static final int NOOP = 0;
+    public static final int LEFT = 1;
+    public static final int RIGHT = 2;
+    public static final int LAUNCH = 3;
+    public static final int LIVES_OFFSET = 0;
+    public static final int SCORE_OFFSET = 4;
+    public static final int DONE_OFFSET = 8;
+    public static final int BALL_COUNT_OFFSET = 12;
+    public static final int REWARD_OFFSET = 16;
+    public static final int PADDLE_X_OFFSET = 20;
+    public static final int BALLS_OFFSET = 24;
+    public static final int BYTES_PER_BALL = 16;
+
+    private Settings settings;
+    private double stepSeconds;
+    private World[] worlds;
+    private long[] gameSeeds;
+    private int[] episodes;
+    private int[] lastScores;
+    private int[] lastLives;
+    private ByteBuffer observations;
+    private int stride;
+    private int bricksOffset;
+
+    /**
+     * Purpose: Construct an environment that runs the given number of games, which don't exist until reset
+     * Assumptions: games is positive and a record for each game fits in one ByteBuffer
+     * @param settings the numbers every game is tuned with
+     * @param games how many games run in lockstep
+     * @param stepSeconds how many seconds of game time each step covers
+     */
+    public VectorEnv(Settings settings, int games, double stepSeconds) {
+        this.settings = settings;
+        this.stepSeconds = stepSeconds;
+        worlds = new World[games];
+        gameSeeds = new long[games];
+        episodes = new int[games];
+        lastScores = new int[games];
+        lastLives = new int[games];
+        bricksOffset = BALLS_OFFSET + settings.ballCount() * BYTES_PER_BALL;
+        // Every game's field has the same size, so the first game's size works for all of them
+        int cells = World.create(settings, 0).getBricks().getCellCount();
+        stride = (bricksOffset + (cells + 7) / 8 + 7) & ~7;
+        observations = ByteBuffer.allocateDirect(stride * games).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Purpose: Start a new game in every slot and write their first observations
+     * Assumptions: none
+     * @param seed seed for every game, the same seed always gives the same games (and the same games after them)
+     */
+    public void reset(long seed) {
+        for(int game = 0; game < worlds.length; game++) {
+            gameSeeds[game] = BatchSimulator.getGameSeed(seed, game);
+            episodes[game] = 0;
+            startGame(game);
+            writeObservation(game, 0, false);
+        }
+    }
+
+    private void startGame(int game) {
+        World world = World.create(settings, BatchSimulator.getGameSeed(gameSeeds[game], episodes[game]));
+        int base = game * stride;
+        world.setListener(new WorldListener() {
+            @Override
+            public void brickDestroyed(int cell) {
+                int index = base + bricksOffset + cell / 8;
+                observations.put(index, (byte) (observations.get(index) & ~(1 << (cell % 8))));
+            }
+        });
+        worlds[game] = world;
+        lastScores[game] = 0;
+        lastLives[game] = world.getLives();
+        writeBricks(game);
+    }
+
+    private void writeBricks(int game) {
+        BrickField bricks = worlds[game].getBricks();
+        int start = game * stride + bricksOffset;
+        int end = (game + 1) * stride;
+        for(int i = start; i < end; i++) {
+            observations.put(i, (byte) 0);
+        }
+        for(int cell = 0; cell < bricks.getCellCount(); cell++) {
+            if(bricks.isOccupied(cell)) {
+                int index = start + cell / 8;
+                observations.put(index, (byte) (observations.get(index) | (1 << (cell % 8))));
+            }
+        }
+    }
+
+    /**
+     * Purpose: Apply an action to every game, step them all once, and write their observations
+     * Assumptions: reset has been called, actions has one of NOOP, LEFT, RIGHT, or LAUNCH per game
+     * @param actions what each game's paddle does this step
+     */
+    public void step(int[] actions) {
+        for(int game = 0; game < worlds.length; game++) {
+            World world = worlds[game];
+            switch (actions[game]) {
+                case LEFT -> Input.LEFT.apply(world, settings.paddleSpeed());
+                case RIGHT -> Input.RIGHT.apply(world, settings.paddleSpeed());
+                case LAUNCH -> Input.LAUNCH.apply(world, settings.paddleSpeed());
+            }
+            world.step(stepSeconds);
+            float reward = (world.getScore() - lastScores[game]) - (lastLives[game] - world.getLives());
+            boolean done = world.getStatus() != World.Status.PLAYING;
+            if(done) {
+                episodes[game]++;
+                startGame(game);
+            } else {
+                lastScores[game] = world.getScore();
+                lastLives[game] = world.getLives();
+            }
+            writeObservation(game, reward, done);
+        }
+    }
+
+    private void writeObservation(int game, float reward, boolean done) {
+        World world = worlds[game];
+        Balls balls = world.getBalls();
+        int base = game * stride;
+        observations.putInt(base + LIVES_OFFSET, world.getLives());
+        observations.putInt(base + SCORE_OFFSET, world.getScore());
+        observations.putInt(base + DONE_OFFSET, done ? 1 : 0);
+        observations.putInt(base + BALL_COUNT_OFFSET, balls.getCount());
+        observations.putFloat(base + REWARD_OFFSET, reward);
+        observations.putFloat(base + PADDLE_X_OFFSET, (float) world.getPaddleX());
+        for(int i = 0; i < settings.ballCount(); i++) {
+            int ball = base + BALLS_OFFSET + i * BYTES_PER_BALL;
+            boolean inPlay = i < balls.getCount();
+            observations.putFloat(ball, inPlay ? (float) balls.getX(i) : 0);
+            observations.putFloat(ball + 4, inPlay ? (float) balls.getY(i) : 0);
+            observations.putFloat(ball + 8, inPlay ? (float) balls.getXVelocity(i) : 0);
+            observations.putFloat(ball + 12, inPlay ? (float) balls.getYVelocity(i) : 0);
+        }
+    }
+
+    /**
+     * Purpose: Return the buffer every game's observation is written into, which is the same buffer for the life of
+     * the environment
+     * Assumptions: none
+     * @return the observations (see the class comment for the layout)
+     */
+    public ByteBuffer getObservations() {
+        return observations;
+    }
+
+    public int getStride() {
+        return stride;
+    }
+
+    public int getBricksOffset() {
+        return bricksOffset;
+    }
+
+    public int getGameCount() {
+        return worlds.length;
+    }
+
+    /**
+     * Purpose: Return one of the games, e.g. for drawing it
+     * Assumptions: reset has been called
+     * @param game which game
+     * @return the game's World, which is replaced by a new one when the game ends
+     */
+    public World getWorld(int game) {
+        return worlds[game];
+    }
+}
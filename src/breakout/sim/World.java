@@ -0,0 +1,762 @@
+package breakout.sim;
+
+import java.util.Random;
+
+/**
+ * Purpose: Hold all of the state of a breakout game (balls, paddle, bricks, lives, and score) as plain data and apply
+ * the game's rules to it each step, so that a game can run without a display or the JavaFX toolkit.
+ * Assumptions: values of vars do not push past practical limits (e.g. a paddle wider than the world)
+ * Dependencies: This class depends on the Balls, BallState, BrickField, Entities, PowerUp, Contact, Sweep, Settings,
+ * WorldListener, PhaseProfiler, Phase, Snapshot, RestorableRandom, and Seeds classes and the Random class.
+ * Example: Construct a World (or use create or createDefault), call movePaddle and launchBall on player input, and call step
+ * once per frame. The Breakout class draws the World, but it can also be stepped on its own from any thread.
+ * Other details: the world's origin is the top left corner, with y increasing downwards like in a JavaFX scene.
+ * In multi-ball games a ball that goes past the bottom is taken out of play, and a life is only lost once every ball
+ * is gone, at which point as many balls as the game started with are put back.
+ * Each step runs the game's systems in order: the paddle, the balls, then the falling power-ups and the lasers (each
+ * an Entities archetype). Power-ups are off unless setPowerUps is called, so games without them play out exactly as
+ * they did before power-ups existed (which replays rely on).
+ *
+ * @author Evan Kenyon
+ */
+public class World {
+
+    /**
+     * Purpose: Whether the game is still going, or has been won or lost
+     */
+    public enum Status { PLAYING, WON, LOST }
+
+    // No particular reasoning behind the scene size besides personal preference
+    public static final int SCENE_SIZE = 800;
+    public static final int OFFSET_PADDLE_AMOUNT = 50;
+    public static final int OFFSET_BALL_AMOUNT = OFFSET_PADDLE_AMOUNT + 100;
+    // I found that this was the "goldilocks" size, since not too many bricks were on the screen
+    // so that the game would quickly become boring, but there were enough that winning the game
+    // wasn't trivial
+    public static final int BRICK_SIZE = 49;
+    // This made the ball small enough to fit in empty spaces in between bricks and not too small
+    // to look odd visually
+    public static final double BALL_RADIUS = BRICK_SIZE /3.0;
+    // This made the paddle wide enough to easily fit the ball, but not too wide as to make the game
+    // completely trivial to win
+    public static final int PADDLE_WIDTH = (int) BALL_RADIUS * 8;
+    public static final int PADDLE_HEIGHT = 20;
+    // This paddle speed was the minimum value, based on the max X speed being 300 in the
+    // Balls class, that I found where the player would almost always only miss the ball
+    // due to their own fault
+    public static final int PADDLE_SPEED = 25;
+    // Holding a key moves the paddle as fast as PADDLE_SPEED a press did at a typical key repeat rate of 30 a second,
+    // but from the tick the key goes down instead of after the repeat delay
+    public static final int KEY_REPEATS_PER_SECOND = 30;
+    public static final double BLOCKED_ROW_OR_COL_FREQ = 0.1;
+    public static final int STARTING_LIVES = 3;
+    // A ball squeezed between bricks can hit many things in one step, this stops it from looping forever
+    public static final int MAX_CONTACTS_PER_STEP = 16;
+    // How much a ball is turned for each pixel from the middle of the paddle that it hits the top of
+    public static final double PADDLE_STEERING_DEGREES_PER_PIXEL = 0.5;
+    // Power-ups fall slowly enough to be chased down, and last long enough to clear a few rows with
+    public static final double POWER_UP_SIZE = 20;
+    public static final double POWER_UP_FALL_SPEED = 150;
+    public static final double POWER_UP_SECONDS = 10;
+    public static final double WIDE_PADDLE_SCALE = 1.5;
+    public static final int MULTI_BALL_COUNT = 2;
+    // The paddle fires a laser from each end 4 times a second while it has the laser power-up
+    public static final double LASER_WIDTH = 4;
+    public static final double LASER_HEIGHT = 16;
+    public static final double LASER_SPEED = 600;
+    public static final double LASER_INTERVAL = 0.25;
+
+    private double width;
+    private double height;
+    private double paddleX;
+    // Where the paddle was after the step before last and after the last step, for drawing it in between steps
+    private double previousPaddleX;
+    private double steppedPaddleX;
+    private double paddleY;
+    private double paddleWidth;
+    private double paddleHeight;
+    // The paddle's width without the wide paddle power-up
+    private double basePaddleWidth;
+    // Whether the player is holding the paddle to the left or right, it moves at heldPaddleSpeed while they are
+    private boolean leftHeld;
+    private boolean rightHeld;
+    private double heldPaddleSpeed;
+    private Balls balls;
+    private BallState ball;
+    private int ballCount;
+    private BrickField bricks;
+    // Falling power-ups (kind is the PowerUp's ordinal) and the paddle's lasers
+    private Entities drops;
+    private Entities lasers;
+    // Chance of a destroyed brick dropping a power-up, which is decided by hashing powerUpSeed with the brick's cell
+    // so that it doesn't use up randomness the balls would have used
+    private double powerUpChance;
+    private long powerUpSeed;
+    // Seconds left on each timed power-up, and until the paddle fires its next lasers
+    private double widePaddleTime;
+    private double laserTime;
+    private double laserCooldown;
+    private int lives;
+    private int score;
+    private Contact contact;
+    private Status status;
+    private WorldListener listener;
+    private PhaseProfiler profiler;
+    // The profiler while it's enabled and null otherwise, checked once per step so that phase changes are free while
+    // profiling is off
+    private PhaseProfiler activeProfiler;
+
+    /**
+     * Purpose: Construct a World from its already constructed balls and bricks
+     * Assumptions: the balls, bricks, and paddle all start inside of a width x height area, and there is at least 1 ball
+     * @param width width of the world, which the balls bounce off of the sides of
+     * @param height height of the world, which the balls are lost past the bottom of
+     * @param balls the balls, as many as there are now are put back in play after a life is lost
+     * @param bricks the bricks
+     * @param paddleX the x value of the top left corner of the paddle
+     * @param paddleY the y value of the top left corner of the paddle
+     * @param paddleWidth width of the paddle
+     * @param paddleHeight height of the paddle
+     * @param lives number of times the ball can go past the bottom before the game is lost
+     */
+    public World(double width, double height, Balls balls, BrickField bricks, double paddleX, double paddleY,
+                 double paddleWidth, double paddleHeight, int lives) {
+        this.width = width;
+        this.height = height;
+        this.balls = balls;
+        ball = new BallState(balls, 0);
+        ballCount = balls.getCount();
+        this.bricks = bricks;
+        this.paddleX = paddleX;
+        previousPaddleX = paddleX;
+        steppedPaddleX = paddleX;
+        this.paddleY = paddleY;
+        this.paddleWidth = paddleWidth;
+        basePaddleWidth = paddleWidth;
+        this.paddleHeight = paddleHeight;
+        heldPaddleSpeed = PADDLE_SPEED * KEY_REPEATS_PER_SECOND;
+        drops = new Entities(0);
+        lasers = new Entities(0);
+        this.lives = lives;
+        score = 0;
+        contact = new Contact();
+        status = Status.PLAYING;
+        listener = new WorldListener() {};
+    }
+
+    /**
+     * Purpose: Construct a World with the standard breakout game's layout
+     * Assumptions: none
+     * @return a new World with a randomly generated set of bricks
+     */
+    public static World createDefault() {
+        return create(Settings.DEFAULT, new Random().nextLong());
+    }
+
+    /**
+     * Purpose: Construct a World with the standard breakout game's layout scaled to the given settings
+     * Assumptions: settings has at least 1 ball
+     * @param settings the numbers the game is tuned with
+     * @param seed seed for all of the game's randomness, the same seed always gives the same game
+     * @return a new World with a generated set of bricks
+     */
+    public static World create(Settings settings, long seed) {
+        // Restorable so that snapshots can put the balls' respawn angles back too
+        Random rand = new RestorableRandom(seed);
+        int size = settings.sceneSize();
+        Balls balls = createBalls(settings, rand);
+        return create(settings, balls,
+                new BrickField(size, size, settings.brickSize(), settings.brickSize(), settings.blockedRowOrColFreq(), rand));
+    }
+
+    /**
+     * Purpose: Construct a World with the standard breakout game's layout scaled to the given settings, but with
+     * bricks that were made ahead of time (e.g. loaded from a level file) instead of generated
+     * Assumptions: settings has at least 1 ball
+     * @param settings the numbers the game is tuned with (its brick size and blocked frequency aren't used)
+     * @param bricks the bricks
+     * @param seed seed for the balls' starting angles
+     * @return a new World
+     * @throws IllegalArgumentException if bricks don't fit in the top half of the scene
+     */
+    public static World create(Settings settings, BrickField bricks, long seed) {
+        if(!bricks.fitsScene(settings.sceneSize(), settings.sceneSize())) {
+            throw new IllegalArgumentException(String.format("A %d x %d field of %d x %d bricks doesn't fit in the top "
+                            + "half of a %d pixel scene", bricks.getColumns(), bricks.getRows(), bricks.getBrickWidth(),
+                    bricks.getBrickHeight(), settings.sceneSize()));
+        }
+        return create(settings, createBalls(settings, new RestorableRandom(seed)), bricks);
+    }
+
+    private static Balls createBalls(Settings settings, Random rand) {
+        int size = settings.sceneSize();
+        Balls balls = new Balls(settings.ballCount(), size /2, size - OFFSET_BALL_AMOUNT, settings.ballRadius(),
+                settings.ballSpeed(), rand);
+        balls.reset(settings.ballCount());
+        return balls;
+    }
+
+    private static World create(Settings settings, Balls balls, BrickField bricks) {
+        int size = settings.sceneSize();
+        // Rectangle constructor parameters from example_animation in course gitlab
+        World world = new World(size, size, balls, bricks, size / 2 - settings.paddleWidth() / 2,
+                size - OFFSET_PADDLE_AMOUNT, settings.paddleWidth(), PADDLE_HEIGHT, settings.lives());
+        world.setHeldPaddleSpeed(settings.paddleSpeed() * KEY_REPEATS_PER_SECOND);
+        return world;
+    }
+
+    /**
+     * Purpose: Advance the game by elapsedTime seconds, bouncing each ball off of everything it hits along the way
+     * Assumptions: none, balls are swept along their whole path so they can't skip over a brick or the paddle
+     * however large elapsedTime is
+     * @param elapsedTime number of seconds to advance the game by
+     */
+    public void step(double elapsedTime) {
+        if(status != Status.PLAYING) {
+            return;
+        }
+        activeProfiler = profiler != null && profiler.isEnabled() ? profiler : null;
+        if(activeProfiler != null) {
+            activeProfiler.startTick(Phase.PADDLE_BOUNDS);
+        }
+        updatePaddle(elapsedTime);
+        updateBalls(elapsedTime);
+        enterPhase(Phase.ENTITIES);
+        updateDrops(elapsedTime);
+        updateLasers(elapsedTime);
+        enterPhase(Phase.WIN_CHECK);
+        if(balls.getCount() == 0) {
+            balls.reset(ballCount);
+            handleLifeDecrement();
+        }
+        handleNoBricksRemaining();
+        if(activeProfiler != null) {
+            activeProfiler.endTick();
+        }
+    }
+
+    private void updatePaddle(double elapsedTime) {
+        moveHeldPaddle(elapsedTime);
+        updatePowerUpTimes(elapsedTime);
+        handlePaddleIntersectingBounds();
+        previousPaddleX = steppedPaddleX;
+        steppedPaddleX = paddleX;
+    }
+
+    private void updateBalls(double elapsedTime) {
+        balls.savePreviousPositions();
+        for(int i = 0; i < balls.getCount(); i++) {
+            enterPhase(Phase.PADDLE_PUSH_OUT);
+            pushBallOutOfPaddle(i);
+            moveBall(i, elapsedTime);
+            enterPhase(Phase.BALL_MOVE);
+            if(balls.getY(i) >= height) {
+                balls.remove(i);
+                // The last ball was moved into index i, so it still needs to be moved
+                i--;
+            }
+        }
+    }
+
+    // Drops leave the world at the bottom when their lifetime runs out, so only catching them has to be checked
+    private void updateDrops(double elapsedTime) {
+        drops.move(elapsedTime);
+        drops.age(elapsedTime);
+        for(int i = 0; i < drops.getCount(); i++) {
+            // Swept from where the drop was, so a drop can't fall through the paddle in one step
+            if(drops.getX(i) + drops.getWidth(i) >= paddleX && drops.getX(i) <= paddleX + paddleWidth
+                    && drops.getY(i) + drops.getHeight(i) >= paddleY && drops.getPreviousY(i) <= paddleY + paddleHeight) {
+                PowerUp powerUp = PowerUp.get(drops.getKind(i));
+                drops.remove(i);
+                // The last drop was moved into index i, so it still needs to be checked
+                i--;
+                applyPowerUp(powerUp);
+            }
+        }
+    }
+
+    // Lasers leave the world at the top when their lifetime runs out, so only hitting bricks has to be checked
+    private void updateLasers(double elapsedTime) {
+        fireLasers(elapsedTime);
+        lasers.move(elapsedTime);
+        lasers.age(elapsedTime);
+        for(int i = 0; i < lasers.getCount(); i++) {
+            double x = lasers.getX(i);
+            // Swept from where the laser was, so a fast laser can't skip over a thin brick
+            int cell = bricks.getCellIntersecting(x, lasers.getY(i), x + lasers.getWidth(i),
+                    lasers.getPreviousY(i) + lasers.getHeight(i));
+            if(cell != -1) {
+                lasers.remove(i);
+                // The last laser was moved into index i, so it still needs to be checked
+                i--;
+                hitBrick(cell);
+                enterPhase(Phase.ENTITIES);
+            }
+        }
+    }
+
+    // Only fires while the balls are moving, so that lasers can't clear the level before the game starts
+    private void fireLasers(double elapsedTime) {
+        if(laserTime <= 0 || !balls.isMoving()) {
+            return;
+        }
+        laserCooldown -= elapsedTime;
+        if(laserCooldown <= 0) {
+            laserCooldown += LASER_INTERVAL;
+            double y = paddleY - LASER_HEIGHT;
+            double lifetime = paddleY / LASER_SPEED;
+            lasers.add(paddleX, y, 0, -LASER_SPEED, LASER_WIDTH, LASER_HEIGHT, lifetime, 0);
+            lasers.add(paddleX + paddleWidth - LASER_WIDTH, y, 0, -LASER_SPEED, LASER_WIDTH, LASER_HEIGHT, lifetime, 0);
+        }
+    }
+
+    private void updatePowerUpTimes(double elapsedTime) {
+        if(widePaddleTime > 0) {
+            widePaddleTime -= elapsedTime;
+            if(widePaddleTime <= 0) {
+                setPaddleWidth(basePaddleWidth);
+            }
+        }
+        laserTime = Math.max(0, laserTime - elapsedTime);
+    }
+
+    // The paddle grows and shrinks around its middle
+    private void setPaddleWidth(double width) {
+        paddleX -= (width - paddleWidth) / 2;
+        paddleWidth = width;
+    }
+
+    private void applyPowerUp(PowerUp powerUp) {
+        switch (powerUp) {
+            case WIDE_PADDLE -> {
+                widePaddleTime = POWER_UP_SECONDS;
+                setPaddleWidth(basePaddleWidth * WIDE_PADDLE_SCALE);
+            }
+            case MULTI_BALL -> {
+                for(int i = 0; i < MULTI_BALL_COUNT; i++) {
+                    balls.add(paddleX + paddleWidth / 2, paddleY - balls.getRadius(0) - 1);
+                }
+            }
+            case LASER -> {
+                if(laserTime <= 0) {
+                    laserCooldown = 0;
+                }
+                laserTime = POWER_UP_SECONDS;
+            }
+            case EXTRA_LIFE -> lives++;
+        }
+        enterPhase(Phase.SCENE_UPDATE);
+        listener.powerUpCaught(powerUp);
+        enterPhase(Phase.ENTITIES);
+    }
+
+    /**
+     * Purpose: Have destroyed bricks drop power-ups, which are off by default
+     * Assumptions: chance is from 0 to 1
+     * @param chance chance of each destroyed brick dropping a power-up
+     * @param seed seed for which bricks drop power-ups and which ones they drop, the same seed always drops the same
+     *             power-up from the same brick
+     */
+    public void setPowerUps(double chance, long seed) {
+        powerUpChance = chance;
+        powerUpSeed = seed;
+    }
+
+    private void enterPhase(Phase phase) {
+        if(activeProfiler != null) {
+            activeProfiler.enter(phase);
+        }
+    }
+
+    /**
+     * Purpose: Move the paddle horizontally, it is pushed back inside the world on the next step if needed
+     * Assumptions: none
+     * @param distance how far to move the paddle (negative values move it left)
+     */
+    public void movePaddle(double distance) {
+        paddleX += distance;
+    }
+
+    /**
+     * Purpose: Start or stop holding the paddle to the left, it moves left on every step while it's held
+     * Assumptions: none
+     * @param held true when the key goes down, false when it comes back up
+     */
+    public void holdLeft(boolean held) {
+        leftHeld = held;
+    }
+
+    /**
+     * Purpose: Start or stop holding the paddle to the right, it moves right on every step while it's held
+     * Assumptions: none
+     * @param held true when the key goes down, false when it comes back up
+     */
+    public void holdRight(boolean held) {
+        rightHeld = held;
+    }
+
+    /**
+     * Purpose: Set how fast the paddle moves while it's held to one side
+     * Assumptions: speed is not negative
+     * @param speed the paddle's speed in pixels per second
+     */
+    public void setHeldPaddleSpeed(double speed) {
+        heldPaddleSpeed = speed;
+    }
+
+    // Holding both ways at once cancels out
+    private void moveHeldPaddle(double elapsedTime) {
+        if(leftHeld != rightHeld) {
+            paddleX += (rightHeld ? heldPaddleSpeed : -heldPaddleSpeed) * elapsedTime;
+        }
+    }
+
+    /**
+     * Purpose: Start the ball's movement at the beginning of the game or after losing a life
+     * Assumptions: none
+     */
+    public void launchBall() {
+        balls.setIsMoving(true);
+    }
+
+    private void handlePaddleIntersectingBounds() {
+        if(paddleX <= 0) {
+            paddleX = 0;
+        } else if (paddleX + paddleWidth >= width) {
+            paddleX = width - paddleWidth;
+        }
+    }
+
+    // The player can move the paddle into the side of a ball, so the ball is moved back out along the shortest way
+    // (and bounced if it's heading further in) instead of getting stuck inside of the paddle
+    private void pushBallOutOfPaddle(int i) {
+        double x = balls.getX(i);
+        double y = balls.getY(i);
+        double radius = balls.getRadius(i);
+        double closestX = Math.max(paddleX, Math.min(paddleX + paddleWidth, x));
+        double closestY = Math.max(paddleY, Math.min(paddleY + paddleHeight, y));
+        double dx = x - closestX;
+        double dy = y - closestY;
+        double distance = Math.sqrt(dx * dx + dy * dy);
+        if(distance >= radius) {
+            return;
+        }
+        double normalX = 0;
+        double normalY = -1;
+        if(distance > 0) {
+            normalX = dx / distance;
+            normalY = dy / distance;
+        } else {
+            closestY = paddleY;
+        }
+        balls.setX(i, closestX + normalX * radius);
+        balls.setY(i, closestY + normalY * radius);
+        if(balls.getXVelocity(i) * normalX + balls.getYVelocity(i) * normalY < 0) {
+            reflectVelocity(i, normalX, normalY);
+        }
+    }
+
+    // Moves the ball to each thing it hits in turn, bouncing off of it, until elapsedTime is used up
+    private void moveBall(int i, double elapsedTime) {
+        double remaining = elapsedTime;
+        for(int contacts = 0; contacts < MAX_CONTACTS_PER_STEP; contacts++) {
+            double vx = balls.getXVelocity(i);
+            double vy = balls.getYVelocity(i);
+            if(vx == 0 && vy == 0) {
+                return;
+            }
+            contact.reset(remaining);
+            findFirstContact(i, vx, vy);
+            enterPhase(Phase.BALL_MOVE);
+            if(contact.getKind() == Contact.Kind.NONE) {
+                advanceBall(i, remaining);
+                return;
+            }
+            advanceBall(i, contact.getTime());
+            remaining -= contact.getTime();
+            enterPhase(Phase.BOUNCE);
+            handleContact(i);
+        }
+        // Whatever time is left over is dropped rather than risk moving the ball through something
+    }
+
+    private void findFirstContact(int i, double vx, double vy) {
+        double x = balls.getX(i);
+        double y = balls.getY(i);
+        double radius = balls.getRadius(i);
+        enterPhase(Phase.WALL_CONTACTS);
+        findWallContact(x, y, radius, vx, vy);
+        enterPhase(Phase.PADDLE_CONTACTS);
+        Sweep.circleBox(contact, Contact.Kind.PADDLE, -1, x, y, radius, vx, vy,
+                paddleX, paddleY, paddleX + paddleWidth, paddleY + paddleHeight);
+        enterPhase(Phase.BRICK_CONTACTS);
+        bricks.findFirstContact(contact, x, y, radius, vx, vy);
+    }
+
+    // The bottom isn't a wall, balls that go past it are taken out of play
+    private void findWallContact(double x, double y, double radius, double vx, double vy) {
+        if(vx < 0) {
+            contact.offer(Math.max(0, (radius - x) / vx), 1, 0, Contact.Kind.WALL, -1);
+        } else if(vx > 0) {
+            contact.offer(Math.max(0, (width - radius - x) / vx), -1, 0, Contact.Kind.WALL, -1);
+        }
+        if(vy < 0) {
+            contact.offer(Math.max(0, (radius - y) / vy), 0, 1, Contact.Kind.WALL, -1);
+        }
+    }
+
+    private void advanceBall(int i, double time) {
+        balls.setX(i, balls.getX(i) + balls.getXVelocity(i) * time);
+        balls.setY(i, balls.getY(i) + balls.getYVelocity(i) * time);
+    }
+
+    private void handleContact(int i) {
+        reflectVelocity(i, contact.getNormalX(), contact.getNormalY());
+        switch (contact.getKind()) {
+            case PADDLE -> handleBallHittingPaddle(i);
+            case BRICK -> handleBallHittingBrick(contact.getCell());
+        }
+    }
+
+    private void reflectVelocity(int i, double normalX, double normalY) {
+        double vx = balls.getXVelocity(i);
+        double vy = balls.getYVelocity(i);
+        double dot = vx * normalX + vy * normalY;
+        balls.setXVelocity(i, vx - 2 * dot * normalX);
+        balls.setYVelocity(i, vy - 2 * dot * normalY);
+    }
+
+    private void handleBallHittingPaddle(int i) {
+        enterPhase(Phase.SCENE_UPDATE);
+        listener.paddleHit();
+        enterPhase(Phase.BOUNCE);
+        // Only hits on the top of the paddle steer the ball, based on how far from the middle of the paddle it hit
+        if(contact.getNormalY() == -1) {
+            double fromMiddle = (paddleX + paddleWidth / 2) - balls.getX(i);
+            balls.setAngle(i, balls.getAngle(i) + Math.toRadians(PADDLE_STEERING_DEGREES_PER_PIXEL * fromMiddle));
+            // Steering can't send the ball back down into the paddle
+            if(balls.getYVelocity(i) > 0) {
+                balls.reverseYVelocity(i);
+            }
+        }
+    }
+
+    private void handleBallHittingBrick(int cell) {
+        hitBrick(cell);
+        enterPhase(Phase.BOUNCE);
+    }
+
+    // Shared by balls and lasers, which each go back to their own phase afterwards
+    private void hitBrick(int cell) {
+        boolean destroyed = bricks.hit(cell);
+        if(destroyed) {
+            score++;
+            dropPowerUp(cell);
+        }
+        enterPhase(Phase.SCENE_UPDATE);
+        if(destroyed) {
+            listener.brickDestroyed(cell);
+        } else {
+            listener.brickHit(cell);
+        }
+    }
+
+    private void dropPowerUp(int cell) {
+        if(powerUpChance == 0) {
+            return;
+        }
+        long bits = Seeds.mix(powerUpSeed, cell);
+        // The top 53 bits decide whether it drops and the rest which power-up it is
+        if((bits >>> 11) * 0x1.0p-53 >= powerUpChance) {
+            return;
+        }
+        double x = bricks.getCellX(cell) + (bricks.getBrickWidth() - POWER_UP_SIZE) / 2;
+        double y = bricks.getCellY(cell) + (bricks.getBrickHeight() - POWER_UP_SIZE) / 2;
+        drops.add(x, y, 0, POWER_UP_FALL_SPEED, POWER_UP_SIZE, POWER_UP_SIZE, (height - y) / POWER_UP_FALL_SPEED,
+                (int) ((bits & 0x7FF) % PowerUp.getCount()));
+    }
+
+    // Power-ups end with the life they were caught in
+    private void handleLifeDecrement() {
+        lives--;
+        balls.setIsMoving(false);
+        drops.clear();
+        lasers.clear();
+        widePaddleTime = 0;
+        laserTime = 0;
+        setPaddleWidth(basePaddleWidth);
+        if(lives == 0) {
+            status = Status.LOST;
+        }
+        enterPhase(Phase.SCENE_UPDATE);
+        listener.lifeLost();
+        if(status == Status.LOST) {
+            listener.gameEnded(status);
+        }
+        enterPhase(Phase.WIN_CHECK);
+    }
+
+    // A step that takes the last life and the last brick ends the game as lost, so the game only ends once
+    private void handleNoBricksRemaining() {
+        if(status == Status.PLAYING && !bricks.isBrickRemaining()) {
+            status = Status.WON;
+            enterPhase(Phase.SCENE_UPDATE);
+            listener.gameEnded(status);
+        }
+    }
+
+    /**
+     * Purpose: Construct a World with the same layout, bricks, and state as this one, for restoring this World's
+     * snapshots into elsewhere (e.g. to draw a World that is being stepped on another thread)
+     * Assumptions: no more bricks will be put in this World's BrickField with setBrick (e.g. by a LevelLoader)
+     * @return the copy, which shouldn't be stepped since it can't spawn new balls
+     */
+    public World copy() {
+        Snapshot snapshot = new Snapshot();
+        save(snapshot);
+        // Like in Snapshot, these balls' spawn point and speed are never used
+        World copy = new World(width, height, new Balls(balls.getCount(), 0, 0, 0, new RestorableRandom(0)),
+                bricks.copy(), paddleX, paddleY, basePaddleWidth, paddleHeight, lives);
+        copy.restore(snapshot);
+        return copy;
+    }
+
+    /**
+     * Purpose: Save the whole state of the game into snapshot, overwriting whatever was saved in it before
+     * Assumptions: none
+     * @param snapshot the snapshot to save into
+     */
+    public void save(Snapshot snapshot) {
+        snapshot.paddleX = paddleX;
+        snapshot.paddleWidth = paddleWidth;
+        snapshot.widePaddleTime = widePaddleTime;
+        snapshot.laserTime = laserTime;
+        snapshot.laserCooldown = laserCooldown;
+        snapshot.previousPaddleX = previousPaddleX;
+        snapshot.steppedPaddleX = steppedPaddleX;
+        snapshot.leftHeld = leftHeld;
+        snapshot.rightHeld = rightHeld;
+        snapshot.lives = lives;
+        snapshot.score = score;
+        snapshot.status = status;
+        snapshot.balls.copyFrom(balls);
+        snapshot.drops.copyFrom(drops);
+        snapshot.lasers.copyFrom(lasers);
+        snapshot.brickPages = bricks.sharePages(snapshot.brickPages);
+        snapshot.bricksRemaining = bricks.getRemaining();
+    }
+
+    /**
+     * Purpose: Put the game back the way it was when snapshot was saved, calling the listener's brickChanged for
+     * each brick that is different now
+     * Assumptions: snapshot isn't empty and was saved by this World (or the World this is a copy of), after its bricks
+     * were all put in
+     * @param snapshot the snapshot to restore
+     */
+    public void restore(Snapshot snapshot) {
+        paddleX = snapshot.paddleX;
+        paddleWidth = snapshot.paddleWidth;
+        widePaddleTime = snapshot.widePaddleTime;
+        laserTime = snapshot.laserTime;
+        laserCooldown = snapshot.laserCooldown;
+        previousPaddleX = snapshot.previousPaddleX;
+        steppedPaddleX = snapshot.steppedPaddleX;
+        leftHeld = snapshot.leftHeld;
+        rightHeld = snapshot.rightHeld;
+        lives = snapshot.lives;
+        score = snapshot.score;
+        status = snapshot.status;
+        balls.copyFrom(snapshot.balls);
+        drops.copyFrom(snapshot.drops);
+        lasers.copyFrom(snapshot.lasers);
+        bricks.restorePages(snapshot.brickPages, snapshot.bricksRemaining, listener);
+    }
+
+    public void setListener(WorldListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Purpose: Time each phase of every step with profiler while it's enabled
+     * Assumptions: the profiler is only used by this World
+     * @param profiler the profiler, or null to stop profiling
+     */
+    public void setProfiler(PhaseProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    public double getPaddleX() {
+        return paddleX;
+    }
+
+    /**
+     * Purpose: Return where the paddle is drawn alpha of the way between the last two steps
+     * Assumptions: none
+     * @param alpha how far between the steps, from 0 (the step before last) to 1 (the last step)
+     * @return the paddle's x value to draw at
+     */
+    public double getInterpolatedPaddleX(double alpha) {
+        return previousPaddleX + (steppedPaddleX - previousPaddleX) * alpha;
+    }
+
+    public double getPaddleY() {
+        return paddleY;
+    }
+
+    public double getPaddleWidth() {
+        return paddleWidth;
+    }
+
+    public double getPaddleHeight() {
+        return paddleHeight;
+    }
+
+    /**
+     * Purpose: Return the ball in a single ball game (or the first ball in a multi-ball game)
+     * Assumptions: none
+     * @return the first ball
+     */
+    public BallState getBall() {
+        return ball;
+    }
+
+    public Balls getBalls() {
+        return balls;
+    }
+
+    public BrickField getBricks() {
+        return bricks;
+    }
+
+    public Entities getDrops() {
+        return drops;
+    }
+
+    public Entities getLasers() {
+        return lasers;
+    }
+
+    public boolean hasLasers() {
+        return laserTime > 0;
+    }
+
+    public int getLives() {
+        return lives;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,62 @@
+package breakout.sim;
+
+/**
+ * Purpose: Let whatever is showing a World (e.g. the Breakout application) know about changes that it can't
+ * cheaply work out by reading the World's state each frame.
+ * Assumptions: listeners are quick, since they are called from inside World.step
+ * Dependencies: This class depends on the PowerUp enum and the World class.
+ * Example: Breakout removes a brick's Rectangle from the scene in brickDestroyed.
+ *
+ * @author Evan Kenyon
+ */
+public interface WorldListener {
+
+    /**
+     * Purpose: Called after the brick in cell was hit by the ball and removed from the BrickField
+     * @param cell the cell the destroyed brick was in
+     */
+    default void brickDestroyed(int cell) {
+    }
+
+    /**
+     * Purpose: Called after the brick in cell was hit by the ball but still has hit points left
+     * @param cell the cell the hit brick is in
+     */
+    default void brickHit(int cell) {
+    }
+
+    /**
+     * Purpose: Called after a ball bounced off of the paddle
+     */
+    default void paddleHit() {
+    }
+
+    /**
+     * Purpose: Called after World.restore put a brick back to how it was when the snapshot was taken, which can
+     * bring a destroyed brick back, take one away, or change its hit points
+     * @param cell the cell of the brick that changed
+     */
+    default void brickChanged(int cell) {
+    }
+
+    /**
+     * Purpose: Called after the paddle caught a falling power-up and it took effect
+     * @param powerUp the power-up that was caught
+     */
+    default void powerUpCaught(PowerUp powerUp) {
+    }
+
+    /**
+     * Purpose: Called after the ball went past the bottom of the world and a life was taken away
+     */
+    default void lifeLost() {
+    }
+
+    /**
+     * Purpose: Called once per game, after the last brick was destroyed or the last life was lost. If both happen in
+     * the same step the life is lost first, so the game counts as lost and this is only called with LOST
+     * @param status how the game ended, WON or LOST
+     */
+    default void gameEnded(World.Status status) {
+    }
+}